@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.concurrent.AtomicLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AtomicLockBenchmark {
+
+    private AtomicLock lock;
+
+    @Setup
+    public void setup() {
+        this.lock = new AtomicLock("benchmark");
+    }
+
+    @Benchmark
+    public void tryLockUnlock() {
+        if (this.lock.tryLock()) {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Short critical sections with contention, each acquisition used to
+     * cost at least 1s with lock(retries) when the first try failed
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean lockShortSectionContended() {
+        boolean locked = this.lock.lock(1);
+        if (locked) {
+            try {
+                Blackhole.consumeCPU(100L);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return locked;
+    }
+}
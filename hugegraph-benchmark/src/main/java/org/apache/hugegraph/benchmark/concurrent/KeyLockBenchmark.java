@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.concurrent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.hugegraph.concurrent.IndexedKeyLock;
+import org.apache.hugegraph.concurrent.KeyLock;
+import org.apache.hugegraph.concurrent.ReadWriteKeyLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyLockBenchmark {
+
+    @Param({"4", "16"})
+    private int keyCount;
+
+    private KeyLock keyLock;
+    private IndexedKeyLock indexedKeyLock;
+    private ReadWriteKeyLock readWriteKeyLock;
+    private Object[] keys;
+
+    @Setup
+    public void setup() {
+        this.keyLock = new KeyLock();
+        this.indexedKeyLock = new IndexedKeyLock();
+        this.readWriteKeyLock = new ReadWriteKeyLock();
+        this.keys = new Object[this.keyCount];
+        for (int i = 0; i < this.keyCount; i++) {
+            this.keys[i] = "key-" + i;
+        }
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        Object key = this.keys[0];
+        this.keyLock.lock(key);
+        this.keyLock.unlock(key);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void lockUnlockContended() {
+        Object key = this.keys[0];
+        this.keyLock.lock(key);
+        this.keyLock.unlock(key);
+    }
+
+    @Benchmark
+    public List<Lock> lockAllTwoKeys() {
+        List<Lock> locks = this.keyLock.lockAll(this.keys[0], this.keys[1]);
+        this.keyLock.unlockAll(locks);
+        return locks;
+    }
+
+    @Benchmark
+    public List<Lock> lockAll() {
+        List<Lock> locks = this.keyLock.lockAll(this.keys);
+        this.keyLock.unlockAll(locks);
+        return locks;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Lock> lockAllContended() {
+        List<Lock> locks = this.keyLock.lockAll(this.keys);
+        this.keyLock.unlockAll(locks);
+        return locks;
+    }
+
+    @Benchmark
+    public IndexedKeyLock.Handle indexedLockAll() {
+        IndexedKeyLock.Handle handle = this.indexedKeyLock.lockAll(this.keys);
+        this.indexedKeyLock.unlockAll(handle);
+        return handle;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public IndexedKeyLock.Handle indexedLockAllContended() {
+        IndexedKeyLock.Handle handle = this.indexedKeyLock.lockAll(this.keys);
+        this.indexedKeyLock.unlockAll(handle);
+        return handle;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void readLockUnlockContended() {
+        Object key = this.keys[0];
+        this.readWriteKeyLock.readLock(key);
+        this.readWriteKeyLock.readUnlock(key);
+    }
+}
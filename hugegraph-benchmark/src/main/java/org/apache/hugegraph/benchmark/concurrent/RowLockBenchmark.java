@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.concurrent;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.concurrent.PooledRowLock;
+import org.apache.hugegraph.concurrent.RowLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowLockBenchmark {
+
+    @Param({"4", "16"})
+    private int keyCount;
+
+    private RowLock<Integer> rowLock;
+    private PooledRowLock<Integer> pooledRowLock;
+    private Set<Integer> keys;
+
+    @Setup
+    public void setup() {
+        this.rowLock = new RowLock<>();
+        this.pooledRowLock = new PooledRowLock<>();
+        this.keys = new HashSet<>();
+        for (int i = 0; i < this.keyCount; i++) {
+            this.keys.add(i);
+        }
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        this.rowLock.lock(0);
+        this.rowLock.unlock(0);
+    }
+
+    @Benchmark
+    public void lockUnlockReentrant() {
+        this.rowLock.lock(0);
+        this.rowLock.lock(0);
+        this.rowLock.unlock(0);
+        this.rowLock.unlock(0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void lockUnlockContended() {
+        this.rowLock.lock(0);
+        this.rowLock.unlock(0);
+    }
+
+    @Benchmark
+    public void lockAll() {
+        this.rowLock.lockAll(this.keys);
+        this.rowLock.unlockAll(this.keys);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void lockAllContended() {
+        this.rowLock.lockAll(this.keys);
+        this.rowLock.unlockAll(this.keys);
+    }
+
+    @Benchmark
+    public void pooledLockUnlock() {
+        this.pooledRowLock.lock(0);
+        this.pooledRowLock.unlock(0);
+    }
+
+    @Benchmark
+    public void pooledLockUnlockReentrant() {
+        this.pooledRowLock.lock(0);
+        this.pooledRowLock.lock(0);
+        this.pooledRowLock.unlock(0);
+        this.pooledRowLock.unlock(0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void pooledLockUnlockContended() {
+        this.pooledRowLock.lock(0);
+        this.pooledRowLock.unlock(0);
+    }
+
+    @Benchmark
+    public void pooledLockAll() {
+        this.pooledRowLock.lockAll(this.keys);
+        this.pooledRowLock.unlockAll(this.keys);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void pooledLockAllContended() {
+        this.pooledRowLock.lockAll(this.keys);
+        this.pooledRowLock.unlockAll(this.keys);
+    }
+}
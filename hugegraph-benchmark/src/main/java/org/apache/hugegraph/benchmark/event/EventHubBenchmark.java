@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.event.Event;
+import org.apache.hugegraph.event.EventHub;
+import org.apache.hugegraph.event.ShardedEventDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * NOTE: the executor of EventHub is static, each benchmark must run in its
+ * own fork since it is destroyed on tear down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventHubBenchmark {
+
+    private static final String EVENT = "benchmark-event";
+    private static final String EVENT_NO_LISTENER = "benchmark-event-none";
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1", "8"})
+    private int listenerCount;
+
+    private EventHub hub;
+    private ShardedEventDispatcher dispatcher;
+    private EventHub shardedHub;
+    private List<Event> batch;
+
+    @Setup
+    public void setup() {
+        this.hub = new EventHub("benchmark");
+        this.dispatcher = new ShardedEventDispatcher("benchmark", 4, 1024);
+        this.shardedHub = new EventHub("benchmark-sharded", this.dispatcher);
+        for (int i = 0; i < this.listenerCount; i++) {
+            this.hub.listen(EVENT, event -> event.args().length);
+            this.shardedHub.listen(EVENT, event -> event.args().length);
+        }
+        this.batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            this.batch.add(new Event(this.hub, EVENT, i));
+        }
+    }
+
+    @TearDown
+    public void teardown() throws InterruptedException {
+        EventHub.destroy(30L);
+        this.dispatcher.shutdown();
+        this.dispatcher.awaitTermination(30L, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Future<Integer> notifyNoListener() {
+        return this.hub.notify(EVENT_NO_LISTENER, 1);
+    }
+
+    @Benchmark
+    public Integer notifyAndWait() throws ExecutionException,
+                                          InterruptedException {
+        return this.hub.notify(EVENT, 1).get();
+    }
+
+    @Benchmark
+    public Future<Integer> notifySharded() {
+        return this.shardedHub.notify(EVENT, 1);
+    }
+
+    @Benchmark
+    public Integer notifyShardedAndWait() throws ExecutionException,
+                                                 InterruptedException {
+        return this.shardedHub.notify(EVENT, 1).get();
+    }
+
+    @Benchmark
+    public int notifySync() {
+        return this.hub.notifySync(EVENT, 1);
+    }
+
+    /**
+     * Deliver BATCH_SIZE events by one task, compare with notifyAndWait
+     * divided by BATCH_SIZE
+     */
+    @Benchmark
+    public Integer notifyAllAndWait() throws ExecutionException,
+                                             InterruptedException {
+        return this.hub.notifyAll(this.batch).get();
+    }
+}
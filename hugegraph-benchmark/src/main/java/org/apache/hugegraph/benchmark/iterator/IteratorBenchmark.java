@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.iterator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.hugegraph.iterator.BatchMapperIterator;
+import org.apache.hugegraph.iterator.ChunkedFilterIterator;
+import org.apache.hugegraph.iterator.ChunkedFlatMapperIterator;
+import org.apache.hugegraph.iterator.ExtendableIterator;
+import org.apache.hugegraph.iterator.FilterIterator;
+import org.apache.hugegraph.iterator.FlatMapperIterator;
+import org.apache.hugegraph.iterator.LimitIterator;
+import org.apache.hugegraph.iterator.LongCIter;
+import org.apache.hugegraph.iterator.LongFilterIterator;
+import org.apache.hugegraph.iterator.LongLimitIterator;
+import org.apache.hugegraph.iterator.LongMapperIterator;
+import org.apache.hugegraph.iterator.MapperIterator;
+import org.apache.hugegraph.iterator.MergeSortedIterator;
+import org.apache.hugegraph.iterator.PrefetchBatchMapperIterator;
+import org.apache.hugegraph.iterator.TopKIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IteratorBenchmark {
+
+    private static final int SUB_ITERATORS = 16;
+    private static final int PREFETCH = 4;
+    // The simulated cost of mapping a batch, like a backend query
+    private static final long MAPPER_LATENCY_US = 100L;
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"100", "1000"})
+    private int batch;
+
+    private List<Integer> values;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        this.values = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.values.add(i);
+        }
+        this.executor = Executors.newFixedThreadPool(PREFETCH);
+    }
+
+    @TearDown
+    public void teardown() {
+        this.executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void plainIterator(Blackhole bh) {
+        consume(this.values.iterator(), bh);
+    }
+
+    @Benchmark
+    public void batchMapperIterator(Blackhole bh) {
+        Iterator<Integer> iter = new BatchMapperIterator<>(
+                                 this.batch, this.values.iterator(),
+                                 List::iterator);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void batchMapperIteratorReuseBuffer(Blackhole bh) {
+        Iterator<Integer> iter = new BatchMapperIterator<>(
+                                 this.batch, this.values.iterator(),
+                                 List::iterator, true);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void batchMapperIteratorWithLatency(Blackhole bh) {
+        Iterator<Integer> iter = new BatchMapperIterator<>(
+                                 this.batch, this.values.iterator(),
+                                 slowMapper());
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void prefetchBatchMapperIteratorWithLatency(Blackhole bh) {
+        Iterator<Integer> iter = new PrefetchBatchMapperIterator<>(
+                                 this.batch, this.values.iterator(),
+                                 slowMapper(), this.executor,
+                                 PREFETCH, true);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void prefetchUnorderedBatchMapperIteratorWithLatency(Blackhole bh) {
+        Iterator<Integer> iter = new PrefetchBatchMapperIterator<>(
+                                 this.batch, this.values.iterator(),
+                                 slowMapper(), this.executor,
+                                 PREFETCH, false);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void flatMapperIterator(Blackhole bh) {
+        int batch = this.batch;
+        Iterator<Integer> origin = new LimitIterator<>(
+                                   this.values.iterator(),
+                                   i -> i >= this.size / batch);
+        Iterator<Integer> iter = new FlatMapperIterator<>(origin, i -> {
+            int from = i * batch;
+            return this.values.subList(from, from + batch).iterator();
+        });
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void chunkedFlatMapperIterator(Blackhole bh) {
+        int batch = this.batch;
+        Iterator<Integer> origin = new LimitIterator<>(
+                                   this.values.iterator(),
+                                   i -> i >= this.size / batch);
+        BiConsumer<Integer, Consumer<? super Integer>> mapper;
+        mapper = (i, results) -> {
+            int from = i * batch;
+            for (int j = from; j < from + batch; j++) {
+                results.accept(this.values.get(j));
+            }
+        };
+        Iterator<Integer> iter = new ChunkedFlatMapperIterator<>(origin,
+                                                                 mapper);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void filterIterator(Blackhole bh) {
+        Iterator<Integer> iter = new FilterIterator<>(this.values.iterator(),
+                                                      i -> (i & 1) == 0);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void chunkedFilterIterator(Blackhole bh) {
+        Iterator<Integer> iter = new ChunkedFilterIterator<>(
+                                 this.values.iterator(), i -> (i & 1) == 0);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void extendableIterator(Blackhole bh) {
+        ExtendableIterator<Integer> iter = new ExtendableIterator<>();
+        int step = this.size / SUB_ITERATORS;
+        for (int i = 0; i < SUB_ITERATORS; i++) {
+            iter.extend(this.values.subList(i * step, (i + 1) * step)
+                                   .iterator());
+        }
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void mergeSortedIterator(Blackhole bh) {
+        Iterator<Integer> iter = new MergeSortedIterator<>(this.shards(),
+                                                           Integer::compare);
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void collectThenSort(Blackhole bh) {
+        List<Integer> all = new ArrayList<>(this.size);
+        for (Iterator<Integer> shard : this.shards()) {
+            shard.forEachRemaining(all::add);
+        }
+        all.sort(Integer::compare);
+        consume(all.iterator(), bh);
+    }
+
+    @Benchmark
+    public void topKIterator(Blackhole bh) {
+        Iterator<Integer> iter = new TopKIterator<>(this.values.iterator(),
+                                                    this.batch,
+                                                    Comparator.reverseOrder());
+        consume(iter, bh);
+    }
+
+    @Benchmark
+    public void sortThenLimit(Blackhole bh) {
+        List<Integer> all = new ArrayList<>(this.values);
+        all.sort(Comparator.reverseOrder());
+        consume(all.subList(0, this.batch).iterator(), bh);
+    }
+
+    @Benchmark
+    public void mapperFilterLimitChain(Blackhole bh) {
+        int limit = this.size / 2;
+        Iterator<Integer> iter = new MapperIterator<>(this.values.iterator(),
+                                                      i -> i + 1);
+        iter = new FilterIterator<>(iter, i -> (i & 1) == 0);
+        iter = new LimitIterator<>(iter, i -> i > limit);
+        consume(iter, bh);
+    }
+
+    /**
+     * Split the values into sorted shards by interleaving them
+     */
+    private List<Iterator<Integer>> shards() {
+        List<Iterator<Integer>> shards = new ArrayList<>(SUB_ITERATORS);
+        for (int i = 0; i < SUB_ITERATORS; i++) {
+            int shard = i;
+            shards.add(new FilterIterator<>(this.values.iterator(),
+                                            v -> v % SUB_ITERATORS == shard));
+        }
+        return shards;
+    }
+
+    private static Function<List<Integer>, Iterator<Integer>> slowMapper() {
+        return batch -> {
+            long deadline = System.nanoTime() +
+                            TimeUnit.MICROSECONDS.toNanos(MAPPER_LATENCY_US);
+            while (System.nanoTime() < deadline) {
+                // Busy wait, since sleep() is too coarse for microseconds
+                Thread.yield();
+            }
+            return batch.iterator();
+        };
+    }
+
+    @Benchmark
+    public void longFilterLimitChain(Blackhole bh) {
+        int limit = this.size / 2;
+        LongCIter iter = new LongMapperIterator<>(this.values.iterator(),
+                                                  i -> i + 1L);
+        iter = new LongFilterIterator(iter, i -> (i & 1L) == 0L);
+        iter = new LongLimitIterator(iter, i -> i > limit);
+        while (iter.hasNext()) {
+            bh.consume(iter.nextLong());
+        }
+    }
+
+    private static void consume(Iterator<Integer> iter, Blackhole bh) {
+        while (iter.hasNext()) {
+            bh.consume(iter.next());
+        }
+    }
+}
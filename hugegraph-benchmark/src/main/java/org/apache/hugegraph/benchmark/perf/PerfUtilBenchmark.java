@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.perf.PerfUtil;
+import org.apache.hugegraph.perf.Stopwatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the cost of PerfUtil.start()/end(), the state is thread scoped
+ * since the watches of PerfUtil are thread local.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerfUtilBenchmark {
+
+    // NOTE: PerfUtil.end() compares watch names by reference
+    private static final String OUTER = "outer";
+    private static final String INNER = "inner";
+
+    @Param({"false", "true"})
+    private boolean lightWatch;
+
+    @Param({"false", "true"})
+    private boolean singleThread;
+
+    @Setup
+    public void setup() {
+        PerfUtil.instance().clear();
+        PerfUtil.useLightStopwatch(this.lightWatch);
+        PerfUtil.profileSingleThread(this.singleThread);
+    }
+
+    @TearDown
+    public void teardown() {
+        PerfUtil.profileSingleThread(false);
+        PerfUtil.instance().clear();
+        PerfUtil.useLightStopwatch(false);
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public Stopwatch startEnd() {
+        Stopwatch watch = PerfUtil.instance().start(OUTER);
+        PerfUtil.instance().end(OUTER);
+        return watch;
+    }
+
+    @Benchmark
+    public Stopwatch startEndNested() {
+        Stopwatch watch = PerfUtil.instance().start(OUTER);
+        PerfUtil.instance().start(INNER);
+        PerfUtil.instance().end(INNER);
+        PerfUtil.instance().end(OUTER);
+        return watch;
+    }
+}
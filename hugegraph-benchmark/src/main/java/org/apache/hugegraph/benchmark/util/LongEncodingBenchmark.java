@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.util.LongEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongEncodingBenchmark {
+
+    private static final int VALUES = 1024;
+    private static final int MASK = VALUES - 1;
+
+    private long[] numbers;
+    private String[] sortables;
+    private String[] b64s;
+    private String[] signedB64s;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1L);
+        this.numbers = new long[VALUES];
+        this.sortables = new String[VALUES];
+        this.b64s = new String[VALUES];
+        this.signedB64s = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            long num = random.nextLong();
+            this.numbers[i] = num;
+            this.sortables[i] = LongEncoding.encodeSortable(num);
+            this.b64s[i] = LongEncoding.encodeB64(Math.abs(num));
+            this.signedB64s[i] = LongEncoding.encodeSignedB64(num);
+        }
+    }
+
+    private int next() {
+        return this.index++ & MASK;
+    }
+
+    @Benchmark
+    public String encodeSortable() {
+        return LongEncoding.encodeSortable(this.numbers[this.next()]);
+    }
+
+    @Benchmark
+    public long decodeSortable() {
+        return LongEncoding.decodeSortable(this.sortables[this.next()]);
+    }
+
+    @Benchmark
+    public String encodeB64() {
+        return LongEncoding.encodeB64(Math.abs(this.numbers[this.next()]));
+    }
+
+    @Benchmark
+    public long decodeB64() {
+        return LongEncoding.decodeB64(this.b64s[this.next()]);
+    }
+
+    @Benchmark
+    public String encodeSignedB64() {
+        return LongEncoding.encodeSignedB64(this.numbers[this.next()]);
+    }
+
+    @Benchmark
+    public long decodeSignedB64() {
+        return LongEncoding.decodeSignedB64(this.signedB64s[this.next()]);
+    }
+}
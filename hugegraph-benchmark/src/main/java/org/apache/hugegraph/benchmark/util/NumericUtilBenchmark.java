@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.util.NumericUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericUtilBenchmark {
+
+    private static final int VALUES = 1024;
+    private static final int MASK = VALUES - 1;
+
+    private double[] doubles;
+    private float[] floats;
+    private long[] sortableLongs;
+    private int[] sortableInts;
+    private Number[] numbers;
+    private byte[][] sortableBytes;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1L);
+        this.doubles = new double[VALUES];
+        this.floats = new float[VALUES];
+        this.sortableLongs = new long[VALUES];
+        this.sortableInts = new int[VALUES];
+        this.numbers = new Number[VALUES];
+        this.sortableBytes = new byte[VALUES][];
+        for (int i = 0; i < VALUES; i++) {
+            this.doubles[i] = random.nextDouble() * random.nextInt();
+            this.floats[i] = random.nextFloat() * random.nextInt();
+            this.sortableLongs[i] = NumericUtil.doubleToSortableLong(
+                                    this.doubles[i]);
+            this.sortableInts[i] = NumericUtil.floatToSortableInt(
+                                   this.floats[i]);
+            this.numbers[i] = (i & 1) == 0 ? (Number) random.nextLong() :
+                                             (Number) this.doubles[i];
+            this.sortableBytes[i] = NumericUtil.numberToSortableBytes(
+                                    this.numbers[i]);
+        }
+    }
+
+    private int next() {
+        return this.index++ & MASK;
+    }
+
+    @Benchmark
+    public long doubleToSortableLong() {
+        return NumericUtil.doubleToSortableLong(this.doubles[this.next()]);
+    }
+
+    @Benchmark
+    public double sortableLongToDouble() {
+        return NumericUtil.sortableLongToDouble(
+               this.sortableLongs[this.next()]);
+    }
+
+    @Benchmark
+    public int floatToSortableInt() {
+        return NumericUtil.floatToSortableInt(this.floats[this.next()]);
+    }
+
+    @Benchmark
+    public float sortableIntToFloat() {
+        return NumericUtil.sortableIntToFloat(this.sortableInts[this.next()]);
+    }
+
+    @Benchmark
+    public byte[] numberToSortableBytes() {
+        return NumericUtil.numberToSortableBytes(this.numbers[this.next()]);
+    }
+
+    @Benchmark
+    public Number sortableBytesToNumber() {
+        int i = this.next();
+        return NumericUtil.sortableBytesToNumber(this.sortableBytes[i],
+                                                 this.numbers[i].getClass());
+    }
+}
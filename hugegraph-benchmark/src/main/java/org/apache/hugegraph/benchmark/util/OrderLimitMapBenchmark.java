@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.benchmark.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.util.OrderLimitHeap;
+import org.apache.hugegraph.util.OrderLimitMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rank the same sequence of (key, score) updates by OrderLimitMap and
+ * OrderLimitHeap, the keys are repeated to cover both inserts and updates
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderLimitMapBenchmark {
+
+    private static final int PUTS = 100000;
+
+    @Param({"100", "10000"})
+    private int capacity;
+
+    private Long[] keys;
+    private Double[] scores;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1L);
+        this.keys = new Long[PUTS];
+        this.scores = new Double[PUTS];
+        for (int i = 0; i < PUTS; i++) {
+            this.keys[i] = (long) random.nextInt(this.capacity * 4);
+            this.scores[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public Object orderLimitMap() {
+        OrderLimitMap<Long, Double> map = new OrderLimitMap<>(this.capacity);
+        for (int i = 0; i < PUTS; i++) {
+            map.put(this.keys[i], this.scores[i]);
+        }
+        return map.topN(this.capacity);
+    }
+
+    @Benchmark
+    public Object orderLimitHeap() {
+        OrderLimitHeap<Long, Double> map = new OrderLimitHeap<>(this.capacity);
+        for (int i = 0; i < PUTS; i++) {
+            map.put(this.keys[i], this.scores[i]);
+        }
+        return map.topN(this.capacity);
+    }
+}
@@ -17,7 +17,14 @@
 
 package org.apache.hugegraph.concurrent;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.hugegraph.util.Log;
 import org.slf4j.Logger;
@@ -26,50 +33,189 @@ public class AtomicLock {
 
     private static final Logger LOG = Log.logger(LockManager.class);
 
+    // The times to spin before parking, enough for short critical sections
+    private static final int SPINS = 128;
+    // The times to spin before yielding if Thread.onSpinWait() is missing
+    private static final int YIELD_SPINS = 16;
+    // Thread.onSpinWait() since Java 9, null if not supported
+    private static final MethodHandle ON_SPIN_WAIT = onSpinWaitHandle();
+
     private String name;
     private AtomicReference<Thread> sign;
+    // The threads parked for the lock, unparked by unlock() in FIFO order
+    private final Queue<Thread> waiters;
+    // The contention stats, see LockStats
+    private final LockStats stats;
+    // Only accessed by the thread holding the lock
+    private long acquiredAt;
 
     public AtomicLock(String name) {
+        this(name, null);
+    }
+
+    AtomicLock(String name, LockStats stats) {
         this.name = name;
         this.sign = new AtomicReference<>();
+        this.waiters = new ConcurrentLinkedQueue<>();
+        this.stats = stats;
+        this.acquiredAt = LockStats.NONE;
     }
 
     public boolean tryLock() {
+        if (this.stats == null) {
+            return this.doTryLock();
+        }
+        long start = this.stats.beginWait();
+        boolean locked = this.doTryLock();
+        this.acquired(this.stats.endTry(start, locked), locked);
+        return locked;
+    }
+
+    /**
+     * Try to acquire the lock within the given waiting time, spin a while
+     * first and then park until the lock is released by unlock()
+     * @param timeout The maximum time to wait for the lock
+     * @param unit The time unit of the timeout argument
+     * @return true if the lock was acquired, false if timeout or the lock
+     *         is held by the current thread (it's not reentrant)
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryLock(long timeout, TimeUnit unit)
+                           throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        if (this.stats == null) {
+            return this.doTryLock(nanos);
+        }
+        long start = this.stats.beginWait();
+        boolean locked = false;
+        try {
+            locked = this.doTryLock(nanos);
+        } finally {
+            this.acquired(this.stats.endWait(start, locked), locked);
+        }
+        return locked;
+    }
+
+    private boolean doTryLock() {
         Thread current = Thread.currentThread();
         return this.sign.compareAndSet(null, current);
     }
 
+    private boolean doTryLock(long nanos) throws InterruptedException {
+        if (this.doTryLock()) {
+            return true;
+        }
+        Thread current = Thread.currentThread();
+        if (nanos <= 0L || this.sign.get() == current) {
+            return false;
+        }
+        long deadline = System.nanoTime() + nanos;
+        for (int i = 0; i < SPINS; i++) {
+            if (this.sign.get() == null && this.doTryLock()) {
+                return true;
+            }
+            spinWait(i);
+        }
+
+        boolean locked = false;
+        this.waiters.add(current);
+        try {
+            while (!(locked = this.doTryLock())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        } finally {
+            this.waiters.remove(current);
+            if (!locked && this.sign.get() == null) {
+                // Pass the wakeup on if it was consumed by this thread
+                this.unparkWaiter();
+            }
+        }
+    }
+
+    /**
+     * Back off a spin, by Thread.onSpinWait() if supported to let the CPU
+     * save power and the other hyper-thread run, otherwise by yielding
+     * after a few spins
+     */
+    private static void spinWait(int spins) {
+        if (ON_SPIN_WAIT != null) {
+            try {
+                ON_SPIN_WAIT.invokeExact();
+            } catch (Throwable ignored) {
+                // Never happen since onSpinWait() throws nothing
+            }
+        } else if (spins >= YIELD_SPINS) {
+            Thread.yield();
+        }
+    }
+
+    private static MethodHandle onSpinWaitHandle() {
+        try {
+            return MethodHandles.lookup().findStatic(
+                   Thread.class, "onSpinWait",
+                   MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // Running on Java 8
+            return null;
+        }
+    }
+
+    private void unparkWaiter() {
+        Thread waiter = this.waiters.peek();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    private void acquired(long acquiredAt, boolean locked) {
+        if (locked) {
+            this.acquiredAt = acquiredAt;
+        }
+    }
+
     public void unlock() {
         if (this.sign.get() == null) {
             return;
         }
         Thread current = Thread.currentThread();
+        // Read before releasing, it's discarded if not the holder
+        long acquiredAt = this.acquiredAt;
         if (!this.sign.compareAndSet(current, null)) {
             throw new RuntimeException(String.format(
                       "Thread '%s' trying to unlock '%s' " +
                       "which is held by other threads now.",
                       current.getName(), this.name));
         }
+        this.unparkWaiter();
+        if (this.stats != null) {
+            this.stats.released(acquiredAt);
+        }
     }
 
     public boolean lock(int retries) {
-        // The interval between retries is exponential growth, most wait
-        // interval is 2^(retries-1)s. If retries=0, don't retry.
+        // Wait at most (2^retries - 1)s as the retries with exponential
+        // growth interval did, but return as soon as the lock is released.
+        // If retries=0, don't wait.
         if (retries < 0 || retries > 10) {
             throw new IllegalArgumentException(String.format(
                       "Locking retry times should be in [0, 10], but got %d",
                       retries));
         }
 
-        boolean isLocked = false;
         try {
-            for (int i = 0; !(isLocked = this.tryLock()) && i < retries; i++) {
-                Thread.sleep(1000 * (1L << i));
-            }
+            return this.tryLock((1L << retries) - 1L, TimeUnit.SECONDS);
         } catch (InterruptedException ignored) {
-            LOG.info("Thread sleep is interrupted.");
+            LOG.info("Thread waiting for lock is interrupted.");
+            return false;
         }
-        return isLocked;
     }
 
     public String name() {
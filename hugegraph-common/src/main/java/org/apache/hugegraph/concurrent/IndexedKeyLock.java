@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * IndexedKeyLock is a segment lock like KeyLock, but the keys are resolved
+ * to stripe indexes directly, so lockAll() sorts and de-duplicates primitive
+ * indexes instead of Lock objects, and the locked stripes are kept in a
+ * reusable Handle instead of a new list for each call.
+ */
+public class IndexedKeyLock {
+
+    private static final int INIT_HANDLE_CAPACITY = 8;
+
+    private final Lock[] stripes;
+    private final int mask;
+    private final ThreadLocal<Handle> handles;
+
+    public IndexedKeyLock() {
+        // The default size is availableProcessors() * 4
+        this(Runtime.getRuntime().availableProcessors() << 2);
+    }
+
+    public IndexedKeyLock(int size) {
+        int stripes = stripes(size);
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+        this.handles = ThreadLocal.withInitial(() -> new Handle(this));
+    }
+
+    public final int size() {
+        return this.stripes.length;
+    }
+
+    public final int indexOf(Object key) {
+        E.checkArgument(key != null, "Lock key can't be null");
+        return smear(key.hashCode()) & this.mask;
+    }
+
+    public final Lock stripe(int index) {
+        return this.stripes[index];
+    }
+
+    /**
+     * Lock an object
+     * @param key The object to lock
+     * @return The lock(locked) of passed key
+     */
+    public final Lock lock(Object key) {
+        Lock lock = this.stripes[this.indexOf(key)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Unlock an object
+     * @param key The object to unlock
+     */
+    public final void unlock(Object key) {
+        E.checkArgument(key != null, "Unlock key can't be null");
+        this.stripes[this.indexOf(key)].unlock();
+    }
+
+    /**
+     * Create a handle which can be reused by lockAll(handle, keys) of the
+     * current thread
+     * @return A new unlocked handle
+     */
+    public final Handle newHandle() {
+        return new Handle(this);
+    }
+
+    /**
+     * Lock a list of object with sorted order, the returned handle is
+     * cached by the current thread and will be reused after unlocked
+     * @param keys The objects to lock
+     * @return The handle of the locked stripes
+     */
+    public final Handle lockAll(Object... keys) {
+        Handle handle = this.handles.get();
+        if (handle.locked()) {
+            // Nested lockAll() in the same thread
+            handle = new Handle(this);
+        }
+        return this.lockAll(handle, keys);
+    }
+
+    /**
+     * Lock a list of object with sorted order by the passed handle
+     * @param handle The unlocked handle to hold the locked stripes
+     * @param keys   The objects to lock
+     * @return The passed handle
+     */
+    public final Handle lockAll(Handle handle, Object... keys) {
+        E.checkArgument(keys != null && keys.length > 0,
+                        "Lock keys can't be null or empty");
+        this.checkHandle(handle);
+        E.checkState(!handle.locked(), "The lock handle has been locked");
+
+        int[] indexes = handle.indexes(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            indexes[i] = this.indexOf(keys[i]);
+        }
+        int size = sortUnique(indexes, keys.length);
+        for (int i = 0; i < size; i++) {
+            this.stripes[indexes[i]].lock();
+        }
+        handle.size = size;
+        return handle;
+    }
+
+    /**
+     * Unlock the stripes of a handle with reversed order
+     * @param handle The handle returned by lockAll()
+     */
+    public final void unlockAll(Handle handle) {
+        E.checkArgument(handle != null, "Unlock handle can't be null");
+        this.checkHandle(handle);
+        E.checkState(handle.locked(), "The lock handle has not been locked");
+
+        int[] indexes = handle.indexes;
+        for (int i = handle.size; i > 0; i--) {
+            this.stripes[indexes[i - 1]].unlock();
+        }
+        handle.size = 0;
+    }
+
+    private void checkHandle(Handle handle) {
+        E.checkArgument(handle != null, "Lock handle can't be null");
+        E.checkArgument(handle.owner == this,
+                        "The lock handle is not created by this lock");
+    }
+
+    static int stripes(int size) {
+        E.checkArgument(size > 0, "The lock size must be > 0, but got %s",
+                        size);
+        // Round up to power of 2 to use mask instead of mod
+        int stripes = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        E.checkArgument(stripes > 0, "Too large lock size: %s", size);
+        return stripes;
+    }
+
+    static int sortUnique(int[] indexes, int size) {
+        if (size > 1) {
+            Arrays.sort(indexes, 0, size);
+        }
+        int unique = size == 0 ? 0 : 1;
+        for (int i = 1; i < size; i++) {
+            if (indexes[i] != indexes[unique - 1]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+        return unique;
+    }
+
+    static int smear(int hashCode) {
+        // The same supplemental hash function as Striped of guava
+        hashCode ^= (hashCode >>> 20) ^ (hashCode >>> 12);
+        return hashCode ^ (hashCode >>> 7) ^ (hashCode >>> 4);
+    }
+
+    /**
+     * The stripes locked by lockAll(), a handle can't be shared by threads
+     */
+    public static final class Handle implements AutoCloseable {
+
+        private final IndexedKeyLock owner;
+        private int[] indexes;
+        private int size;
+
+        private Handle(IndexedKeyLock owner) {
+            this.owner = owner;
+            this.indexes = new int[INIT_HANDLE_CAPACITY];
+            this.size = 0;
+        }
+
+        private int[] indexes(int capacity) {
+            if (this.indexes.length < capacity) {
+                this.indexes = new int[capacity];
+            }
+            return this.indexes;
+        }
+
+        public boolean locked() {
+            return this.size > 0;
+        }
+
+        /**
+         * @return The count of locked stripes, the duplicate stripes of keys
+         *         are only locked once
+         */
+        public int size() {
+            return this.size;
+        }
+
+        public int index(int i) {
+            E.checkArgument(i >= 0 && i < this.size,
+                            "Invalid stripe position %s, size is %s",
+                            i, this.size);
+            return this.indexes[i];
+        }
+
+        @Override
+        public void close() {
+            this.owner.unlockAll(this);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+/**
+ * A Lock wrapper which records the contention into LockStats, the hold time
+ * is only recorded for exclusive locks whose hold count is known.
+ */
+final class InstrumentedLock implements Lock {
+
+    private final Lock lock;
+    private final LockStats stats;
+    private final IntSupplier holdCount;
+
+    // Only accessed by the thread holding the exclusive lock
+    private long acquiredAt;
+
+    InstrumentedLock(ReentrantLock lock, LockStats stats) {
+        this(lock, stats, lock::getHoldCount);
+    }
+
+    InstrumentedLock(Lock lock, LockStats stats, IntSupplier holdCount) {
+        this.lock = lock;
+        this.stats = stats;
+        this.holdCount = holdCount;
+        this.acquiredAt = LockStats.NONE;
+    }
+
+    @Override
+    public void lock() {
+        long start = this.stats.beginWait();
+        boolean locked = false;
+        try {
+            this.lock.lock();
+            locked = true;
+        } finally {
+            this.acquired(this.stats.endWait(start, locked), locked);
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        long start = this.stats.beginWait();
+        boolean locked = false;
+        try {
+            this.lock.lockInterruptibly();
+            locked = true;
+        } finally {
+            this.acquired(this.stats.endWait(start, locked), locked);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        long start = this.stats.beginWait();
+        boolean locked = false;
+        try {
+            locked = this.lock.tryLock();
+        } finally {
+            this.acquired(this.stats.endTry(start, locked), locked);
+        }
+        return locked;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit)
+                           throws InterruptedException {
+        long start = this.stats.beginWait();
+        boolean locked = false;
+        try {
+            locked = this.lock.tryLock(time, unit);
+        } finally {
+            this.acquired(this.stats.endWait(start, locked), locked);
+        }
+        return locked;
+    }
+
+    @Override
+    public void unlock() {
+        if (this.holdCount != null && this.holdCount.getAsInt() == 1) {
+            long acquiredAt = this.acquiredAt;
+            this.acquiredAt = LockStats.NONE;
+            this.lock.unlock();
+            this.stats.released(acquiredAt);
+        } else {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return this.lock.newCondition();
+    }
+
+    private void acquired(long acquiredAt, boolean locked) {
+        if (locked && this.holdCount != null &&
+            this.holdCount.getAsInt() == 1) {
+            // Only record the outermost acquisition of reentrant lock
+            this.acquiredAt = acquiredAt;
+        }
+    }
+
+    static final class ReadWrite implements ReadWriteLock {
+
+        private final Lock readLock;
+        private final Lock writeLock;
+
+        ReadWrite(ReentrantReadWriteLock lock, LockStats readStats,
+                  LockStats writeStats) {
+            // The read lock is shared, so its hold time is not recorded
+            this.readLock = new InstrumentedLock(lock.readLock(),
+                                                 readStats, null);
+            this.writeLock = new InstrumentedLock(lock.writeLock(),
+                                                  writeStats,
+                                                  lock::getWriteHoldCount);
+        }
+
+        @Override
+        public Lock readLock() {
+            return this.readLock;
+        }
+
+        @Override
+        public Lock writeLock() {
+            return this.writeLock;
+        }
+    }
+}
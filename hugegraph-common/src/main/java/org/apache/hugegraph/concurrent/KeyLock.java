@@ -19,8 +19,13 @@ package org.apache.hugegraph.concurrent;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hugegraph.util.E;
 import com.google.common.collect.ImmutableList;
@@ -32,6 +37,11 @@ import com.google.common.util.concurrent.Striped;
 public class KeyLock {
 
     private Striped<Lock> locks;
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LockStats stats;
+    private final Map<Lock, Integer> stripeIndexes;
+    private final long[] holdStarts;
 
     public KeyLock() {
         // The default size is availableProcessors() * 4
@@ -39,7 +49,27 @@ public class KeyLock {
     }
 
     public KeyLock(int size) {
+        this(size, null);
+    }
+
+    KeyLock(LockStats stats) {
+        this(Runtime.getRuntime().availableProcessors() << 2, stats);
+    }
+
+    KeyLock(int size, LockStats stats) {
         this.locks = Striped.lock(size);
+        this.stats = stats;
+        if (stats == null) {
+            this.stripeIndexes = null;
+            this.holdStarts = null;
+        } else {
+            int stripes = this.locks.size();
+            this.stripeIndexes = new IdentityHashMap<>(stripes);
+            for (int i = 0; i < stripes; i++) {
+                this.stripeIndexes.put(this.locks.getAt(i), i);
+            }
+            this.holdStarts = new long[stripes];
+        }
     }
 
     private int indexOf(Lock lock) {
@@ -59,7 +89,7 @@ public class KeyLock {
     public final Lock lock(Object key) {
         E.checkArgument(key != null, "Lock key can't be null");
         Lock lock = this.locks.get(key);
-        lock.lock();
+        this.lockStripe(lock);
         return lock;
     }
 
@@ -69,7 +99,25 @@ public class KeyLock {
      */
     public final void unlock(Object key) {
         E.checkArgument(key != null, "Unlock key can't be null");
-        this.locks.get(key).unlock();
+        this.unlockStripe(this.locks.get(key));
+    }
+
+    /**
+     * Try to lock an object within the given waiting time
+     * @param key The object to lock
+     * @param timeout The maximum time to wait for the lock
+     * @param unit The time unit of the timeout argument
+     * @return true if the lock was acquired, false if timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public final boolean tryLock(Object key, long timeout, TimeUnit unit)
+                                 throws InterruptedException {
+        E.checkArgument(key != null, "Lock key can't be null");
+        if (this.tryLockStripe(this.locks.get(key), unit.toNanos(timeout))) {
+            return true;
+        }
+        this.timeouts.increment();
+        return false;
     }
 
     /**
@@ -78,24 +126,48 @@ public class KeyLock {
      * @return The locks(locked) of keys
      */
     public final List<Lock> lockAll(Object... keys) {
-        E.checkArgument(keys != null && keys.length > 0,
-                        "Lock keys can't be null or empty");
-        List<Lock> locks = new ArrayList<>(keys.length);
-        for (Object key : keys) {
-            E.checkArgument(key != null, "Lock key can't be null");
-            Lock lock = this.locks.get(key);
-            locks.add(lock);
+        List<Lock> locks = this.sortedLocks(keys);
+        for (Lock lock : locks) {
+            this.lockStripe(lock);
         }
-        locks.sort((a, b) -> {
-            int diff = a.hashCode() - b.hashCode();
-            if (diff == 0 && a != b) {
-                diff = this.indexOf(a) - this.indexOf(b);
-                assert diff != 0;
+        return Collections.unmodifiableList(locks);
+    }
+
+    /**
+     * Try to lock a list of object with sorted order within the given
+     * waiting time, the acquired locks will be released if any lock can't
+     * be acquired before the deadline or the thread is interrupted
+     * @param keys The objects to lock
+     * @param timeout The maximum time to wait for all the locks
+     * @param unit The time unit of the timeout argument
+     * @return The locks(locked) of keys, or null if timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public final List<Lock> tryLockAll(Object[] keys, long timeout,
+                                       TimeUnit unit)
+                                       throws InterruptedException {
+        List<Lock> locks = this.sortedLocks(keys);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int locked = 0;
+        try {
+            for (Lock lock : locks) {
+                long remaining = deadline - System.nanoTime();
+                if (!this.tryLockStripe(lock, remaining)) {
+                    break;
+                }
+                locked++;
             }
-            return diff;
-        });
-        for (Lock lock : locks) {
-            lock.lock();
+        } finally {
+            if (locked < locks.size()) {
+                // Rollback if timeout or interrupted
+                for (int i = locked; i > 0; i--) {
+                    this.unlockStripe(locks.get(i - 1));
+                }
+            }
+        }
+        if (locked < locks.size()) {
+            this.timeouts.increment();
+            return null;
         }
         return Collections.unmodifiableList(locks);
     }
@@ -124,7 +196,7 @@ public class KeyLock {
                            ImmutableList.of(lock1, lock2);
 
         for (Lock lock : locks) {
-            lock.lock();
+            this.lockStripe(lock);
         }
 
         return locks;
@@ -138,7 +210,93 @@ public class KeyLock {
         E.checkArgument(locks != null, "Unlock locks can't be null");
         for (int i = locks.size(); i > 0; i--) {
             assert this.indexOf(locks.get(i - 1)) != -1;
-            locks.get(i - 1).unlock();
+            this.unlockStripe(locks.get(i - 1));
         }
     }
+
+    /**
+     * @return The count of tryLock()/tryLockAll() calls which timed out
+     */
+    public final long timeouts() {
+        return this.timeouts.sum();
+    }
+
+    private void lockStripe(Lock lock) {
+        LockStats stats = this.stats;
+        if (stats == null) {
+            lock.lock();
+            return;
+        }
+        long start = stats.beginWait();
+        boolean locked = false;
+        try {
+            lock.lock();
+            locked = true;
+        } finally {
+            this.acquired(lock, stats.endWait(start, locked), locked);
+        }
+    }
+
+    private boolean tryLockStripe(Lock lock, long nanos)
+                                  throws InterruptedException {
+        LockStats stats = this.stats;
+        if (stats == null) {
+            return lock.tryLock(nanos, TimeUnit.NANOSECONDS);
+        }
+        long start = stats.beginWait();
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(nanos, TimeUnit.NANOSECONDS);
+        } finally {
+            this.acquired(lock, stats.endWait(start, locked), locked);
+        }
+        return locked;
+    }
+
+    private void acquired(Lock lock, long acquiredAt, boolean locked) {
+        if (locked && holdCount(lock) == 1) {
+            // Only record the outermost acquisition of reentrant lock
+            this.holdStarts[this.stripeIndexes.get(lock)] = acquiredAt;
+        }
+    }
+
+    private void unlockStripe(Lock lock) {
+        if (this.stats == null || holdCount(lock) != 1) {
+            lock.unlock();
+            return;
+        }
+        int index = this.stripeIndexes.get(lock);
+        long acquiredAt = this.holdStarts[index];
+        this.holdStarts[index] = LockStats.NONE;
+        lock.unlock();
+        this.stats.released(acquiredAt);
+    }
+
+    private static int holdCount(Lock lock) {
+        if (lock instanceof ReentrantLock) {
+            return ((ReentrantLock) lock).getHoldCount();
+        }
+        // Unknown hold count, don't record hold time
+        return -1;
+    }
+
+    private List<Lock> sortedLocks(Object... keys) {
+        E.checkArgument(keys != null && keys.length > 0,
+                        "Lock keys can't be null or empty");
+        List<Lock> locks = new ArrayList<>(keys.length);
+        for (Object key : keys) {
+            E.checkArgument(key != null, "Lock key can't be null");
+            Lock lock = this.locks.get(key);
+            locks.add(lock);
+        }
+        locks.sort((a, b) -> {
+            int diff = a.hashCode() - b.hashCode();
+            if (diff == 0 && a != b) {
+                diff = this.indexOf(a) - this.indexOf(b);
+                assert diff != 0;
+            }
+            return diff;
+        });
+        return locks;
+    }
 }
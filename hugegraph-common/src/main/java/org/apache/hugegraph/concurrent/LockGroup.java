@@ -17,61 +17,122 @@
 
 package org.apache.hugegraph.concurrent;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.hugegraph.util.E;
+
 public class LockGroup {
 
+    // Separate the lock name and the mode in the stats name of rw lock
+    private static final char STATS_MODE_SEPARATOR = '#';
+
     private final String name;
     private final Map<String, Object> locksMap;
+    // Time 1 of every N acquisitions, 0 means not instrumented
+    private final int statsSampleInterval;
+    private final Map<String, LockStats> statsMap;
 
     public LockGroup(String lockGroup) {
+        this(lockGroup, 0);
+    }
+
+    public LockGroup(String lockGroup, int statsSampleInterval) {
+        E.checkArgument(statsSampleInterval >= 0,
+                        "The stats sample interval must be >= 0, but got %s",
+                        statsSampleInterval);
         this.name = lockGroup;
         this.locksMap = new ConcurrentHashMap<>();
+        this.statsSampleInterval = statsSampleInterval;
+        this.statsMap = new ConcurrentHashMap<>();
     }
 
     public Lock lock(String lockName) {
         if (!this.locksMap.containsKey(lockName)) {
-            this.locksMap.putIfAbsent(lockName, new ReentrantLock());
+            LockStats stats = this.stats(lockName);
+            Lock lock = stats == null ? new ReentrantLock() :
+                        new InstrumentedLock(new ReentrantLock(), stats);
+            this.locksMap.putIfAbsent(lockName, lock);
         }
         return (Lock) this.locksMap.get(lockName);
     }
 
     public AtomicLock atomicLock(String lockName) {
         if (!this.locksMap.containsKey(lockName)) {
-            this.locksMap.putIfAbsent(lockName, new AtomicLock(lockName));
+            this.locksMap.putIfAbsent(lockName, new AtomicLock(
+                                      lockName, this.stats(lockName)));
         }
         return (AtomicLock) this.locksMap.get(lockName);
     }
 
     public ReadWriteLock readWriteLock(String lockName) {
         if (!this.locksMap.containsKey(lockName)) {
-            this.locksMap.putIfAbsent(lockName, new ReentrantReadWriteLock());
+            ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+            if (this.instrumented()) {
+                this.locksMap.putIfAbsent(lockName, new InstrumentedLock.ReadWrite(
+                                          lock, this.stats(lockName, "read"),
+                                          this.stats(lockName, "write")));
+            } else {
+                this.locksMap.putIfAbsent(lockName, lock);
+            }
         }
         return (ReadWriteLock) this.locksMap.get(lockName);
     }
 
     public KeyLock keyLock(String lockName) {
         if (!this.locksMap.containsKey(lockName)) {
-            this.locksMap.putIfAbsent(lockName, new KeyLock());
+            this.locksMap.putIfAbsent(lockName,
+                                      new KeyLock(this.stats(lockName)));
         }
         return (KeyLock) this.locksMap.get(lockName);
     }
 
     public KeyLock keyLock(String lockName, int size) {
         if (!this.locksMap.containsKey(lockName)) {
-            this.locksMap.putIfAbsent(lockName, new KeyLock(size));
+            this.locksMap.putIfAbsent(lockName,
+                                      new KeyLock(size, this.stats(lockName)));
         }
         return (KeyLock) this.locksMap.get(lockName);
     }
 
+    public IndexedKeyLock indexedKeyLock(String lockName) {
+        if (!this.locksMap.containsKey(lockName)) {
+            this.locksMap.putIfAbsent(lockName, new IndexedKeyLock());
+        }
+        return (IndexedKeyLock) this.locksMap.get(lockName);
+    }
+
+    public IndexedKeyLock indexedKeyLock(String lockName, int size) {
+        if (!this.locksMap.containsKey(lockName)) {
+            this.locksMap.putIfAbsent(lockName, new IndexedKeyLock(size));
+        }
+        return (IndexedKeyLock) this.locksMap.get(lockName);
+    }
+
+    public ReadWriteKeyLock readWriteKeyLock(String lockName) {
+        if (!this.locksMap.containsKey(lockName)) {
+            this.locksMap.putIfAbsent(lockName, new ReadWriteKeyLock());
+        }
+        return (ReadWriteKeyLock) this.locksMap.get(lockName);
+    }
+
+    public ReadWriteKeyLock readWriteKeyLock(String lockName, int size) {
+        if (!this.locksMap.containsKey(lockName)) {
+            this.locksMap.putIfAbsent(lockName, new ReadWriteKeyLock(size));
+        }
+        return (ReadWriteKeyLock) this.locksMap.get(lockName);
+    }
+
     public <K extends Comparable<K>> RowLock<K> rowLock(String lockName) {
         if (!this.locksMap.containsKey(lockName)) {
-            this.locksMap.putIfAbsent(lockName, new RowLock<>());
+            this.locksMap.putIfAbsent(lockName,
+                                      new RowLock<>(this.stats(lockName)));
         }
         Object value = this.locksMap.get(lockName);
         @SuppressWarnings("unchecked")
@@ -79,7 +140,59 @@ public class LockGroup {
         return lock;
     }
 
+    public <K extends Comparable<K>> PooledRowLock<K> pooledRowLock(
+                                                      String lockName) {
+        if (!this.locksMap.containsKey(lockName)) {
+            int poolSize = Runtime.getRuntime().availableProcessors() << 2;
+            this.locksMap.putIfAbsent(lockName, new PooledRowLock<>(
+                                      poolSize, this.stats(lockName)));
+        }
+        Object value = this.locksMap.get(lockName);
+        @SuppressWarnings("unchecked")
+        PooledRowLock<K> lock = (PooledRowLock<K>) value;
+        return lock;
+    }
+
     public String name() {
         return this.name;
     }
+
+    public boolean instrumented() {
+        return this.statsSampleInterval > 0;
+    }
+
+    /**
+     * The contention stats of the locks in this group, the locks of
+     * IndexedKeyLock and ReadWriteKeyLock are not instrumented now, and the
+     * read/write locks of ReadWriteLock are named like "name#read" and
+     * "name#write"
+     * @return The snapshots of stats by lock name, empty if not instrumented
+     */
+    public Map<String, LockStats.Snapshot> stats() {
+        if (!this.instrumented()) {
+            return Collections.emptyMap();
+        }
+        Map<String, LockStats.Snapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<String, LockStats> e : this.statsMap.entrySet()) {
+            snapshots.put(e.getKey(), e.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    private LockStats stats(String lockName) {
+        return this.stats(lockName, null);
+    }
+
+    private LockStats stats(String lockName, String mode) {
+        if (!this.instrumented()) {
+            return null;
+        }
+        E.checkArgument(lockName.indexOf(STATS_MODE_SEPARATOR) < 0,
+                        "The name of instrumented lock can't contain '%s', " +
+                        "but got '%s'", STATS_MODE_SEPARATOR, lockName);
+        String statsName = mode == null ? lockName :
+                           lockName + STATS_MODE_SEPARATOR + mode;
+        return this.statsMap.computeIfAbsent(statsName, name -> new LockStats(
+                                             name, this.statsSampleInterval));
+    }
 }
@@ -18,6 +18,7 @@
 package org.apache.hugegraph.concurrent;
 
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class LockManager {
@@ -39,11 +40,22 @@ public class LockManager {
     }
 
     public LockGroup create(String group) {
+        return this.create(group, 0);
+    }
+
+    /**
+     * Create a lock group whose locks record contention stats
+     * @param group The group name
+     * @param statsSampleInterval Time 1 of every N lock acquisitions,
+     *                            0 means don't record stats
+     * @return The created lock group
+     */
+    public LockGroup create(String group, int statsSampleInterval) {
         if (exists(group)) {
             throw new RuntimeException(String.format(
                       "LockGroup '%s' already exists", group));
         }
-        LockGroup lockGroup = new LockGroup(group);
+        LockGroup lockGroup = new LockGroup(group, statsSampleInterval);
         LockGroup previous = this.lockGroupMap.putIfAbsent(group, lockGroup);
         if (previous != null) {
             return previous;
@@ -60,6 +72,20 @@ public class LockManager {
         return lockGroup;
     }
 
+    /**
+     * @return The lock stats snapshots of instrumented groups, grouped by
+     *         group name and then by lock name
+     */
+    public Map<String, Map<String, LockStats.Snapshot>> stats() {
+        Map<String, Map<String, LockStats.Snapshot>> stats = new TreeMap<>();
+        for (LockGroup lockGroup : this.lockGroupMap.values()) {
+            if (lockGroup.instrumented()) {
+                stats.put(lockGroup.name(), lockGroup.stats());
+            }
+        }
+        return stats;
+    }
+
     public void destroy(String group) {
         if (this.exists(group)) {
             this.lockGroupMap.remove(group);
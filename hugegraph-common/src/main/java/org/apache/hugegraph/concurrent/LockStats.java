@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.concurrent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * LockStats records the contention of a named lock: the acquisition count,
+ * the count of threads waiting for it now, and the histograms of wait time
+ * and hold time. All counters are striped (LongAdder), and only 1 of every
+ * sampleInterval acquisitions is timed to keep the overhead low.
+ * The locks hold a null LockStats if they are not instrumented.
+ */
+public final class LockStats {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    private final String name;
+    private final int sampleInterval;
+
+    private final LongAdder acquisitions;
+    private final LongAdder timeouts;
+    private final LongAdder waiting;
+    private final Histogram waitTime;
+    private final Histogram holdTime;
+
+    public LockStats(String name, int sampleInterval) {
+        E.checkArgument(sampleInterval > 0,
+                        "The sample interval must be > 0, but got %s",
+                        sampleInterval);
+        this.name = name;
+        this.sampleInterval = sampleInterval;
+        this.acquisitions = new LongAdder();
+        this.timeouts = new LongAdder();
+        this.waiting = new LongAdder();
+        this.waitTime = new Histogram();
+        this.holdTime = new Histogram();
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Mark the current thread begins to wait for the lock
+     * @return The start time if this acquisition is sampled, or NONE
+     */
+    public long beginWait() {
+        this.waiting.increment();
+        if (this.sampleInterval == 1 ||
+            ThreadLocalRandom.current().nextInt(this.sampleInterval) == 0) {
+            return System.nanoTime();
+        }
+        return NONE;
+    }
+
+    /**
+     * Mark the current thread ends waiting for the lock
+     * @param start The time returned by beginWait()
+     * @param acquired Whether the lock is acquired, false if timed out or
+     *                 interrupted
+     * @return The time acquired the lock if sampled, or NONE
+     */
+    public long endWait(long start, boolean acquired) {
+        this.waiting.decrement();
+        if (acquired) {
+            this.acquisitions.increment();
+        } else {
+            this.timeouts.increment();
+        }
+        if (start == NONE) {
+            return NONE;
+        }
+        long now = System.nanoTime();
+        this.waitTime.record(now - start);
+        return acquired ? now : NONE;
+    }
+
+    /**
+     * Mark the current thread ends a non-blocking try of the lock, a failed
+     * try is neither counted as a timeout nor recorded in the wait time
+     * @param start The time returned by beginWait()
+     * @param acquired Whether the lock is acquired
+     * @return The time acquired the lock if sampled, or NONE
+     */
+    public long endTry(long start, boolean acquired) {
+        this.waiting.decrement();
+        if (!acquired) {
+            return NONE;
+        }
+        this.acquisitions.increment();
+        if (start == NONE) {
+            return NONE;
+        }
+        long now = System.nanoTime();
+        this.waitTime.record(now - start);
+        return now;
+    }
+
+    /**
+     * Mark the lock is released by the current thread
+     * @param acquiredAt The time returned by endWait()
+     */
+    public void released(long acquiredAt) {
+        if (acquiredAt != NONE) {
+            this.holdTime.record(System.nanoTime() - acquiredAt);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    @Override
+    public String toString() {
+        return this.snapshot().toString();
+    }
+
+    /**
+     * A histogram with power of 2 buckets, bucket i counts values in range
+     * [2^(i-1), 2^i), the max bucket counts all values >= 2^(BUCKETS-2)
+     */
+    private static final class Histogram {
+
+        private static final int BUCKETS = 48;
+
+        private final LongAdder[] buckets;
+        private final LongAdder sum;
+        private final LongAccumulator max;
+
+        private Histogram() {
+            this.buckets = new LongAdder[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+            this.sum = new LongAdder();
+            this.max = new LongAccumulator(Math::max, 0L);
+        }
+
+        private void record(long value) {
+            if (value < 0L) {
+                value = 0L;
+            }
+            int index = 64 - Long.numberOfLeadingZeros(value);
+            this.buckets[Math.min(index, BUCKETS - 1)].increment();
+            this.sum.add(value);
+            this.max.accumulate(value);
+        }
+
+        private HistogramSnapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.buckets[i].sum();
+            }
+            return new HistogramSnapshot(counts, this.sum.sum(),
+                                         this.max.get());
+        }
+    }
+
+    public static final class HistogramSnapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private HistogramSnapshot(long[] buckets, long sum, long max) {
+            long count = 0L;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return this.count;
+        }
+
+        public long sum() {
+            return this.sum;
+        }
+
+        public long max() {
+            return this.max;
+        }
+
+        public long mean() {
+            return this.count == 0L ? 0L : this.sum / this.count;
+        }
+
+        /**
+         * @param percentile The percentile in range (0, 100]
+         * @return The upper bound of the bucket where the percentile falls,
+         *         it's not greater than max()
+         */
+        public long percentile(double percentile) {
+            E.checkArgument(percentile > 0.0 && percentile <= 100.0,
+                            "The percentile must be in (0, 100], " +
+                            "but got %s", percentile);
+            if (this.count == 0L) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(this.count * percentile / 100.0);
+            long seen = 0L;
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+                if (seen >= rank) {
+                    long upper = i == 0 ? 0L : (1L << i) - 1L;
+                    return Math.min(upper, this.max);
+                }
+            }
+            return this.max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{count:%s,mean:%s,p50:%s,p99:%s,max:%s}",
+                                 this.count, this.mean(),
+                                 this.percentile(50), this.percentile(99),
+                                 this.max);
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final String name;
+        private final int sampleInterval;
+        private final long acquisitions;
+        private final long timeouts;
+        private final long waiting;
+        private final HistogramSnapshot waitTime;
+        private final HistogramSnapshot holdTime;
+
+        private Snapshot(LockStats stats) {
+            this.name = stats.name;
+            this.sampleInterval = stats.sampleInterval;
+            this.acquisitions = stats.acquisitions.sum();
+            this.timeouts = stats.timeouts.sum();
+            this.waiting = Math.max(stats.waiting.sum(), 0L);
+            this.waitTime = stats.waitTime.snapshot();
+            this.holdTime = stats.holdTime.snapshot();
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        public int sampleInterval() {
+            return this.sampleInterval;
+        }
+
+        public long acquisitions() {
+            return this.acquisitions;
+        }
+
+        public long timeouts() {
+            return this.timeouts;
+        }
+
+        /**
+         * @return The count of threads waiting for the lock (queue length)
+         */
+        public long waiting() {
+            return this.waiting;
+        }
+
+        /**
+         * @return The sampled wait time in nanoseconds
+         */
+        public HistogramSnapshot waitTime() {
+            return this.waitTime;
+        }
+
+        /**
+         * @return The sampled hold time in nanoseconds
+         */
+        public HistogramSnapshot holdTime() {
+            return this.holdTime;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{name:%s,acquisitions:%s,timeouts:%s," +
+                                 "waiting:%s,wait_time:%s,hold_time:%s}",
+                                 this.name, this.acquisitions, this.timeouts,
+                                 this.waiting, this.waitTime, this.holdTime);
+        }
+    }
+}
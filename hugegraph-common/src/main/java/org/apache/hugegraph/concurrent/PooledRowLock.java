@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * PooledRowLock has the same semantics as RowLock, but recycles the lock
+ * entries of released rows instead of allocating new ones:
+ * - an entry is reference-counted by the threads holding or waiting for it,
+ *   and it's removed from the map and returned to a free list only when
+ *   the last reference is released;
+ * - the reentrancy is tracked by the hold count of the entry itself, so no
+ *   ThreadLocal lookup and LocalLock allocation are needed.
+ * Since a row entry is never removed while other threads are waiting for
+ * it, two threads can't hold the same row through different entries.
+ */
+public class PooledRowLock<K extends Comparable<K>> {
+
+    private final Map<K, Entry<K>> entries;
+    // The free entries, one slot for the rows with the same hash
+    private final AtomicReferenceArray<Entry<K>> pool;
+    private final int mask;
+    private final LongAdder timeouts;
+    private final LockStats stats;
+
+    public PooledRowLock() {
+        // The default pool size is availableProcessors() * 4
+        this(Runtime.getRuntime().availableProcessors() << 2);
+    }
+
+    public PooledRowLock(int poolSize) {
+        this(poolSize, null);
+    }
+
+    PooledRowLock(int poolSize, LockStats stats) {
+        int size = IndexedKeyLock.stripes(poolSize);
+        this.entries = new ConcurrentHashMap<>();
+        this.pool = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.timeouts = new LongAdder();
+        this.stats = stats;
+    }
+
+    public void lock(K key) {
+        E.checkArgument(key != null, "Lock key can't be null");
+        Entry<K> entry = this.entries.get(key);
+        if (entry != null && entry.isHeldByCurrentThread()) {
+            entry.lock();
+            return;
+        }
+        entry = this.retain(key);
+        if (this.stats == null) {
+            entry.lock();
+            return;
+        }
+        long start = this.stats.beginWait();
+        boolean locked = false;
+        try {
+            entry.lock();
+            locked = true;
+        } finally {
+            long acquiredAt = this.stats.endWait(start, locked);
+            if (locked) {
+                entry.acquiredAt = acquiredAt;
+            } else {
+                this.release(entry);
+            }
+        }
+    }
+
+    public boolean tryLock(K key, long timeout, TimeUnit unit)
+                           throws InterruptedException {
+        E.checkArgument(key != null, "Lock key can't be null");
+        if (this.doTryLock(key, unit.toNanos(timeout))) {
+            return true;
+        }
+        this.timeouts.increment();
+        return false;
+    }
+
+    public void unlock(K key) {
+        E.checkArgument(key != null, "Unlock key can't be null");
+        Entry<K> entry = this.entries.get(key);
+        if (entry == null || !entry.isHeldByCurrentThread()) {
+            return;
+        }
+        if (entry.getHoldCount() > 1) {
+            entry.unlock();
+            return;
+        }
+        long acquiredAt = entry.acquiredAt;
+        entry.unlock();
+        this.release(entry);
+        if (this.stats != null) {
+            this.stats.released(acquiredAt);
+        }
+    }
+
+    public void lockAll(Set<K> keys) {
+        E.checkArgument(keys != null && keys.size() > 0,
+                        "Lock keys can't be null or empty");
+        List<K> list = new ArrayList<>(keys);
+        Collections.sort(list);
+        for (K key : list) {
+            this.lock(key);
+        }
+    }
+
+    public void unlockAll(Set<K> keys) {
+        E.checkArgument(keys != null && keys.size() > 0,
+                        "Unlock keys can't be null or empty");
+        for (K key : keys) {
+            this.unlock(key);
+        }
+    }
+
+    /**
+     * Try to lock a set of keys within the given waiting time, the same as
+     * {@link RowLock#tryLockAll(Set, long, TimeUnit)}
+     */
+    public boolean tryLockAll(Set<K> keys, long timeout, TimeUnit unit)
+                              throws InterruptedException {
+        if (RowLock.tryLockSorted(keys, unit.toNanos(timeout),
+                                  this::doTryLock, this::unlock)) {
+            return true;
+        }
+        this.timeouts.increment();
+        return false;
+    }
+
+    /**
+     * @return The count of tryLock()/tryLockAll() calls which timed out
+     */
+    public long timeouts() {
+        return this.timeouts.sum();
+    }
+
+    /**
+     * @return The count of rows locked or waited by any thread now
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    private boolean doTryLock(K key, long nanos) throws InterruptedException {
+        Entry<K> entry = this.entries.get(key);
+        if (entry != null && entry.isHeldByCurrentThread()) {
+            entry.lock();
+            return true;
+        }
+        entry = this.retain(key);
+        long start = this.stats == null ? LockStats.NONE :
+                     this.stats.beginWait();
+        boolean locked = false;
+        try {
+            locked = entry.tryLock(nanos, TimeUnit.NANOSECONDS);
+        } finally {
+            long acquiredAt = this.stats == null ? LockStats.NONE :
+                              this.stats.endWait(start, locked);
+            if (locked) {
+                entry.acquiredAt = acquiredAt;
+            } else {
+                this.release(entry);
+            }
+        }
+        return locked;
+    }
+
+    /**
+     * Get the entry of a row and increase its reference count, the entry
+     * won't be removed from the map until it's released
+     */
+    private Entry<K> retain(K key) {
+        while (true) {
+            Entry<K> entry = this.entries.get(key);
+            if (entry == null) {
+                Entry<K> created = this.newEntry(key);
+                entry = this.entries.putIfAbsent(key, created);
+                if (entry == null) {
+                    return created;
+                }
+                this.release(created);
+            }
+            if (entry.retain()) {
+                /*
+                 * The entry may be recycled for another row (or the same row
+                 * but not mapped yet) after we get it, so check it again
+                 */
+                if (this.entries.get(key) == entry) {
+                    return entry;
+                }
+                this.release(entry);
+            }
+            // The entry is being removed by the last holder, retry
+        }
+    }
+
+    /**
+     * Decrease the reference count of an entry, and recycle it if it's
+     * the last reference
+     */
+    private void release(Entry<K> entry) {
+        if (entry.refs.decrementAndGet() > 0) {
+            return;
+        }
+        K key = entry.key;
+        this.entries.remove(key, entry);
+        entry.key = null;
+        this.pool.compareAndSet(this.slot(key), null, entry);
+    }
+
+    private Entry<K> newEntry(K key) {
+        int slot = this.slot(key);
+        Entry<K> entry = this.pool.get(slot) == null ? null :
+                         this.pool.getAndSet(slot, null);
+        if (entry == null) {
+            entry = new Entry<>();
+        }
+        entry.key = key;
+        entry.acquiredAt = LockStats.NONE;
+        entry.refs.set(1);
+        return entry;
+    }
+
+    private int slot(K key) {
+        return IndexedKeyLock.smear(key.hashCode()) & this.mask;
+    }
+
+    private static final class Entry<K> extends ReentrantLock {
+
+        private static final long serialVersionUID = -4862364437366522858L;
+
+        // The count of threads holding or waiting for this entry, 0 if free
+        private final AtomicInteger refs = new AtomicInteger();
+        // Only changed by the thread which owns the first/last reference
+        private K key;
+        // Only accessed by the thread holding the lock
+        private long acquiredAt;
+
+        /**
+         * Increase the reference count unless the entry is being released
+         */
+        private boolean retain() {
+            while (true) {
+                int refs = this.refs.get();
+                if (refs <= 0) {
+                    return false;
+                }
+                if (this.refs.compareAndSet(refs, refs + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
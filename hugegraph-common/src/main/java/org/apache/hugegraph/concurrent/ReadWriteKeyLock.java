@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * ReadWriteKeyLock provide an interface of segment read-write lock, the
+ * readers of the same key don't block each other
+ */
+public class ReadWriteKeyLock {
+
+    private final ReadWriteLock[] stripes;
+    private final int mask;
+
+    public ReadWriteKeyLock() {
+        // The default size is availableProcessors() * 4
+        this(Runtime.getRuntime().availableProcessors() << 2);
+    }
+
+    public ReadWriteKeyLock(int size) {
+        int stripes = IndexedKeyLock.stripes(size);
+        this.stripes = new ReadWriteLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.mask = stripes - 1;
+    }
+
+    public final int size() {
+        return this.stripes.length;
+    }
+
+    private ReadWriteLock stripe(Object key) {
+        E.checkArgument(key != null, "Lock key can't be null");
+        return this.stripes[IndexedKeyLock.smear(key.hashCode()) & this.mask];
+    }
+
+    /**
+     * Lock an object for reading
+     * @param key The object to lock
+     * @return The read lock(locked) of passed key
+     */
+    public final Lock readLock(Object key) {
+        Lock lock = this.stripe(key).readLock();
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Unlock an object locked for reading
+     * @param key The object to unlock
+     */
+    public final void readUnlock(Object key) {
+        E.checkArgument(key != null, "Unlock key can't be null");
+        this.stripe(key).readLock().unlock();
+    }
+
+    /**
+     * Lock an object for writing
+     * @param key The object to lock
+     * @return The write lock(locked) of passed key
+     */
+    public final Lock writeLock(Object key) {
+        Lock lock = this.stripe(key).writeLock();
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Unlock an object locked for writing
+     * @param key The object to unlock
+     */
+    public final void writeUnlock(Object key) {
+        E.checkArgument(key != null, "Unlock key can't be null");
+        this.stripe(key).writeLock().unlock();
+    }
+
+    /**
+     * Lock a list of object for reading with sorted order
+     * @param keys The objects to lock
+     * @return The read locks(locked) of keys
+     */
+    public final List<Lock> readLockAll(Object... keys) {
+        return this.lockAll(true, keys);
+    }
+
+    /**
+     * Lock a list of object for writing with sorted order
+     * @param keys The objects to lock
+     * @return The write locks(locked) of keys
+     */
+    public final List<Lock> writeLockAll(Object... keys) {
+        return this.lockAll(false, keys);
+    }
+
+    /**
+     * Unlock a list of read or write locks with reversed order
+     * @param locks The locks to unlock
+     */
+    public final void unlockAll(List<Lock> locks) {
+        E.checkArgument(locks != null, "Unlock locks can't be null");
+        for (int i = locks.size(); i > 0; i--) {
+            locks.get(i - 1).unlock();
+        }
+    }
+
+    private List<Lock> lockAll(boolean read, Object... keys) {
+        E.checkArgument(keys != null && keys.length > 0,
+                        "Lock keys can't be null or empty");
+        int[] indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            E.checkArgument(keys[i] != null, "Lock key can't be null");
+            indexes[i] = IndexedKeyLock.smear(keys[i].hashCode()) & this.mask;
+        }
+        int size = IndexedKeyLock.sortUnique(indexes, indexes.length);
+
+        List<Lock> locks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ReadWriteLock stripe = this.stripes[indexes[i]];
+            Lock lock = read ? stripe.readLock() : stripe.writeLock();
+            lock.lock();
+            locks.add(lock);
+        }
+        return Collections.unmodifiableList(locks);
+    }
+}
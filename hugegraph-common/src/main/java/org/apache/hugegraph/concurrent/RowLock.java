@@ -24,8 +24,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.apache.hugegraph.util.E;
 
@@ -34,6 +37,16 @@ public class RowLock<K extends Comparable<K>> {
     private final Map<K, Lock> locks = new ConcurrentHashMap<>();
     private final ThreadLocal<Map<K, LocalLock>> localLocks =
                   ThreadLocal.withInitial(HashMap::new);
+    private final LongAdder timeouts = new LongAdder();
+    private final LockStats stats;
+
+    public RowLock() {
+        this(null);
+    }
+
+    RowLock(LockStats stats) {
+        this.stats = stats;
+    }
 
     public void lock(K key) {
         E.checkArgument(key != null, "Lock key can't be null");
@@ -41,16 +54,34 @@ public class RowLock<K extends Comparable<K>> {
         if (localLock != null) {
             localLock.lockCount++;
         } else {
-            Lock current = new ReentrantLock();
-            Lock previous = this.locks.putIfAbsent(key, current);
-            if (previous != null) {
-                current = previous;
+            Lock current = this.rowLock(key);
+            long acquiredAt = LockStats.NONE;
+            if (this.stats == null) {
+                current.lock();
+            } else {
+                long start = this.stats.beginWait();
+                boolean locked = false;
+                try {
+                    current.lock();
+                    locked = true;
+                } finally {
+                    acquiredAt = this.stats.endWait(start, locked);
+                }
             }
-            current.lock();
-            this.localLocks.get().put(key, new LocalLock(current));
+            this.localLocks.get().put(key, new LocalLock(current, acquiredAt));
         }
     }
 
+    public boolean tryLock(K key, long timeout, TimeUnit unit)
+                           throws InterruptedException {
+        E.checkArgument(key != null, "Lock key can't be null");
+        if (this.doTryLock(key, unit.toNanos(timeout))) {
+            return true;
+        }
+        this.timeouts.increment();
+        return false;
+    }
+
     public void unlock(K key) {
         E.checkArgument(key != null, "Unlock key can't be null");
         LocalLock localLock = this.localLocks.get().get(key);
@@ -61,6 +92,9 @@ public class RowLock<K extends Comparable<K>> {
             this.locks.remove(key, localLock.current);
             this.localLocks.get().remove(key);
             localLock.current.unlock();
+            if (this.stats != null) {
+                this.stats.released(localLock.acquiredAt);
+            }
         }
         E.checkState(localLock.lockCount >= 0,
                      "The lock count must be >= 0, but got %s",
@@ -70,8 +104,7 @@ public class RowLock<K extends Comparable<K>> {
     public void lockAll(Set<K> keys) {
         E.checkArgument(keys != null && keys.size() > 0,
                         "Lock keys can't be null or empty");
-        List<K> list = new ArrayList<>(keys);
-        Collections.sort(list);
+        List<K> list = sortedKeys(keys);
         for (K key : list) {
             this.lock(key);
         }
@@ -85,13 +118,154 @@ public class RowLock<K extends Comparable<K>> {
         }
     }
 
+    /**
+     * Try to lock a set of keys with sorted order within the given waiting
+     * time, the acquired keys will be released if any key can't be locked
+     * before the deadline or the thread is interrupted
+     * @param keys The keys to lock
+     * @param timeout The maximum time to wait for all the keys
+     * @param unit The time unit of the timeout argument
+     * @return true if all the keys were locked, false if timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryLockAll(Set<K> keys, long timeout, TimeUnit unit)
+                              throws InterruptedException {
+        if (tryLockSorted(keys, unit.toNanos(timeout),
+                          this::doTryLock, this::unlock)) {
+            return true;
+        }
+        this.timeouts.increment();
+        return false;
+    }
+
+    /**
+     * @return The count of tryLock()/tryLockAll() calls which timed out
+     */
+    public long timeouts() {
+        return this.timeouts.sum();
+    }
+
+    private boolean doTryLock(K key, long nanos) throws InterruptedException {
+        LocalLock localLock = this.localLocks.get().get(key);
+        if (localLock != null) {
+            localLock.lockCount++;
+            return true;
+        }
+        Lock current;
+        long acquiredAt = LockStats.NONE;
+        if (this.stats == null) {
+            current = this.tryRowLock(key, nanos);
+        } else {
+            long start = this.stats.beginWait();
+            current = null;
+            try {
+                current = this.tryRowLock(key, nanos);
+            } finally {
+                acquiredAt = this.stats.endWait(start, current != null);
+            }
+        }
+        if (current == null) {
+            return false;
+        }
+        this.localLocks.get().put(key, new LocalLock(current, acquiredAt));
+        return true;
+    }
+
+    /**
+     * Lock the keys one by one in sorted order, and unlock the locked ones
+     * in reverse order if any key can't be locked before the deadline or
+     * the thread is interrupted, shared by RowLock and PooledRowLock
+     */
+    static <K extends Comparable<K>> boolean tryLockSorted(
+                                            Set<K> keys, long nanos,
+                                            TimedLocker<K> locker,
+                                            Consumer<K> unlocker)
+                                            throws InterruptedException {
+        E.checkArgument(keys != null && keys.size() > 0,
+                        "Lock keys can't be null or empty");
+        List<K> list = sortedKeys(keys);
+        long deadline = System.nanoTime() + nanos;
+        int locked = 0;
+        try {
+            for (K key : list) {
+                if (!locker.tryLock(key, deadline - System.nanoTime())) {
+                    break;
+                }
+                locked++;
+            }
+        } finally {
+            if (locked < list.size()) {
+                // Rollback if timeout or interrupted
+                for (int i = locked; i > 0; i--) {
+                    unlocker.accept(list.get(i - 1));
+                }
+            }
+        }
+        return locked == list.size();
+    }
+
+    private static <K extends Comparable<K>> List<K> sortedKeys(Set<K> keys) {
+        List<K> list = new ArrayList<>(keys);
+        // Check before sorting, which throws NPE for a null key
+        for (K key : list) {
+            E.checkArgument(key != null, "Lock key can't be null");
+        }
+        Collections.sort(list);
+        return list;
+    }
+
+    /**
+     * Acquire the lock of the key within the waiting time, a new lock is
+     * put into the map only after it's locked, so that a key which can't be
+     * locked won't leave its lock in the map, which is removed by unlock()
+     * @return The acquired lock, or null if timeout
+     */
+    private Lock tryRowLock(K key, long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            // Like Lock.tryLock(), even if the lock is free
+            throw new InterruptedException();
+        }
+        Lock current = this.locks.get(key);
+        if (current == null) {
+            Lock created = new ReentrantLock();
+            created.lock();
+            current = this.locks.putIfAbsent(key, created);
+            if (current == null) {
+                return created;
+            }
+            // Put by another thread, the created one is never visible
+            created.unlock();
+        }
+        if (!current.tryLock(nanos, TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+        return current;
+    }
+
+    private Lock rowLock(K key) {
+        Lock current = new ReentrantLock();
+        Lock previous = this.locks.putIfAbsent(key, current);
+        if (previous != null) {
+            current = previous;
+        }
+        return current;
+    }
+
+    @FunctionalInterface
+    interface TimedLocker<K> {
+
+        boolean tryLock(K key, long nanos) throws InterruptedException;
+    }
+
     private static class LocalLock {
 
         private final Lock current;
+        private final long acquiredAt;
         private int lockCount;
 
-        private LocalLock(Lock current) {
+        private LocalLock(Lock current, long acquiredAt) {
             this.current = current;
+            this.acquiredAt = acquiredAt;
             this.lockCount = 1;
         }
     }
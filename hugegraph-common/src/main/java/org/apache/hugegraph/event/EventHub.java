@@ -17,6 +17,7 @@
 
 package org.apache.hugegraph.event;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +26,11 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Nullable;
 
@@ -34,7 +39,6 @@ import org.apache.hugegraph.util.ExecutorUtil;
 import org.apache.hugegraph.util.Log;
 import org.slf4j.Logger;
 
-import org.apache.hugegraph.iterator.ExtendableIterator;
 import com.google.common.collect.ImmutableList;
 
 public class EventHub {
@@ -42,15 +46,34 @@ public class EventHub {
     private static final Logger LOG = Log.logger(EventHub.class);
 
     public static final String EVENT_WORKER = "event-worker-%d";
+    public static final String HUB_EVENT_WORKER = "event-worker-%s-%%d";
     public static final String ANY_EVENT = "*";
 
     private static final List<EventListener> EMPTY = ImmutableList.of();
+    private static final EventListener[] EMPTY_ARRAY = new EventListener[0];
+    // The max count of event names to cache the listener snapshots
+    private static final int MAX_SNAPSHOTS = 10000;
 
     // Event executor
     private static ExecutorService executor = null;
 
     private String name;
     private Map<String, List<EventListener>> listeners;
+    // Deliver events by the shards if set, or by the executor
+    private final ShardedEventDispatcher dispatcher;
+    // The executor owned by this hub, null if use the shared executor
+    private final ThreadPoolExecutor ownExecutor;
+    private final Backpressure backpressure;
+    // The count of events rejected or dropped by the own executor
+    private final LongAdder rejected;
+
+    // The listeners subscribed by event name prefix
+    private final ListenerTrie prefixListeners = new ListenerTrie();
+    // The listeners of each notified event name, including the listeners
+    // of ANY_EVENT and matched prefixes, cleared once listeners changed
+    private final Map<String, EventListener[]> snapshots =
+                  new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
 
     public EventHub() {
         this("hub");
@@ -64,6 +87,10 @@ public class EventHub {
         LOG.debug("Create new EventHub {},threadSize {}", name, threadSize);
         this.name = name;
         this.listeners = new ConcurrentHashMap<>();
+        this.dispatcher = null;
+        this.ownExecutor = null;
+        this.backpressure = null;
+        this.rejected = new LongAdder();
         EventHub.init(threadSize);
     }
 
@@ -71,9 +98,64 @@ public class EventHub {
         LOG.debug("Create new EventHub {},corePoolSize {}, maximumPoolSize {}", name, corePoolSize, maximumPoolSize);
         this.name = name;
         this.listeners = new ConcurrentHashMap<>();
+        this.dispatcher = null;
+        this.ownExecutor = null;
+        this.backpressure = null;
+        this.rejected = new LongAdder();
         EventHub.init(corePoolSize, maximumPoolSize);
     }
 
+    /**
+     * Create a hub which owns a bounded executor instead of sharing the
+     * static one, the executor must be shut down by shutdown(timeout)
+     * @param name The hub name
+     * @param threadSize The thread count of the executor
+     * @param queueCapacity The max count of events waiting in the queue
+     * @param backpressure The policy when the queue is full
+     */
+    public EventHub(String name, int threadSize, int queueCapacity,
+                    Backpressure backpressure) {
+        E.checkArgument(threadSize > 0,
+                        "The thread size must be > 0, but got %s", threadSize);
+        E.checkArgument(queueCapacity > 0,
+                        "The queue capacity must be > 0, but got %s",
+                        queueCapacity);
+        E.checkNotNull(backpressure, "backpressure");
+        LOG.debug("Create new EventHub {}, threadSize {}, queueCapacity {}, " +
+                  "backpressure {}", name, threadSize, queueCapacity,
+                  backpressure);
+        this.name = name;
+        this.listeners = new ConcurrentHashMap<>();
+        this.dispatcher = null;
+        this.backpressure = backpressure;
+        this.rejected = new LongAdder();
+        // Escape '%' of the name since the worker name is a format pattern
+        String worker = String.format(HUB_EVENT_WORKER,
+                                      name.replace("%", "%%"));
+        this.ownExecutor = ExecutorUtil.newFixedThreadPool(
+                           threadSize, queueCapacity, worker,
+                           this::onRejected);
+    }
+
+    /**
+     * Create a hub which delivers events by the shards of the dispatcher
+     * instead of the executor, the events with the same name are delivered
+     * in order, to the listeners registered when the event is delivered
+     * @param name The hub name
+     * @param dispatcher The dispatcher, which may be shared by hubs
+     */
+    public EventHub(String name, ShardedEventDispatcher dispatcher) {
+        E.checkNotNull(dispatcher, "dispatcher");
+        LOG.debug("Create new EventHub {}, dispatcher {}",
+                  name, dispatcher.name());
+        this.name = name;
+        this.listeners = new ConcurrentHashMap<>();
+        this.dispatcher = dispatcher;
+        this.ownExecutor = null;
+        this.backpressure = null;
+        this.rejected = new LongAdder();
+    }
+
     public static synchronized void init(int poolSize) {
         if (executor != null) {
             return;
@@ -99,16 +181,102 @@ public class EventHub {
         return executor.awaitTermination(timeout, TimeUnit.SECONDS);
     }
 
-    private static ExecutorService executor() {
+    private ExecutorService executor() {
+        if (this.ownExecutor != null) {
+            return this.ownExecutor;
+        }
         ExecutorService e = executor;
         E.checkState(e != null, "The event executor has been destroyed");
         return e;
     }
 
+    /**
+     * Shut down the executor owned by this hub, the queued events are
+     * still delivered
+     * @param timeout The max seconds to wait for the queued events
+     * @return true if the executor terminated
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean shutdown(long timeout) throws InterruptedException {
+        E.checkState(this.ownExecutor != null,
+                     "EventHub '%s' doesn't own an executor", this.name);
+        LOG.debug("Shutdown executor of EventHub {}", this.name);
+        this.ownExecutor.shutdown();
+        return this.ownExecutor.awaitTermination(timeout, TimeUnit.SECONDS);
+    }
+
     public String name() {
         return this.name;
     }
 
+    /**
+     * @return The count of events waiting in the queue of own executor,
+     *         or 0 if use the shared executor
+     */
+    public int queueDepth() {
+        return this.ownExecutor == null ? 0 :
+               this.ownExecutor.getQueue().size();
+    }
+
+    /**
+     * @return The count of events rejected (by REJECT) or dropped (by
+     *         DROP_OLDEST) since the queue of own executor is full
+     */
+    public long rejected() {
+        return this.rejected.sum();
+    }
+
+    private void onRejected(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw this.shutdownRejected();
+        }
+        switch (this.backpressure) {
+            case BLOCK:
+                try {
+                    executor.getQueue().put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(String.format(
+                              "Interrupted while waiting for the queue " +
+                              "of EventHub '%s'", this.name), e);
+                }
+                /*
+                 * The executor may be shut down while waiting, then the task
+                 * would never run if it's still in the queue after workers
+                 * exited, so take it back and reject it
+                 */
+                if (executor.isShutdown() && executor.getQueue().remove(task)) {
+                    throw this.shutdownRejected();
+                }
+                break;
+            case DROP_OLDEST:
+                Runnable oldest = executor.getQueue().poll();
+                if (oldest != null) {
+                    this.rejected.increment();
+                    if (oldest instanceof Future) {
+                        // Make the notifier of the dropped event not wait
+                        ((Future<?>) oldest).cancel(false);
+                    }
+                }
+                executor.execute(task);
+                break;
+            case REJECT:
+                this.rejected.increment();
+                throw new RejectedExecutionException(String.format(
+                          "The event queue of EventHub '%s' is full",
+                          this.name));
+            default:
+                throw new AssertionError(String.format(
+                          "Unknown backpressure: %s", this.backpressure));
+        }
+    }
+
+    private RejectedExecutionException shutdownRejected() {
+        return new RejectedExecutionException(String.format(
+                   "The executor of EventHub '%s' has been shut down",
+                   this.name));
+    }
+
     public boolean containsListener(String event) {
         List<EventListener> ls = this.listeners.get(event);
         return ls != null && ls.size() > 0;
@@ -129,11 +297,16 @@ public class EventHub {
         List<EventListener> ls = this.listeners.get(event);
         assert ls != null : this.listeners;
         ls.add(listener);
+        this.invalidateSnapshots();
     }
 
     public List<EventListener> unlisten(String event) {
         List<EventListener> ls = this.listeners.remove(event);
-        return ls == null ? EMPTY : Collections.unmodifiableList(ls);
+        if (ls == null) {
+            return EMPTY;
+        }
+        this.invalidateSnapshots();
+        return Collections.unmodifiableList(ls);
     }
 
     public int unlisten(String event, EventListener listener) {
@@ -146,44 +319,189 @@ public class EventHub {
         while (ls.remove(listener)) {
             count++;
         }
+        if (count > 0) {
+            this.invalidateSnapshots();
+        }
         return count;
     }
 
-    public Future<Integer> notify(String event, @Nullable Object... args) {
-        @SuppressWarnings("resource")
-        ExtendableIterator<EventListener> all = new ExtendableIterator<>();
+    /**
+     * Listen the events whose name starts with the prefix, like "cache.".
+     * The prefix can contain '*' which matches any characters within a
+     * segment of the names separated by '.', like "cache.*.clear".
+     * The prefixes are matched only when the snapshot of an event name is
+     * built, not for each notify.
+     * @param prefix The prefix of event names, "" means all events
+     * @param listener The listener
+     */
+    public void listenPrefix(String prefix, EventListener listener) {
+        E.checkNotNull(prefix, "event prefix");
+        E.checkNotNull(listener, "event listener");
+        this.prefixListeners.add(prefix, listener);
+        this.invalidateSnapshots();
+    }
 
-        List<EventListener> ls = this.listeners.get(event);
-        if (ls != null && !ls.isEmpty()) {
-            all.extend(ls.iterator());
+    public List<EventListener> prefixListeners(String prefix) {
+        E.checkNotNull(prefix, "event prefix");
+        return Collections.unmodifiableList(this.prefixListeners.get(prefix));
+    }
+
+    public List<EventListener> unlistenPrefix(String prefix) {
+        E.checkNotNull(prefix, "event prefix");
+        List<EventListener> ls = this.prefixListeners.removeAll(prefix);
+        if (ls.isEmpty()) {
+            return EMPTY;
         }
-        List<EventListener> lsAny = this.listeners.get(ANY_EVENT);
-        if (lsAny != null && !lsAny.isEmpty()) {
-            all.extend(lsAny.iterator());
+        this.invalidateSnapshots();
+        return Collections.unmodifiableList(ls);
+    }
+
+    public int unlistenPrefix(String prefix, EventListener listener) {
+        E.checkNotNull(prefix, "event prefix");
+        int count = this.prefixListeners.remove(prefix, listener);
+        if (count > 0) {
+            this.invalidateSnapshots();
         }
+        return count;
+    }
 
-        if (!all.hasNext()) {
+    public Future<Integer> notify(String event, @Nullable Object... args) {
+        if (this.dispatcher != null) {
+            if (!this.hasListener(event)) {
+                return CompletableFuture.completedFuture(0);
+            }
+            return this.dispatcher.dispatch(new Event(this, event, args));
+        }
+
+        EventListener[] ls = this.snapshot(event);
+        if (ls.length == 0) {
             return CompletableFuture.completedFuture(0);
         }
 
         Event ev = new Event(this, event, args);
 
-        // The submit will catch params: `all`(Listeners) and `ev`(Event)
-        return executor().submit(() -> {
+        // The submit will catch params: `ls`(Listeners) and `ev`(Event)
+        return this.executor().submit(() -> deliver(ls, ev));
+    }
+
+    /**
+     * Notify an event and deliver it to the listeners in the caller thread,
+     * without the hand-off to executor, it's for the cheap listeners only
+     * @param event The event name
+     * @param args The event args
+     * @return The count of listeners handled the event successfully
+     */
+    public int notifySync(String event, @Nullable Object... args) {
+        EventListener[] ls = this.snapshot(event);
+        if (ls.length == 0) {
+            return 0;
+        }
+        return deliver(ls, new Event(this, event, args));
+    }
+
+    /**
+     * Notify a batch of events by one executor task (or by the shards in
+     * order), the events are delivered in list order to the listeners
+     * registered when delivering
+     * @param events The events created with this hub as source
+     * @return The total count of listeners handled the events successfully
+     */
+    public Future<Integer> notifyAll(List<Event> events) {
+        E.checkNotNull(events, "events");
+        List<Event> batch = new ArrayList<>(events.size());
+        for (Event ev : events) {
+            E.checkArgument(ev.getSource() == this,
+                            "The source of event '%s' must be EventHub '%s'",
+                            ev.name(), this.name);
+            if (this.hasListener(ev.name())) {
+                batch.add(ev);
+            }
+        }
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        if (this.dispatcher != null) {
+            return this.dispatcher.dispatchAll(batch);
+        }
+        return this.executor().submit(() -> {
             int count = 0;
-            // Notify all listeners, and ignore the results
-            while (all.hasNext()) {
-                try {
-                    all.next().event(ev);
-                    count++;
-                } catch (Throwable e) {
-                    LOG.warn("Failed to handle event: {}", ev, e);
-                }
+            for (Event ev : batch) {
+                count += this.deliver(ev);
             }
             return count;
         });
     }
 
+    private boolean hasListener(String event) {
+        return this.snapshot(event).length > 0;
+    }
+
+    /**
+     * Get the listeners of an event name, it's rebuilt only if listeners
+     * changed since it's built last time
+     * @param event The event name
+     * @return The listeners of the event, the matched prefixes and
+     *         ANY_EVENT, in this order
+     */
+    private EventListener[] snapshot(String event) {
+        EventListener[] ls = this.snapshots.get(event);
+        if (ls != null) {
+            return ls;
+        }
+
+        long version = this.version.get();
+        List<EventListener> all = new ArrayList<>();
+        List<EventListener> exact = this.listeners.get(event);
+        if (exact != null) {
+            all.addAll(exact);
+        }
+        this.prefixListeners.collect(event, all);
+        List<EventListener> any = this.listeners.get(ANY_EVENT);
+        if (any != null) {
+            all.addAll(any);
+        }
+        EventListener[] snapshot = all.isEmpty() ? EMPTY_ARRAY :
+                                   all.toArray(EMPTY_ARRAY);
+
+        if (this.snapshots.size() < MAX_SNAPSHOTS) {
+            // Don't cache it if listeners changed while building
+            this.snapshots.compute(event, (name, old) -> {
+                return this.version.get() == version ? snapshot : old;
+            });
+        }
+        return snapshot;
+    }
+
+    private void invalidateSnapshots() {
+        // Increase version before clear to discard the building snapshots
+        this.version.incrementAndGet();
+        this.snapshots.clear();
+    }
+
+    /**
+     * Deliver an event to the listeners of it, the matched prefixes and
+     * ANY_EVENT
+     * @param ev The event to deliver
+     * @return The count of listeners handled the event successfully
+     */
+    int deliver(Event ev) {
+        return deliver(this.snapshot(ev.name()), ev);
+    }
+
+    private static int deliver(EventListener[] ls, Event ev) {
+        int count = 0;
+        for (EventListener listener : ls) {
+            try {
+                listener.event(ev);
+                count++;
+            } catch (Throwable e) {
+                LOG.warn("Failed to handle event: {}", ev, e);
+            }
+        }
+        return count;
+    }
+
     public Object call(String event, @Nullable Object... args) {
         List<EventListener> ls = this.listeners.get(event);
         if (ls == null) {
@@ -194,4 +512,19 @@ public class EventHub {
         EventListener listener = ls.get(0);
         return listener.event(new Event(this, event, args));
     }
+
+    /**
+     * The policy of an EventHub owning executor when its queue is full
+     */
+    public enum Backpressure {
+
+        // Block the notifier until there is space in the queue
+        BLOCK,
+
+        // Drop the oldest event in the queue and cancel its future
+        DROP_OLDEST,
+
+        // Reject the new event by RejectedExecutionException
+        REJECT
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A trie of the listeners subscribed by event name prefix, it's only
+ * accessed when the listeners change or the snapshot of an event name is
+ * rebuilt, so all the methods are synchronized.
+ *
+ * A prefix can contain the WILDCARD, which matches any characters except
+ * the SEPARATOR, like "cache.*.clear" matches "cache.edge.clear" and
+ * "cache.vertex.clear.all".
+ */
+final class ListenerTrie {
+
+    public static final char WILDCARD = '*';
+    public static final char SEPARATOR = '.';
+
+    private final Node root = new Node(false);
+
+    public synchronized void add(String prefix, EventListener listener) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i),
+                                                 c -> new Node(c == WILDCARD));
+        }
+        node.listeners.add(listener);
+    }
+
+    public synchronized int remove(String prefix, EventListener listener) {
+        Node node = this.find(prefix);
+        if (node == null) {
+            return 0;
+        }
+        int count = 0;
+        while (node.listeners.remove(listener)) {
+            count++;
+        }
+        this.prune(prefix);
+        return count;
+    }
+
+    public synchronized List<EventListener> removeAll(String prefix) {
+        Node node = this.find(prefix);
+        if (node == null || node.listeners.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<EventListener> removed = node.listeners;
+        node.listeners = new ArrayList<>();
+        this.prune(prefix);
+        return removed;
+    }
+
+    public synchronized List<EventListener> get(String prefix) {
+        Node node = this.find(prefix);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(node.listeners);
+    }
+
+    /**
+     * Collect the listeners of all prefixes matching the event name, from
+     * the shortest matched part of the name to the longest one, and the
+     * listeners of a prefix are collected once even if matched many times
+     */
+    public synchronized void collect(String event, List<EventListener> all) {
+        Set<Node> matched = new LinkedHashSet<>();
+        Set<Node> nodes = new LinkedHashSet<>();
+        reach(this.root, nodes);
+        for (int i = 0; i < event.length() && !nodes.isEmpty(); i++) {
+            matched.addAll(nodes);
+            char c = event.charAt(i);
+            Set<Node> nexts = new LinkedHashSet<>();
+            for (Node node : nodes) {
+                if (node.wildcard && c != SEPARATOR) {
+                    // The wildcard matches one more character
+                    nexts.add(node);
+                }
+                Node next = node.children.get(c);
+                if (next != null) {
+                    reach(next, nexts);
+                }
+            }
+            nodes = nexts;
+        }
+        matched.addAll(nodes);
+        for (Node node : matched) {
+            all.addAll(node.listeners);
+        }
+    }
+
+    /**
+     * Add the node, and its wildcard child which matches zero character
+     */
+    private static void reach(Node node, Set<Node> nodes) {
+        while (node != null && nodes.add(node)) {
+            node = node.children.get(WILDCARD);
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Remove the empty nodes on the path of the prefix
+     */
+    private void prune(String prefix) {
+        for (int length = prefix.length(); length > 0; length--) {
+            Node parent = this.find(prefix.substring(0, length - 1));
+            char c = prefix.charAt(length - 1);
+            Node node = parent.children.get(c);
+            if (!node.listeners.isEmpty() || !node.children.isEmpty()) {
+                break;
+            }
+            parent.children.remove(c);
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+        private List<EventListener> listeners = new ArrayList<>();
+        // Whether the node is reached by the WILDCARD
+        private final boolean wildcard;
+
+        private Node(boolean wildcard) {
+            this.wildcard = wildcard;
+        }
+    }
+}
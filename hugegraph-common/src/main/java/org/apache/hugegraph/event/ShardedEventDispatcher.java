@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.event;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.hugegraph.util.E;
+import org.apache.hugegraph.util.Log;
+import org.slf4j.Logger;
+
+/**
+ * ShardedEventDispatcher delivers the events of EventHubs by a fixed set of
+ * shards, each shard has a bounded ring buffer and a single worker thread.
+ * The events are routed to shards by event name, so the events with the
+ * same name are delivered in the order they're notified, and the worker
+ * drains all published events of its buffer in a batch.
+ *
+ * The publisher is blocked when the buffer of the shard is full, it yields
+ * a few times and then parks until the worker consumes a batch, so the
+ * listeners should not notify events into a full buffer of their own shard.
+ * A dispatcher can be shared by multiple hubs, and it must be shut down by
+ * the owner since the hubs don't know whether it's shared.
+ */
+public final class ShardedEventDispatcher {
+
+    private static final Logger LOG = Log.logger(ShardedEventDispatcher.class);
+
+    public static final String SHARD_WORKER = "event-shard-%s-%d";
+
+    private final String name;
+    private final Shard[] shards;
+
+    public ShardedEventDispatcher(String name, int shards, int bufferSize) {
+        E.checkArgument(shards > 0,
+                        "The shards must be > 0, but got %s", shards);
+        E.checkArgument(bufferSize > 0 && bufferSize <= (1 << 30),
+                        "The buffer size must be in (0, 2^30], but got %s",
+                        bufferSize);
+        this.name = name;
+        this.shards = new Shard[shards];
+        // Round up to power of 2 to use mask instead of mod
+        int capacity = Integer.highestOneBit(bufferSize - 1) << 1;
+        capacity = bufferSize == 1 ? 1 : capacity;
+        for (int i = 0; i < shards; i++) {
+            String worker = String.format(SHARD_WORKER, name, i);
+            this.shards[i] = new Shard(worker, capacity);
+        }
+        for (Shard shard : this.shards) {
+            shard.worker.start();
+        }
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public int shards() {
+        return this.shards.length;
+    }
+
+    /**
+     * @return The count of events published but not delivered yet
+     */
+    public long pending() {
+        long pending = 0L;
+        for (Shard shard : this.shards) {
+            pending += (shard.tail.get() & ~Shard.CLOSED) - shard.head;
+        }
+        return pending;
+    }
+
+    /**
+     * Stop accepting new events, the published events are still delivered
+     */
+    public void shutdown() {
+        for (Shard shard : this.shards) {
+            shard.close();
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+                                    throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Shard shard : this.shards) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0L) {
+                TimeUnit.NANOSECONDS.timedJoin(shard.worker, remaining);
+            }
+            if (shard.worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean terminated() {
+        for (Shard shard : this.shards) {
+            if (shard.worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Future<Integer> dispatch(Event event) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.shard(event.name()).publish(event, future);
+        return future;
+    }
+
+    Future<Integer> dispatchAll(List<Event> events) {
+        Shard[] shards = new Shard[events.size()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = this.shard(events.get(i).name());
+            // Reject the batch before publishing any event if possible
+            shards[i].checkOpen();
+        }
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Integer>[] futures = new CompletableFuture[
+                                               events.size()];
+        int published = 0;
+        try {
+            for (; published < futures.length; published++) {
+                futures[published] = new CompletableFuture<>();
+                shards[published].publish(events.get(published),
+                                          futures[published]);
+            }
+        } catch (RejectedExecutionException e) {
+            /*
+             * A shard is shut down concurrently, the published events are
+             * still delivered by their shards, but nobody waits for them
+             */
+            LOG.warn("Rejected {} of {} events since the dispatcher '{}' " +
+                     "is shut down", futures.length - published,
+                     futures.length, this.name);
+            for (int i = 0; i < published; i++) {
+                futures[i].cancel(false);
+            }
+            throw e;
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            int count = 0;
+            for (CompletableFuture<Integer> future : futures) {
+                count += future.join();
+            }
+            return count;
+        });
+    }
+
+    private Shard shard(String event) {
+        int hash = event.hashCode();
+        hash ^= hash >>> 16;
+        return this.shards[(hash & Integer.MAX_VALUE) % this.shards.length];
+    }
+
+    /**
+     * A multi-producer single-consumer ring buffer with its worker: the
+     * producers claim sequences by CAS on tail and publish the event into
+     * the slot, the worker consumes from head and clears the slots.
+     */
+    private static final class Shard implements Runnable {
+
+        // The bit of tail marks the shard is closed
+        private static final long CLOSED = 1L << 62;
+        // The max count of events delivered in a batch
+        private static final int BATCH = 256;
+        // The times to yield before parking while waiting
+        private static final int YIELDS = 16;
+        // The min and max nanos to park, doubled each time in between
+        private static final long MIN_PARK = 1000L;
+        private static final int MAX_PARK_SHIFT = 10;
+
+        private final AtomicReferenceArray<Event> events;
+        // Written before publishing the event of the same slot
+        private final CompletableFuture<?>[] futures;
+        private final int capacity;
+        private final int mask;
+
+        // The next sequence to claim by producers, with the CLOSED bit
+        private final AtomicLong tail;
+        // The next sequence to consume, only written by the worker
+        private volatile long head;
+        private volatile boolean parked;
+        // The producers parked for a full buffer, unparked by the worker
+        private final Queue<Thread> waiters;
+
+        private final Event[] batchEvents;
+        private final CompletableFuture<?>[] batchFutures;
+        private final Thread worker;
+
+        Shard(String name, int capacity) {
+            this.events = new AtomicReferenceArray<>(capacity);
+            this.futures = new CompletableFuture<?>[capacity];
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.tail = new AtomicLong();
+            this.head = 0L;
+            this.parked = false;
+            this.waiters = new ConcurrentLinkedQueue<>();
+            this.batchEvents = new Event[Math.min(capacity, BATCH)];
+            this.batchFutures = new CompletableFuture<?>[this.batchEvents.length];
+            this.worker = new Thread(this, name);
+            this.worker.setDaemon(true);
+        }
+
+        void checkOpen() {
+            if ((this.tail.get() & CLOSED) != 0L) {
+                throw this.rejected();
+            }
+        }
+
+        void publish(Event event, CompletableFuture<Integer> future) {
+            long sequence;
+            int waits = 0;
+            while (true) {
+                sequence = this.tail.get();
+                if ((sequence & CLOSED) != 0L) {
+                    throw this.rejected();
+                }
+                if (sequence - this.head >= this.capacity) {
+                    // The buffer is full, wait for the worker
+                    this.awaitSpace(waits++);
+                    continue;
+                }
+                if (this.tail.compareAndSet(sequence, sequence + 1L)) {
+                    break;
+                }
+            }
+            int index = (int) sequence & this.mask;
+            this.futures[index] = future;
+            this.events.lazySet(index, event);
+            if (this.parked) {
+                LockSupport.unpark(this.worker);
+            }
+        }
+
+        void close() {
+            long tail;
+            do {
+                tail = this.tail.get();
+            } while ((tail & CLOSED) == 0L &&
+                     !this.tail.compareAndSet(tail, tail | CLOSED));
+            LockSupport.unpark(this.worker);
+            // Let the waiting producers see it's closed
+            this.unparkWaiters();
+        }
+
+        /**
+         * Wait for the worker to consume from the full buffer, by yielding
+         * first and then parking until unparked by the worker. The parking
+         * time is bounded and grows with the waits, in case the wakeup is
+         * missed after the worker consumed
+         */
+        private void awaitSpace(int waits) {
+            if (waits < YIELDS) {
+                Thread.yield();
+                return;
+            }
+            Thread current = Thread.currentThread();
+            this.waiters.add(current);
+            try {
+                // Check again after added, the worker may have consumed
+                long tail = this.tail.get();
+                if ((tail & CLOSED) == 0L &&
+                    tail - this.head >= this.capacity) {
+                    LockSupport.parkNanos(this, parkNanos(waits - YIELDS));
+                }
+            } finally {
+                this.waiters.remove(current);
+            }
+        }
+
+        private void unparkWaiters() {
+            for (Thread waiter : this.waiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+
+        private static long parkNanos(int parks) {
+            return MIN_PARK << Math.min(parks, MAX_PARK_SHIFT);
+        }
+
+        private RejectedExecutionException rejected() {
+            return new RejectedExecutionException(String.format(
+                       "The event shard '%s' has been shut down",
+                       this.worker.getName()));
+        }
+
+        @Override
+        public void run() {
+            long head = this.head;
+            int waits = 0;
+            while (true) {
+                int size = this.drain(head);
+                if (size > 0) {
+                    head += size;
+                    this.head = head;
+                    if (!this.waiters.isEmpty()) {
+                        this.unparkWaiters();
+                    }
+                    this.deliver(size);
+                    waits = 0;
+                    continue;
+                }
+                long tail = this.tail.get();
+                if (head == (tail & ~CLOSED)) {
+                    if ((tail & CLOSED) != 0L) {
+                        // All the claimed events have been delivered
+                        break;
+                    }
+                    this.parked = true;
+                    if (this.tail.get() == tail) {
+                        LockSupport.park(this);
+                    }
+                    this.parked = false;
+                } else if (waits < YIELDS) {
+                    // A slot is claimed but not published yet
+                    waits++;
+                    Thread.yield();
+                } else {
+                    // The producer may be descheduled before publishing
+                    LockSupport.parkNanos(this, parkNanos(waits++ - YIELDS));
+                }
+            }
+            LOG.debug("Event shard worker '{}' exited", this.worker.getName());
+        }
+
+        private int drain(long head) {
+            int size = 0;
+            while (size < this.batchEvents.length) {
+                int index = (int) (head + size) & this.mask;
+                Event event = this.events.get(index);
+                if (event == null) {
+                    break;
+                }
+                this.batchEvents[size] = event;
+                this.batchFutures[size] = this.futures[index];
+                this.futures[index] = null;
+                this.events.lazySet(index, null);
+                size++;
+            }
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(int size) {
+            for (int i = 0; i < size; i++) {
+                Event event = this.batchEvents[i];
+                CompletableFuture<Integer> future =
+                        (CompletableFuture<Integer>) this.batchFutures[i];
+                this.batchEvents[i] = null;
+                this.batchFutures[i] = null;
+                try {
+                    EventHub hub = (EventHub) event.getSource();
+                    future.complete(hub.deliver(event));
+                } catch (Throwable e) {
+                    LOG.warn("Failed to deliver event: {}", event, e);
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
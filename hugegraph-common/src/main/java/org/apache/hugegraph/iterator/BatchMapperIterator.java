@@ -26,20 +26,45 @@ import org.apache.hugegraph.util.InsertionOrderUtil;
 
 import com.google.common.collect.ImmutableList;
 
+/**
+ * BatchMapperIterator reads the origin iterator in batches and maps each
+ * batch into an iterator of results by the mapper.
+ *
+ * If `reuseBuffer` is true, all the batches are read into one list presized
+ * to the batch size, which is cleared and refilled for the next batch after
+ * the results of the previous one are exhausted. In this mode the mapper
+ * must not retain the list (or its sub lists and iterators) beyond the
+ * results iterator it returns, otherwise the elements would be changed
+ * under it; it should copy the list if needed.
+ */
 public class BatchMapperIterator<T, R> extends WrappedIterator<R> {
 
+    // Avoid allocating a huge buffer upfront for a huge batch size
+    private static final int MAX_BUFFER_CAPACITY = 1 << 16;
+
     private final int batch;
     private final Iterator<T> originIterator;
     private final Function<List<T>, Iterator<R>> mapperCallback;
+    // The recycled batch buffer, null if not reuse buffer
+    private final List<T> buffer;
 
     private Iterator<R> batchIterator;
 
     public BatchMapperIterator(int batch, Iterator<T> origin,
                                Function<List<T>, Iterator<R>> mapper) {
+        this(batch, origin, mapper, false);
+    }
+
+    public BatchMapperIterator(int batch, Iterator<T> origin,
+                               Function<List<T>, Iterator<R>> mapper,
+                               boolean reuseBuffer) {
         E.checkArgument(batch > 0, "Expect batch > 0, but got %s", batch);
         this.batch = batch;
         this.originIterator = origin;
         this.mapperCallback = mapper;
+        this.buffer = reuseBuffer ? InsertionOrderUtil.newList(
+                                    Math.min(batch, MAX_BUFFER_CAPACITY)) :
+                                    null;
         this.batchIterator = null;
     }
 
@@ -70,9 +95,21 @@ public class BatchMapperIterator<T, R> extends WrappedIterator<R> {
 
     protected final List<T> nextBatch() {
         if (!this.originIterator.hasNext()) {
+            if (this.buffer != null) {
+                // Don't hold the elements of the last batch
+                this.buffer.clear();
+            }
             return ImmutableList.of();
         }
-        List<T> list = InsertionOrderUtil.newList();
+        List<T> list;
+        if (this.buffer != null) {
+            // The results of the previous batch have been exhausted
+            assert this.batchIterator == null;
+            list = this.buffer;
+            list.clear();
+        } else {
+            list = InsertionOrderUtil.newList();
+        }
         for (int i = 0; i < this.batch && this.originIterator.hasNext(); i++) {
             T next = this.originIterator.next();
             list.add(next);
@@ -18,6 +18,23 @@
 package org.apache.hugegraph.iterator;
 
 import java.util.Iterator;
+import java.util.stream.Stream;
 
 public interface CIter<R> extends Iterator<R>, AutoCloseable, Metadatable {
+
+    /**
+     * Get a sequential stream of the remaining elements, the stream must be
+     * closed to close this iterator, e.g. by try-with-resources
+     */
+    default Stream<R> stream() {
+        return CIterSpliterator.stream(this, false);
+    }
+
+    /**
+     * Get a parallel stream of the remaining elements, the stream must be
+     * closed to close this iterator and the iterators split from it
+     */
+    default Stream<R> parallelStream() {
+        return CIterSpliterator.stream(this, true);
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CIterSpliterator traverses a CIter for streams, and it's split by:
+ * - the sub iterators of ExtendableIterator if it's not iterated yet, the
+ *   first half of them is split off as a new ExtendableIterator;
+ * - otherwise the elements read into arrays of increasing batch sizes,
+ *   like the spliterators of plain iterators.
+ * All the iterators split off share a resource list with the root, which
+ * is closed with the stream.
+ */
+public class CIterSpliterator<T> implements Spliterator<T> {
+
+    private static final int BATCH_UNIT = 1 << 10;
+    private static final int MAX_BATCH = 1 << 20;
+
+    private final CIter<T> iterator;
+    // The root iterator and the iterators split from it
+    private final Queue<CIter<?>> resources;
+    private int batch;
+
+    public CIterSpliterator(CIter<T> iterator) {
+        this(iterator, new ConcurrentLinkedQueue<>());
+        this.resources.add(iterator);
+    }
+
+    private CIterSpliterator(CIter<T> iterator, Queue<CIter<?>> resources) {
+        this.iterator = iterator;
+        this.resources = resources;
+        this.batch = 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!this.iterator.hasNext()) {
+            return false;
+        }
+        action.accept(this.iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        this.iterator.forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (this.iterator instanceof ExtendableIterator) {
+            ExtendableIterator<T> prefix;
+            prefix = ((ExtendableIterator<T>) this.iterator).splitPrefix();
+            if (prefix != null) {
+                this.resources.add(prefix);
+                return new CIterSpliterator<>(prefix, this.resources);
+            }
+        }
+
+        if (!this.iterator.hasNext()) {
+            return null;
+        }
+        int size = Math.min(this.batch + BATCH_UNIT, MAX_BATCH);
+        Object[] elems = new Object[size];
+        int count = 0;
+        do {
+            elems[count++] = this.iterator.next();
+        } while (count < size && this.iterator.hasNext());
+        this.batch = count;
+        return Spliterators.spliterator(elems, 0, count, ORDERED);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED;
+    }
+
+    /**
+     * Close the root iterator and all the iterators split from it
+     */
+    public void close() {
+        IllegalStateException error = null;
+        CIter<?> iterator;
+        while ((iterator = this.resources.poll()) != null) {
+            try {
+                iterator.close();
+            } catch (Exception e) {
+                if (error == null) {
+                    error = new IllegalStateException(
+                            "Failed to close iterator", e);
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    public static <T> Stream<T> stream(CIter<T> iterator, boolean parallel) {
+        CIterSpliterator<T> spliterator = new CIterSpliterator<>(iterator);
+        return StreamSupport.stream(spliterator, parallel)
+                            .onClose(spliterator::close);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * ChunkedFilterIterator is like FilterIterator, but it reads a chunk of
+ * elements from the origin into an array, filters the whole chunk by a
+ * Predicate (without boxing the Boolean results), then returns the kept
+ * elements of the chunk. So the origin and the filter are called in tight
+ * loops instead of being interleaved with the consumer.
+ */
+public class ChunkedFilterIterator<T> extends WrappedIterator<T> {
+
+    public static final int DEFAULT_CHUNK = 256;
+
+    private final Iterator<T> originIterator;
+    private final Predicate<? super T> filterCallback;
+
+    private final Object[] chunk;
+    // The kept elements of chunk are in [index, size)
+    private int index;
+    private int size;
+
+    public ChunkedFilterIterator(Iterator<T> origin,
+                                 Predicate<? super T> filter) {
+        this(origin, filter, DEFAULT_CHUNK);
+    }
+
+    public ChunkedFilterIterator(Iterator<T> origin,
+                                 Predicate<? super T> filter, int chunk) {
+        E.checkArgument(chunk > 0, "Expect chunk > 0, but got %s", chunk);
+        this.originIterator = origin;
+        this.filterCallback = filter;
+        this.chunk = new Object[chunk];
+        this.index = 0;
+        this.size = 0;
+    }
+
+    @Override
+    protected Iterator<T> originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected final boolean fetch() {
+        assert this.current == none();
+        while (this.index >= this.size) {
+            if (!this.fetchChunk()) {
+                return false;
+            }
+        }
+        this.current = (T) this.chunk[this.index];
+        this.chunk[this.index++] = null;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean fetchChunk() {
+        Object[] chunk = this.chunk;
+        int read = 0;
+        while (read < chunk.length && this.originIterator.hasNext()) {
+            chunk[read++] = this.originIterator.next();
+        }
+        if (read == 0) {
+            return false;
+        }
+        // Do filter and compact the kept elements
+        int kept = 0;
+        for (int i = 0; i < read; i++) {
+            T elem = (T) chunk[i];
+            chunk[i] = null;
+            if (elem != null && this.filterCallback.test(elem)) {
+                chunk[kept++] = elem;
+            }
+        }
+        this.index = 0;
+        this.size = kept;
+        return true;
+    }
+}
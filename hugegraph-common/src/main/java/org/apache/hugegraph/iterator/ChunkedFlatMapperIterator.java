@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * ChunkedFlatMapperIterator is like FlatMapperIterator, but the mapper
+ * pushes the results of an element into a consumer instead of returning an
+ * iterator, so no iterator is allocated per element. A chunk of elements
+ * are mapped at a time, and their results are buffered then returned.
+ *
+ * The buffer holds all the results of a chunk, so the chunk size should be
+ * small if an element may be mapped into lots of results. The buffer grown
+ * by such a chunk is shrunk once a later chunk uses less than a quarter.
+ */
+public class ChunkedFlatMapperIterator<T, R> extends WrappedIterator<R> {
+
+    public static final int DEFAULT_CHUNK = 64;
+
+    private final Iterator<T> originIterator;
+    private final BiConsumer<? super T, Consumer<? super R>> mapperCallback;
+    private final int chunk;
+    // Add the non-null results into the buffer
+    private final Consumer<R> collector;
+
+    private Object[] results;
+    // The buffered results are in [index, size)
+    private int index;
+    private int size;
+
+    public ChunkedFlatMapperIterator(Iterator<T> origin,
+                                     BiConsumer<? super T,
+                                                Consumer<? super R>> mapper) {
+        this(origin, mapper, DEFAULT_CHUNK);
+    }
+
+    public ChunkedFlatMapperIterator(Iterator<T> origin,
+                                     BiConsumer<? super T,
+                                                Consumer<? super R>> mapper,
+                                     int chunk) {
+        E.checkArgument(chunk > 0, "Expect chunk > 0, but got %s", chunk);
+        this.originIterator = origin;
+        this.mapperCallback = mapper;
+        this.chunk = chunk;
+        this.collector = this::collect;
+        this.results = new Object[chunk];
+        this.index = 0;
+        this.size = 0;
+    }
+
+    @Override
+    protected Iterator<T> originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected final boolean fetch() {
+        assert this.current == none();
+        while (this.index >= this.size) {
+            if (!this.fetchChunk()) {
+                return false;
+            }
+        }
+        this.current = (R) this.results[this.index];
+        this.results[this.index++] = null;
+        return true;
+    }
+
+    private boolean fetchChunk() {
+        // The results of the previous chunk have been drained
+        int capacity = this.results.length;
+        if (capacity > this.chunk && this.size < capacity >>> 2) {
+            this.results = new Object[Math.max(this.chunk, this.size << 1)];
+        }
+        this.index = 0;
+        this.size = 0;
+        int read = 0;
+        while (read < this.chunk && this.originIterator.hasNext()) {
+            T next = this.originIterator.next();
+            read++;
+            if (next != null) {
+                // Do map
+                this.mapperCallback.accept(next, this.collector);
+            }
+        }
+        return read > 0;
+    }
+
+    private void collect(R result) {
+        if (result == null) {
+            return;
+        }
+        if (this.size == this.results.length) {
+            this.results = Arrays.copyOf(this.results, this.size << 1);
+        }
+        this.results[this.size++] = result;
+    }
+}
@@ -23,7 +23,8 @@ import java.util.concurrent.ConcurrentLinkedDeque;
 
 import org.apache.hugegraph.util.E;
 
-public class ExtendableIterator<T> extends WrappedIterator<T> {
+public class ExtendableIterator<T> extends WrappedIterator<T>
+                                   implements Skippable {
 
     private final Deque<Iterator<T>> itors;
 
@@ -54,6 +55,52 @@ public class ExtendableIterator<T> extends WrappedIterator<T> {
         return this;
     }
 
+    /**
+     * Skip the elements of sub iterators in order, each sub iterator skips
+     * by itself if it's Skippable
+     */
+    @Override
+    public long skip(long n) {
+        long skipped = 0L;
+        if (n > 0L && this.dropCurrent()) {
+            skipped++;
+        }
+        Iterator<T> first;
+        while (skipped < n && (first = this.itors.peekFirst()) != null) {
+            skipped += Skippable.skip(first, n - skipped);
+            if (skipped < n) {
+                // The first one is exhausted
+                if (this.itors.size() == 1) {
+                    // Keep the last one like fetch()
+                    break;
+                }
+                close(this.itors.removeFirst());
+            }
+        }
+        this.currentIterator = this.itors.peekFirst();
+        return skipped;
+    }
+
+    /**
+     * Split off the first half of the sub iterators, it's only allowed
+     * before iterating since the first one may be iterating
+     * @return an ExtendableIterator of the first half, or null if can't split
+     */
+    ExtendableIterator<T> splitPrefix() {
+        if (this.currentIterator != null || this.current != none()) {
+            return null;
+        }
+        int size = this.itors.size();
+        if (size < 2) {
+            return null;
+        }
+        ExtendableIterator<T> prefix = new ExtendableIterator<>();
+        for (int i = 0; i < size / 2; i++) {
+            prefix.itors.addLast(this.itors.removeFirst());
+        }
+        return prefix;
+    }
+
     @Override
     public void close() throws Exception {
         for (Iterator<T> iter : this.itors) {
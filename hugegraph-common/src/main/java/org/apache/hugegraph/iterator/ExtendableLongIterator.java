@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Deque;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.apache.hugegraph.util.E;
+
+public class ExtendableLongIterator extends WrappedLongIterator {
+
+    private final Deque<PrimitiveIterator.OfLong> itors;
+
+    private PrimitiveIterator.OfLong currentIterator;
+
+    public ExtendableLongIterator() {
+        this.itors = new ConcurrentLinkedDeque<>();
+        this.currentIterator = null;
+    }
+
+    public ExtendableLongIterator(PrimitiveIterator.OfLong iter) {
+        this();
+        this.extend(iter);
+    }
+
+    public ExtendableLongIterator(PrimitiveIterator.OfLong itor1,
+                                  PrimitiveIterator.OfLong itor2) {
+        this();
+        this.extend(itor1);
+        this.extend(itor2);
+    }
+
+    public ExtendableLongIterator extend(PrimitiveIterator.OfLong iter) {
+        E.checkState(this.currentIterator == null,
+                     "Can't extend iterator after iterating");
+        if (iter != null) {
+            this.itors.addLast(iter);
+        }
+        return this;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (PrimitiveIterator.OfLong iter : this.itors) {
+            if (iter instanceof AutoCloseable) {
+                ((AutoCloseable) iter).close();
+            }
+        }
+    }
+
+    @Override
+    protected PrimitiveIterator.OfLong originIterator() {
+        return this.currentIterator;
+    }
+
+    @Override
+    protected boolean fetch() {
+        if (this.itors.isEmpty()) {
+            return false;
+        }
+
+        if (this.currentIterator != null && this.currentIterator.hasNext()) {
+            this.current = this.currentIterator.nextLong();
+            return true;
+        }
+
+        PrimitiveIterator.OfLong first;
+        while ((first = this.itors.peekFirst()) != null && !first.hasNext()) {
+            if (first == this.itors.peekLast() && this.itors.size() == 1) {
+                this.currentIterator = first;
+                // The last one
+                return false;
+            }
+            WrappedIterator.close(this.itors.removeFirst());
+        }
+
+        assert first != null && first.hasNext();
+        this.currentIterator = first;
+        this.current = this.currentIterator.nextLong();
+        return true;
+    }
+}
@@ -20,6 +20,12 @@ package org.apache.hugegraph.iterator;
 import java.util.Iterator;
 import java.util.function.Function;
 
+/**
+ * FilterIterator returns the elements of the origin iterator accepted by
+ * the filter. It's not Skippable: whether an element is returned is only
+ * known by applying the filter to it, so skipping its results has to read
+ * them from the origin, which is what Skippable.skip() falls back to.
+ */
 public class FilterIterator<T> extends WrappedIterator<T> {
 
     private final Iterator<T> originIterator;
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+
+public class IntFilterIterator extends WrappedIntIterator {
+
+    private final PrimitiveIterator.OfInt originIterator;
+    private final IntPredicate filterCallback;
+
+    public IntFilterIterator(PrimitiveIterator.OfInt origin, IntPredicate filter) {
+        this.originIterator = origin;
+        this.filterCallback = filter;
+    }
+
+    @Override
+    protected PrimitiveIterator.OfInt originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    protected final boolean fetch() {
+        while (this.originIterator.hasNext()) {
+            int next = this.originIterator.nextInt();
+            // Do filter
+            if (this.filterCallback.test(next)) {
+                this.current = next;
+                return true;
+            }
+        }
+        return false;
+    }
+}
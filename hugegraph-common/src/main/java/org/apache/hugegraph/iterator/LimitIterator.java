@@ -20,14 +20,36 @@ package org.apache.hugegraph.iterator;
 import java.util.Iterator;
 import java.util.function.Function;
 
-public class LimitIterator<T> extends WrappedIterator<T> {
+import org.apache.hugegraph.util.E;
+
+/**
+ * LimitIterator returns the elements of the origin iterator until the limit
+ * is reached, then closes the origin. The limit is either checked by the
+ * callback for each element, or counted down from a fixed count.
+ *
+ * It can skip elements by the origin without reading them only if limited
+ * by count, since the callback has to see each element. The null elements
+ * skipped by the origin are counted as skipped, like OffsetIterator.
+ */
+public class LimitIterator<T> extends WrappedIterator<T> implements Skippable {
 
     private final Iterator<T> originIterator;
+    // Null if limited by count
     private final Function<T, Boolean> filterCallback;
+    // The count of elements can be returned or skipped if limited by count
+    private long remaining;
 
     public LimitIterator(Iterator<T> origin, Function<T, Boolean> filter) {
         this.originIterator = origin;
         this.filterCallback = filter;
+        this.remaining = Long.MAX_VALUE;
+    }
+
+    public LimitIterator(Iterator<T> origin, long limit) {
+        E.checkArgument(limit >= 0L, "Expect limit >= 0, but got %s", limit);
+        this.originIterator = origin;
+        this.filterCallback = null;
+        this.remaining = limit;
     }
 
     @Override
@@ -35,21 +57,53 @@ public class LimitIterator<T> extends WrappedIterator<T> {
         return this.originIterator;
     }
 
+    /**
+     * Skip by the origin if limited by count, otherwise skip by reading the
+     * elements and checking them by the callback
+     */
+    @Override
+    public long skip(long n) {
+        long skipped = 0L;
+        if (n > 0L && this.dropCurrent()) {
+            skipped++;
+        }
+        if (this.filterCallback != null) {
+            while (skipped < n && this.hasNext()) {
+                this.next();
+                skipped++;
+            }
+            return skipped;
+        }
+        long step = Skippable.skip(this.originIterator,
+                                   Math.min(n - skipped, this.remaining));
+        this.remaining -= step;
+        return skipped + step;
+    }
+
     @Override
     protected final boolean fetch() {
+        if (this.remaining <= 0L) {
+            // Don't read the origin once the count is reached
+            this.closeOriginIterator();
+            return false;
+        }
         while (this.originIterator.hasNext()) {
             T next = this.originIterator.next();
             if (next == null) {
                 continue;
             }
             // Do filter
-            boolean reachLimit = this.filterCallback.apply(next);
+            boolean reachLimit = this.filterCallback != null &&
+                                 this.filterCallback.apply(next);
             if (reachLimit) {
                 this.closeOriginIterator();
                 return false;
             }
             assert this.current == none();
             this.current = next;
+            if (this.filterCallback == null) {
+                this.remaining--;
+            }
             return true;
         }
         return false;
@@ -24,10 +24,10 @@ import java.util.List;
 
 import org.apache.hugegraph.util.InsertionOrderUtil;
 
-public class ListIterator<T> extends WrappedIterator<T> {
+public class ListIterator<T> extends WrappedIterator<T> implements Skippable {
 
     private final Iterator<T> originIterator;
-    private final Iterator<T> resultsIterator;
+    private Iterator<T> resultsIterator;
     private final Collection<T> results;
 
     public ListIterator(long capacity, Iterator<T> origin) {
@@ -41,7 +41,7 @@ public class ListIterator<T> extends WrappedIterator<T> {
         }
         this.originIterator = origin;
         this.results = Collections.unmodifiableList(results);
-        this.resultsIterator = this.results.iterator();
+        this.resultsIterator = results(this.results);
     }
 
     public ListIterator(Collection<T> origin) {
@@ -49,7 +49,7 @@ public class ListIterator<T> extends WrappedIterator<T> {
         this.results = origin instanceof List ?
                        Collections.unmodifiableList((List<T>) origin) :
                        Collections.unmodifiableCollection(origin);
-        this.resultsIterator = this.results.iterator();
+        this.resultsIterator = results(this.results);
     }
 
     @Override
@@ -61,6 +61,32 @@ public class ListIterator<T> extends WrappedIterator<T> {
         return this.results;
     }
 
+    /**
+     * Skip by moving the index of the results if it's a list, otherwise
+     * skip by reading the results
+     */
+    @Override
+    public long skip(long n) {
+        long skipped = 0L;
+        if (n > 0L && this.dropCurrent()) {
+            skipped++;
+        }
+        if (skipped < n &&
+            this.resultsIterator instanceof java.util.ListIterator) {
+            List<T> list = (List<T>) this.results;
+            int index = ((java.util.ListIterator<T>) this.resultsIterator)
+                        .nextIndex();
+            int step = (int) Math.min(n - skipped, list.size() - index);
+            this.resultsIterator = list.listIterator(index + step);
+            return skipped + step;
+        }
+        while (skipped < n && this.resultsIterator.hasNext()) {
+            this.resultsIterator.next();
+            skipped++;
+        }
+        return skipped;
+    }
+
     @Override
     protected boolean fetch() {
         assert this.current == none();
@@ -75,4 +101,11 @@ public class ListIterator<T> extends WrappedIterator<T> {
     protected Iterator<T> originIterator() {
         return this.originIterator;
     }
+
+    private static <T> Iterator<T> results(Collection<T> results) {
+        if (results instanceof List) {
+            return ((List<T>) results).listIterator();
+        }
+        return results.iterator();
+    }
 }
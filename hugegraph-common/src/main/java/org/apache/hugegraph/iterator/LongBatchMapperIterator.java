@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.function.Function;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * LongBatchMapperIterator reads the primitive longs of the origin iterator
+ * in batches, like ids, and maps each batch into an iterator of results.
+ * Each batch is passed to the mapper as a new long array of exact length,
+ * so the mapper is free to retain it.
+ */
+public class LongBatchMapperIterator<R> extends WrappedIterator<R> {
+
+    // Avoid allocating a huge array upfront for a huge batch size
+    private static final int MAX_INIT_CAPACITY = 1 << 12;
+
+    private static final long[] EMPTY = new long[0];
+
+    private final int batch;
+    private final PrimitiveIterator.OfLong originIterator;
+    private final Function<long[], Iterator<R>> mapperCallback;
+
+    private Iterator<R> batchIterator;
+
+    public LongBatchMapperIterator(int batch, PrimitiveIterator.OfLong origin,
+                                   Function<long[], Iterator<R>> mapper) {
+        E.checkArgument(batch > 0, "Expect batch > 0, but got %s", batch);
+        this.batch = batch;
+        this.originIterator = origin;
+        this.mapperCallback = mapper;
+        this.batchIterator = null;
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.resetBatchIterator();
+        super.close();
+    }
+
+    @Override
+    protected PrimitiveIterator.OfLong originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    protected final boolean fetch() {
+        if (this.batchIterator != null && this.fetchFromBatch()) {
+            return true;
+        }
+
+        long[] batch = this.nextBatch();
+        assert this.batchIterator == null;
+        while (batch.length > 0) {
+            // Do fetch
+            this.batchIterator = this.mapperCallback.apply(batch);
+            if (this.batchIterator != null && this.fetchFromBatch()) {
+                return true;
+            }
+            // Try next batch
+            batch = this.nextBatch();
+        }
+        return false;
+    }
+
+    protected final long[] nextBatch() {
+        if (!this.originIterator.hasNext()) {
+            return EMPTY;
+        }
+        long[] values = new long[Math.min(this.batch, MAX_INIT_CAPACITY)];
+        int size = 0;
+        while (size < this.batch && this.originIterator.hasNext()) {
+            if (size == values.length) {
+                int capacity = (int) Math.min((long) size << 1, this.batch);
+                values = Arrays.copyOf(values, capacity);
+            }
+            values[size++] = this.originIterator.nextLong();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    protected final boolean fetchFromBatch() {
+        E.checkNotNull(this.batchIterator, "mapper results");
+        while (this.batchIterator.hasNext()) {
+            R result = this.batchIterator.next();
+            if (result != null) {
+                assert this.current == none();
+                this.current = result;
+                return true;
+            }
+        }
+        this.resetBatchIterator();
+        return false;
+    }
+
+    protected final void resetBatchIterator() {
+        if (this.batchIterator == null) {
+            return;
+        }
+        close(this.batchIterator);
+        this.batchIterator = null;
+    }
+}
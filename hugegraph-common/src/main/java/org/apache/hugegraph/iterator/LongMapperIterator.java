@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Iterator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Map the objects of the origin iterator into primitive longs, the null
+ * objects are skipped like MapperIterator skips the null results
+ */
+public class LongMapperIterator<T> extends WrappedLongIterator {
+
+    private final Iterator<T> originIterator;
+    private final ToLongFunction<T> mapperCallback;
+
+    public LongMapperIterator(Iterator<T> origin, ToLongFunction<T> mapper) {
+        this.originIterator = origin;
+        this.mapperCallback = mapper;
+    }
+
+    @Override
+    protected Iterator<T> originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    protected final boolean fetch() {
+        while (this.originIterator.hasNext()) {
+            T next = this.originIterator.next();
+            if (next != null) {
+                this.current = this.mapperCallback.applyAsLong(next);
+                return true;
+            }
+        }
+        return false;
+    }
+}
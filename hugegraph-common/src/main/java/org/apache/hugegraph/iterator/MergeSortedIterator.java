@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * MergeSortedIterator merges the sub iterators sorted by the comparator into
+ * one sorted iterator with a heap of their heads, so only one element of
+ * each sub iterator is buffered. The elements equal to each other are
+ * returned in the order of the sub iterators, or only the first one of them
+ * is returned if `dedup` is true.
+ *
+ * The exhausted sub iterators are closed once they're exhausted, close()
+ * closes the remaining ones, and metadata() returns the list of metadata
+ * of all sub iterators.
+ */
+public class MergeSortedIterator<T> extends WrappedIterator<T> {
+
+    private final List<Iterator<T>> itors;
+    // Whether the sub iterators are exhausted or closed
+    private final boolean[] closed;
+    private final Comparator<? super T> comparator;
+    private final boolean dedup;
+
+    // The sub iterators with their head, null before the first fetch
+    private PriorityQueue<Cursor<T>> heap;
+    // The last returned element, only used if dedup
+    private T last;
+
+    public MergeSortedIterator(List<? extends Iterator<T>> itors,
+                               Comparator<? super T> comparator) {
+        this(itors, comparator, false);
+    }
+
+    public MergeSortedIterator(List<? extends Iterator<T>> itors,
+                               Comparator<? super T> comparator,
+                               boolean dedup) {
+        E.checkNotNull(itors, "itors");
+        E.checkNotNull(comparator, "comparator");
+        this.itors = new ArrayList<>(itors);
+        this.closed = new boolean[this.itors.size()];
+        this.comparator = comparator;
+        this.dedup = dedup;
+        this.heap = null;
+        this.last = none();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.heap != null) {
+            // Release the buffered heads
+            this.heap.clear();
+        }
+        Exception error = null;
+        for (int i = 0; i < this.itors.size(); i++) {
+            Iterator<T> iter = this.itors.get(i);
+            if (this.closed[i] || !(iter instanceof AutoCloseable)) {
+                continue;
+            }
+            this.closed[i] = true;
+            try {
+                ((AutoCloseable) iter).close();
+            } catch (Exception e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public Object metadata(String meta, Object... args) {
+        List<Object> results = new ArrayList<>(this.itors.size());
+        for (Iterator<T> iter : this.itors) {
+            if (!(iter instanceof Metadatable)) {
+                throw new IllegalStateException(
+                          "Original iterator is not Metadatable");
+            }
+            results.add(((Metadatable) iter).metadata(meta, args));
+        }
+        return results;
+    }
+
+    @Override
+    protected Iterator<?> originIterator() {
+        // Can't remove since the heads have been fetched
+        return null;
+    }
+
+    @Override
+    protected boolean fetch() {
+        assert this.current == none();
+        if (this.heap == null) {
+            this.heap = new PriorityQueue<>(Math.max(this.itors.size(), 1),
+                                            this::compare);
+            for (int i = 0; i < this.itors.size(); i++) {
+                Cursor<T> cursor = new Cursor<>(i);
+                if (this.advance(cursor)) {
+                    this.heap.add(cursor);
+                }
+            }
+        }
+
+        Cursor<T> cursor;
+        while ((cursor = this.heap.poll()) != null) {
+            T next = cursor.head;
+            if (this.advance(cursor)) {
+                this.heap.add(cursor);
+            }
+            if (this.dedup) {
+                if (this.last != none() &&
+                    this.comparator.compare(this.last, next) == 0) {
+                    continue;
+                }
+                this.last = next;
+            }
+            this.current = next;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read the next non-null element of the sub iterator as its head
+     * @return false if the sub iterator is exhausted and closed
+     */
+    private boolean advance(Cursor<T> cursor) {
+        if (this.closed[cursor.index]) {
+            return false;
+        }
+        Iterator<T> iter = this.itors.get(cursor.index);
+        while (iter.hasNext()) {
+            T next = iter.next();
+            if (next != null) {
+                cursor.head = next;
+                return true;
+            }
+        }
+        cursor.head = null;
+        this.closed[cursor.index] = true;
+        close(iter);
+        return false;
+    }
+
+    private int compare(Cursor<T> cursor1, Cursor<T> cursor2) {
+        int cmp = this.comparator.compare(cursor1.head, cursor2.head);
+        if (cmp != 0) {
+            return cmp;
+        }
+        // Keep the order of sub iterators for the equal elements
+        return Integer.compare(cursor1.index, cursor2.index);
+    }
+
+    private static final class Cursor<T> {
+
+        private final int index;
+        private T head;
+
+        Cursor(int index) {
+            this.index = index;
+            this.head = null;
+        }
+    }
+}
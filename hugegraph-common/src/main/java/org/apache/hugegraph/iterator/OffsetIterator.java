@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Iterator;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * OffsetIterator skips the first `offset` elements of the origin iterator
+ * before the first hasNext()/next(), the origin skips them without reading
+ * if it's Skippable, otherwise they're read and dropped.
+ */
+public class OffsetIterator<T> extends WrappedIterator<T> {
+
+    private final Iterator<T> originIterator;
+    private final long offset;
+    private boolean skipped;
+
+    public OffsetIterator(Iterator<T> origin, long offset) {
+        E.checkArgument(offset >= 0L,
+                        "Expect offset >= 0, but got %s", offset);
+        this.originIterator = origin;
+        this.offset = offset;
+        this.skipped = false;
+    }
+
+    @Override
+    protected Iterator<T> originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    protected final boolean fetch() {
+        if (!this.skipped) {
+            Skippable.skip(this.originIterator, this.offset);
+            this.skipped = true;
+        }
+        while (this.originIterator.hasNext()) {
+            T next = this.originIterator.next();
+            if (next != null) {
+                assert this.current == none();
+                this.current = next;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.hugegraph.util.E;
+import org.apache.hugegraph.util.ExceptionUtil;
+
+/**
+ * PrefetchBatchMapperIterator is like BatchMapperIterator, but it maps at
+ * most `prefetch` batches ahead on the executor while the results of the
+ * current batch are consumed, so the mapper I/O overlaps with the consumer.
+ *
+ * The origin iterator is still read in the consumer thread, only the mapper
+ * is called in the executor. If `ordered` is false, the results of a batch
+ * are returned once it's mapped, regardless of the order of batches.
+ * The result iterators of pending batches are closed by close().
+ *
+ * The executor must not discard the batches silently: a batch cancelled or
+ * dropped by shutdownNow() is reported as an error once it's consumed, but
+ * a batch dropped by a discard policy can't be detected.
+ */
+public class PrefetchBatchMapperIterator<T, R> extends WrappedIterator<R> {
+
+    // The interval to check whether the waited batch has been dropped
+    private static final long CHECK_INTERVAL = 100L;
+
+    private final int batch;
+    private final int prefetch;
+    private final boolean ordered;
+    private final Iterator<T> originIterator;
+    private final Function<List<T>, Iterator<R>> mapperCallback;
+    private final ExecutorService executor;
+
+    // The batches submitted but not consumed, in the order of submitting
+    private final Deque<Batch> pendingBatches;
+    // The batches mapped, in the order of completing, used if not ordered
+    private final BlockingQueue<Batch> mappedBatches;
+    private Iterator<R> batchIterator;
+    private volatile boolean closed;
+
+    public PrefetchBatchMapperIterator(int batch, Iterator<T> origin,
+                                       Function<List<T>, Iterator<R>> mapper,
+                                       ExecutorService executor,
+                                       int prefetch, boolean ordered) {
+        E.checkArgument(batch > 0, "Expect batch > 0, but got %s", batch);
+        E.checkArgument(prefetch > 0,
+                        "Expect prefetch > 0, but got %s", prefetch);
+        E.checkNotNull(executor, "executor");
+        this.batch = batch;
+        this.prefetch = prefetch;
+        this.ordered = ordered;
+        this.originIterator = origin;
+        this.mapperCallback = mapper;
+        this.executor = executor;
+        this.pendingBatches = new ArrayDeque<>(prefetch);
+        this.mappedBatches = ordered ? null : new LinkedBlockingQueue<>();
+        this.batchIterator = null;
+        this.closed = false;
+    }
+
+    @Override
+    protected Iterator<T> originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    protected final boolean fetch() {
+        if (this.closed) {
+            return false;
+        }
+        if (this.batchIterator != null && this.fetchFromBatch()) {
+            return true;
+        }
+
+        assert this.batchIterator == null;
+        while (true) {
+            this.submitBatches();
+            Batch batch = this.nextMappedBatch();
+            if (batch == null) {
+                return false;
+            }
+            this.batchIterator = batch.results();
+            if (this.batchIterator != null && this.fetchFromBatch()) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.resetBatchIterator();
+            for (Batch batch : this.pendingBatches) {
+                batch.close();
+            }
+            this.pendingBatches.clear();
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * @return The count of batches submitted but not consumed
+     */
+    public int pendingBatches() {
+        return this.pendingBatches.size();
+    }
+
+    private void submitBatches() {
+        while (this.pendingBatches.size() < this.prefetch &&
+               this.originIterator.hasNext()) {
+            List<T> list = new ArrayList<>(this.batch);
+            for (int i = 0; i < this.batch && this.originIterator.hasNext();
+                 i++) {
+                list.add(this.originIterator.next());
+            }
+            Batch batch = new Batch(list);
+            batch.future = this.executor.submit(batch);
+            this.pendingBatches.addLast(batch);
+        }
+    }
+
+    private Batch nextMappedBatch() {
+        if (this.pendingBatches.isEmpty()) {
+            return null;
+        }
+        if (this.ordered) {
+            return this.pendingBatches.removeFirst();
+        }
+        Batch batch;
+        try {
+            while (true) {
+                batch = this.mappedBatches.poll(CHECK_INTERVAL,
+                                                TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    break;
+                }
+                for (Batch pending : this.pendingBatches) {
+                    pending.checkDropped();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtil.transToRuntimeException(e);
+        }
+        boolean removed = this.pendingBatches.remove(batch);
+        assert removed;
+        return batch;
+    }
+
+    private boolean fetchFromBatch() {
+        while (this.batchIterator.hasNext()) {
+            R result = this.batchIterator.next();
+            if (result != null) {
+                assert this.current == none();
+                this.current = result;
+                return true;
+            }
+        }
+        this.resetBatchIterator();
+        return false;
+    }
+
+    private void resetBatchIterator() {
+        if (this.batchIterator == null) {
+            return;
+        }
+        close(this.batchIterator);
+        this.batchIterator = null;
+    }
+
+    private final class Batch implements Runnable {
+
+        private final List<T> elems;
+        private Future<?> future;
+
+        // The fields below are guarded by this batch
+        private Iterator<R> results;
+        private Throwable error;
+        private boolean mapped;
+        private boolean closed;
+
+        Batch(List<T> elems) {
+            this.elems = elems;
+        }
+
+        @Override
+        public void run() {
+            Iterator<R> results = null;
+            Throwable error = null;
+            try {
+                results = PrefetchBatchMapperIterator.this
+                          .mapperCallback.apply(this.elems);
+            } catch (Throwable e) {
+                error = e;
+            }
+
+            boolean discarded;
+            synchronized (this) {
+                discarded = this.closed;
+                if (!discarded) {
+                    this.results = results;
+                    this.error = error;
+                }
+                this.mapped = true;
+                this.notifyAll();
+            }
+            if (discarded) {
+                // The iterator has been closed while mapping
+                WrappedIterator.close(results);
+            } else if (!PrefetchBatchMapperIterator.this.ordered) {
+                PrefetchBatchMapperIterator.this.mappedBatches.add(this);
+            }
+        }
+
+        public synchronized Iterator<R> results() {
+            while (!this.mapped) {
+                try {
+                    this.wait(CHECK_INTERVAL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw ExceptionUtil.transToRuntimeException(e);
+                }
+                this.checkDropped();
+            }
+            if (this.error != null) {
+                throw ExceptionUtil.transToRuntimeException(this.error);
+            }
+            Iterator<R> results = this.results;
+            this.results = null;
+            return results;
+        }
+
+        /**
+         * Check the batch will still be mapped, it won't if the task is
+         * cancelled or the executor has terminated without running it.
+         * The executor can't be terminated while the task is blocked on
+         * setting mapped under the lock held here.
+         */
+        public synchronized void checkDropped() {
+            if (this.mapped) {
+                return;
+            }
+            ExecutorService executor = PrefetchBatchMapperIterator.this
+                                       .executor;
+            if (this.future.isCancelled() || executor.isTerminated()) {
+                // Discard the results if it's mapped later
+                this.closed = true;
+                throw new IllegalStateException(
+                          "The batch is cancelled or dropped by the executor");
+            }
+        }
+
+        public void close() {
+            Iterator<R> results;
+            synchronized (this) {
+                this.closed = true;
+                results = this.results;
+                this.results = null;
+            }
+            // Don't run it if not started yet
+            this.future.cancel(false);
+            WrappedIterator.close(results);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Iterator;
+
+/**
+ * The capability of an iterator to skip elements without reading them, like
+ * a backend iterator which can skip by the offset of the query.
+ *
+ * An iterator supports it if it implements Skippable, or its metadata of
+ * METADATA is a Skippable. The wrapped iterators don't forward the
+ * metadata of METADATA to their origin iterators, since the elements
+ * skipped in the origin may be different from the elements they return.
+ */
+public interface Skippable {
+
+    String METADATA = "skippable";
+
+    /**
+     * Skip the next n elements
+     * @param n The count of elements to skip
+     * @return The count of elements skipped, which is less than n only if
+     *         there are no more elements
+     */
+    long skip(long n);
+
+    /**
+     * @return The Skippable of the iterator, or null if not supported
+     */
+    static Skippable of(Iterator<?> iterator) {
+        if (iterator instanceof Skippable) {
+            return (Skippable) iterator;
+        }
+        if (iterator instanceof Metadatable) {
+            Object skippable;
+            try {
+                skippable = ((Metadatable) iterator).metadata(METADATA);
+            } catch (IllegalStateException | UnsupportedOperationException e) {
+                // The metadata is not supported
+                return null;
+            }
+            if (skippable instanceof Skippable) {
+                return (Skippable) skippable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skip the next n elements of the iterator, by the Skippable if
+     * supported, otherwise by reading them
+     * @return The count of elements skipped
+     */
+    static long skip(Iterator<?> iterator, long n) {
+        Skippable skippable = of(iterator);
+        long skipped = 0L;
+        if (skippable != null && n > 0L) {
+            skipped = skippable.skip(n);
+        }
+        while (skipped < n && iterator.hasNext()) {
+            iterator.next();
+            skipped++;
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * TopKIterator returns the first K elements of the origin iterator in the
+ * order of the comparator, like sorting all the elements then limiting K,
+ * but only K elements are kept in a bounded heap while the origin iterator
+ * is consumed. The equal elements are returned in the order of the origin
+ * iterator. The origin iterator is consumed at the first hasNext()/next().
+ */
+public class TopKIterator<T> extends WrappedIterator<T> {
+
+    private final Iterator<T> originIterator;
+    private final Comparator<? super T> comparator;
+    private final int limit;
+
+    /*
+     * A max-heap of the kept elements, the root is the worst one, and the
+     * elements are sorted in place after the origin is consumed. The seqs
+     * are the positions of elements in the origin to keep stable.
+     */
+    private Object[] heap;
+    private long[] seqs;
+    private int size;
+    // The index of next element to return, -1 if not sorted yet
+    private int cursor;
+
+    public TopKIterator(Iterator<T> origin, int limit,
+                        Comparator<? super T> comparator) {
+        E.checkArgument(limit > 0, "Expect limit > 0, but got %s", limit);
+        E.checkNotNull(comparator, "comparator");
+        this.originIterator = origin;
+        this.comparator = comparator;
+        this.limit = limit;
+        this.heap = null;
+        this.seqs = null;
+        this.size = 0;
+        this.cursor = -1;
+    }
+
+    @Override
+    protected Iterator<T> originIterator() {
+        return this.originIterator;
+    }
+
+    @Override
+    protected final boolean fetch() {
+        assert this.current == none();
+        if (this.cursor < 0) {
+            this.consumeOrigin();
+            this.sort();
+            this.cursor = 0;
+        }
+        if (this.cursor >= this.size) {
+            // Release the elements
+            this.heap = null;
+            return false;
+        }
+        this.current = this.elem(this.cursor);
+        this.heap[this.cursor++] = null;
+        return true;
+    }
+
+    private void consumeOrigin() {
+        // Grow on demand since the limit may be much larger than the origin
+        int capacity = Math.min(this.limit, 16);
+        this.heap = new Object[capacity];
+        this.seqs = new long[capacity];
+        long seq = 0L;
+        while (this.originIterator.hasNext()) {
+            T next = this.originIterator.next();
+            if (next == null) {
+                continue;
+            }
+            if (this.size < this.limit) {
+                if (this.size == this.heap.length) {
+                    this.grow();
+                }
+                this.heap[this.size] = next;
+                this.seqs[this.size] = seq;
+                this.siftUp(this.size++);
+            } else if (this.comparator.compare(next, this.elem(0)) < 0) {
+                // Better than the worst kept one (earlier if equal)
+                this.heap[0] = next;
+                this.seqs[0] = seq;
+                this.siftDown(0, this.size);
+            }
+            seq++;
+        }
+    }
+
+    /**
+     * Heap sort in place, pop the worst one to the end each time
+     */
+    private void sort() {
+        for (int end = this.size - 1; end > 0; end--) {
+            this.swap(0, end);
+            this.siftDown(0, end);
+        }
+        this.seqs = null;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min((long) this.heap.length << 1,
+                                      this.limit);
+        this.heap = Arrays.copyOf(this.heap, capacity);
+        this.seqs = Arrays.copyOf(this.seqs, capacity);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.compare(index, parent) <= 0) {
+                break;
+            }
+            this.swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int size) {
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && this.compare(child + 1, child) > 0) {
+                child++;
+            }
+            if (this.compare(index, child) >= 0) {
+                break;
+            }
+            this.swap(index, child);
+            index = child;
+        }
+    }
+
+    /**
+     * Compare by the comparator then the position in the origin, a later
+     * element is greater (worse) than the equal earlier one
+     */
+    private int compare(int i, int j) {
+        int cmp = this.comparator.compare(this.elem(i), this.elem(j));
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Long.compare(this.seqs[i], this.seqs[j]);
+    }
+
+    private void swap(int i, int j) {
+        Object elem = this.heap[i];
+        this.heap[i] = this.heap[j];
+        this.heap[j] = elem;
+        long seq = this.seqs[i];
+        this.seqs[i] = this.seqs[j];
+        this.seqs[j] = seq;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elem(int index) {
+        return (T) this.heap[index];
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.iterator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public abstract class WrappedIntIterator implements IntCIter {
+
+    // The fetched value, only valid if fetched is true
+    protected int current;
+    private boolean fetched;
+
+    public WrappedIntIterator() {
+        this.current = 0;
+        this.fetched = false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.fetched) {
+            return true;
+        }
+        this.fetched = this.fetch();
+        return this.fetched;
+    }
+
+    @Override
+    public int nextInt() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        this.fetched = false;
+        return this.current;
+    }
+
+    @Override
+    public void remove() {
+        Iterator<?> iterator = this.originIterator();
+        if (iterator == null) {
+            throw new NoSuchElementException(
+                      "The origin iterator can't be null for removing");
+        }
+        iterator.remove();
+    }
+
+    @Override
+    public void close() throws Exception {
+        Iterator<?> iterator = this.originIterator();
+        if (iterator instanceof AutoCloseable) {
+            ((AutoCloseable) iterator).close();
+        }
+    }
+
+    @Override
+    public Object metadata(String meta, Object... args) {
+        if (Skippable.METADATA.equals(meta)) {
+            // Can't skip by the origin, see Skippable
+            return null;
+        }
+        Iterator<?> iterator = this.originIterator();
+        if (iterator instanceof Metadatable) {
+            return ((Metadatable) iterator).metadata(meta, args);
+        }
+        throw new IllegalStateException("Original iterator is not Metadatable");
+    }
+
+    protected abstract Iterator<?> originIterator();
+
+    /**
+     * Fetch the next value into `current`
+     * @return true if fetched, false if there are no more values
+     */
+    protected abstract boolean fetch();
+}
@@ -71,6 +71,10 @@ public abstract class WrappedIterator<R> implements CIter<R> {
 
     @Override
     public Object metadata(String meta, Object... args) {
+        if (Skippable.METADATA.equals(meta)) {
+            // Can't skip by the origin, see Skippable
+            return this instanceof Skippable ? this : null;
+        }
         Iterator<?> iterator = this.originIterator();
         if (iterator instanceof Metadatable) {
             return ((Metadatable) iterator).metadata(meta, args);
@@ -78,6 +82,18 @@ public abstract class WrappedIterator<R> implements CIter<R> {
         throw new IllegalStateException("Original iterator is not Metadatable");
     }
 
+    /**
+     * Drop the fetched element if any, used to skip elements
+     * @return true if an element is dropped
+     */
+    protected final boolean dropCurrent() {
+        if (this.current == none()) {
+            return false;
+        }
+        this.current = none();
+        return true;
+    }
+
     @SuppressWarnings("unchecked")
     protected static final <R> R none() {
         return (R) NONE;
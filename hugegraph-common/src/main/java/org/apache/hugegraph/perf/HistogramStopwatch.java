@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.perf;
+
+import java.util.List;
+
+/**
+ * HistogramStopwatch records the same statistics as NormalStopwatch, and
+ * also records each cost into a LatencyHistogram, so the percentiles of
+ * the cost can be output by toJson().
+ */
+public final class HistogramStopwatch implements Stopwatch {
+
+    private static final double[] PERCENTILES = {50.0D, 90.0D, 99.0D, 99.9D};
+    private static final String[] PERCENTILE_NAMES = {
+            "p50_cost", "p90_cost", "p99_cost", "p999_cost"
+    };
+
+    private final NormalStopwatch watch;
+    private final LatencyHistogram histogram;
+
+    public HistogramStopwatch(String name, Stopwatch parent) {
+        this(name, parent.id());
+        parent.child(name, this);
+    }
+
+    public HistogramStopwatch(String name, Path parent) {
+        this(new NormalStopwatch(name, parent), new LatencyHistogram());
+    }
+
+    private HistogramStopwatch(NormalStopwatch watch,
+                               LatencyHistogram histogram) {
+        this.watch = watch;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public Path id() {
+        return this.watch.id();
+    }
+
+    @Override
+    public String name() {
+        return this.watch.name();
+    }
+
+    @Override
+    public Path parent() {
+        return this.watch.parent();
+    }
+
+    @Override
+    public void lastStartTime(long startTime) {
+        this.watch.lastStartTime(startTime);
+    }
+
+    @Override
+    public void startTime(long startTime) {
+        this.watch.startTime(startTime);
+    }
+
+    @Override
+    public void endTime(long startTime) {
+        long totalCost = this.watch.totalCost();
+        this.watch.endTime(startTime);
+        this.histogram.record(this.watch.totalCost() - totalCost);
+    }
+
+    @Override
+    public long times() {
+        return this.watch.times();
+    }
+
+    @Override
+    public long totalTimes() {
+        return this.watch.totalTimes();
+    }
+
+    @Override
+    public long totalChildrenTimes() {
+        return this.watch.totalChildrenTimes();
+    }
+
+    @Override
+    public long totalCost() {
+        return this.watch.totalCost();
+    }
+
+    @Override
+    public void totalCost(long totalCost) {
+        this.watch.totalCost(totalCost);
+    }
+
+    @Override
+    public long minCost() {
+        return this.watch.minCost();
+    }
+
+    @Override
+    public long maxCost() {
+        return this.watch.maxCost();
+    }
+
+    @Override
+    public long totalWasted() {
+        return this.watch.totalWasted();
+    }
+
+    @Override
+    public long totalSelfWasted() {
+        return this.watch.totalSelfWasted();
+    }
+
+    @Override
+    public long totalChildrenWasted() {
+        return this.watch.totalChildrenWasted();
+    }
+
+    @Override
+    public long sampling() {
+        return this.watch.sampling();
+    }
+
+    @Override
+    public void sampling(long sampling) {
+        this.watch.sampling(sampling);
+    }
+
+    /**
+     * @param percentile The percentile in [0, 100]
+     * @return The cost at the percentile, with the precision of
+     *         LatencyHistogram
+     */
+    public long percentileCost(double percentile) {
+        return this.histogram.percentile(percentile);
+    }
+
+    public LatencyHistogram histogram() {
+        return this.histogram;
+    }
+
+    @Override
+    public void fillChildrenTotal(List<Stopwatch> children) {
+        this.watch.fillChildrenTotal(children);
+    }
+
+    @Override
+    public void merge(Stopwatch other) {
+        this.watch.merge(other);
+        if (other instanceof HistogramStopwatch) {
+            this.histogram.merge(((HistogramStopwatch) other).histogram);
+        }
+    }
+
+    @Override
+    public HistogramStopwatch copy() {
+        return new HistogramStopwatch((NormalStopwatch) this.watch.copy(),
+                                      this.histogram.copy());
+    }
+
+    @Override
+    public Stopwatch child(String name) {
+        return this.watch.child(name);
+    }
+
+    @Override
+    public Stopwatch child(String name, Stopwatch watch) {
+        return this.watch.child(name, watch);
+    }
+
+    @Override
+    public boolean empty() {
+        return this.watch.empty();
+    }
+
+    @Override
+    public void clear() {
+        this.watch.clear();
+        this.histogram.clear();
+    }
+
+    @Override
+    public String toJson() {
+        String json = this.watch.toJson();
+        StringBuilder sb = new StringBuilder(json.length() + 100);
+        // Append the percentiles before the last '}'
+        sb.append(json, 0, json.length() - 1);
+        appendPercentiles(sb, this.histogram);
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        String str = this.watch.toString();
+        return String.format("%s,p50Cost:%s,p99Cost:%s}",
+                             str.substring(0, str.length() - 1),
+                             this.histogram.percentile(50.0D),
+                             this.histogram.percentile(99.0D));
+    }
+
+    static void appendPercentiles(StringBuilder sb,
+                                  LatencyHistogram histogram) {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            sb.append(",\"").append(PERCENTILE_NAMES[i]).append("\":");
+            sb.append(histogram.percentile(PERCENTILES[i]));
+        }
+    }
+}
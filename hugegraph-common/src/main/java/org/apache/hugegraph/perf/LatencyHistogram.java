@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.perf;
+
+import org.apache.hugegraph.util.E;
+
+/**
+ * A log-linear histogram of non-negative values like HdrHistogram: the
+ * values less than 2^SUB_BITS are counted exactly, and the larger values
+ * are counted in 2^SUB_BITS sub-buckets for each power of 2, so the
+ * relative error of a value is at most 1/2^SUB_BITS.
+ *
+ * The buckets are allocated lazily by groups of 2^SUB_BITS (256 bytes),
+ * only the groups between the min and max recorded values are allocated,
+ * e.g. about 5KB for the values in [1us, 1s] of nanoseconds and about 15KB
+ * at most. Recording a value allocates memory only if it's out of the
+ * allocated range. It's not thread-safe, like the stopwatches.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // The highest bit of a non-negative long value is 62
+    private static final int BUCKETS = (62 - SUB_BITS + 2) * SUB_COUNT;
+
+    private static final long[] EMPTY = new long[0];
+
+    // The counts of buckets in [offset, offset + counts.length)
+    private long[] counts;
+    private int offset;
+    private long count;
+    private long min;
+    private long max;
+
+    public LatencyHistogram() {
+        this.counts = EMPTY;
+        this.offset = 0;
+        this.count = 0L;
+        this.min = Long.MAX_VALUE;
+        this.max = 0L;
+    }
+
+    private LatencyHistogram(LatencyHistogram other) {
+        this.counts = other.counts.clone();
+        this.offset = other.offset;
+        this.count = other.count;
+        this.min = other.min;
+        this.max = other.max;
+    }
+
+    public void record(long value) {
+        if (value < 0L) {
+            // The clock may go back, ignore it
+            value = 0L;
+        }
+        int index = index(value);
+        int i = index - this.offset;
+        if (i < 0 || i >= this.counts.length) {
+            this.allocate(index, index);
+            i = index - this.offset;
+        }
+        this.counts[i]++;
+        this.count++;
+        if (this.min > value) {
+            this.min = value;
+        }
+        if (this.max < value) {
+            this.max = value;
+        }
+    }
+
+    public long count() {
+        return this.count;
+    }
+
+    public long min() {
+        return this.count == 0L ? 0L : this.min;
+    }
+
+    public long max() {
+        return this.max;
+    }
+
+    /**
+     * @param percentile The percentile in [0, 100]
+     * @return The highest value counted in the same bucket as the value at
+     *         the percentile, but not greater than max(), 0 if empty
+     */
+    public long percentile(double percentile) {
+        E.checkArgument(percentile >= 0.0D && percentile <= 100.0D,
+                        "The percentile must be in [0, 100], but got %s",
+                        percentile);
+        if (this.count == 0L) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0D * this.count);
+        rank = Math.max(rank, 1L);
+        long seen = 0L;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(this.offset + i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    public void merge(LatencyHistogram other) {
+        if (other.counts.length > 0) {
+            this.allocate(other.offset,
+                          other.offset + other.counts.length - 1);
+            int base = other.offset - this.offset;
+            for (int i = 0; i < other.counts.length; i++) {
+                this.counts[base + i] += other.counts[i];
+            }
+        }
+        this.count += other.count;
+        if (this.min > other.min) {
+            this.min = other.min;
+        }
+        if (this.max < other.max) {
+            this.max = other.max;
+        }
+    }
+
+    /**
+     * Subtract the counts of an earlier copy of this histogram, then this
+     * histogram only counts the values recorded after the copy, and the
+     * min/max is narrowed to the bounds of the non-empty buckets
+     */
+    public void subtract(LatencyHistogram earlier) {
+        long min = Long.MAX_VALUE;
+        long max = 0L;
+        this.count = 0L;
+        int base = this.offset - earlier.offset;
+        for (int i = 0; i < this.counts.length; i++) {
+            int j = base + i;
+            long last = j >= 0 && j < earlier.counts.length ?
+                        earlier.counts[j] : 0L;
+            // The counts never decrease unless cleared, ignore it if cleared
+            long count = Math.max(this.counts[i] - last, 0L);
+            this.counts[i] = count;
+            if (count > 0L) {
+                this.count += count;
+                min = Math.min(min, lowestValue(this.offset + i));
+                max = highestValue(this.offset + i);
+            }
+        }
+        this.min = Math.max(this.min, min);
+        this.max = Math.min(this.max, max);
+    }
+
+    public LatencyHistogram copy() {
+        return new LatencyHistogram(this);
+    }
+
+    public void clear() {
+        // Release the buckets, they're allocated again once recording
+        this.counts = EMPTY;
+        this.offset = 0;
+        this.count = 0L;
+        this.min = Long.MAX_VALUE;
+        this.max = 0L;
+    }
+
+    /**
+     * @return The count of buckets allocated now
+     */
+    public int buckets() {
+        return this.counts.length;
+    }
+
+    /**
+     * Extend the allocated buckets by groups to cover the buckets in range
+     * [from, to], the counts are kept
+     */
+    private void allocate(int from, int to) {
+        int low = from & ~(SUB_COUNT - 1);
+        int high = (to | (SUB_COUNT - 1)) + 1;
+        assert high <= BUCKETS;
+        if (this.counts.length == 0) {
+            this.counts = new long[high - low];
+            this.offset = low;
+            return;
+        }
+        int end = this.offset + this.counts.length;
+        if (low >= this.offset && high <= end) {
+            return;
+        }
+        low = Math.min(low, this.offset);
+        high = Math.max(high, end);
+        long[] counts = new long[high - low];
+        System.arraycopy(this.counts, 0, counts, this.offset - low,
+                         this.counts.length);
+        this.counts = counts;
+        this.offset = low;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_COUNT;
+        return ((shift + 1) << SUB_BITS) + sub;
+    }
+
+    private static long lowestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        return (long) (SUB_COUNT + (index & (SUB_COUNT - 1))) << shift;
+    }
+
+    private static long highestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        return lowestValue(index) + (1L << shift) - 1L;
+    }
+}
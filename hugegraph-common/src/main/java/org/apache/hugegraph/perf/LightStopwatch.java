@@ -20,6 +20,7 @@ package org.apache.hugegraph.perf;
 import java.util.List;
 
 import org.apache.hugegraph.perf.PerfUtil.FastMap;
+import org.apache.hugegraph.util.E;
 
 public final class LightStopwatch implements Stopwatch {
 
@@ -28,6 +29,7 @@ public final class LightStopwatch implements Stopwatch {
     private long times = 0L;
     private long totalCost = 0L;
     private long totalChildrenTimes = -1L;
+    private long sampling = 1L;
 
     private final String name;
     private final Path parent;
@@ -130,12 +132,32 @@ public final class LightStopwatch implements Stopwatch {
         return -1L;
     }
 
+    @Override
+    public long sampling() {
+        return this.sampling;
+    }
+
+    @Override
+    public void sampling(long sampling) {
+        this.sampling = sampling;
+    }
+
     @Override
     public void fillChildrenTotal(List<Stopwatch> children) {
         // Fill total times of children
         this.totalChildrenTimes = children.stream().mapToLong(Stopwatch::totalTimes).sum();
     }
 
+    @Override
+    public void merge(Stopwatch other) {
+        E.checkArgument(this.id.equals(other.id()),
+                        "Can't merge stopwatch '%s' into '%s'",
+                        other.id(), this.id);
+        this.times += other.times();
+        this.totalCost += other.totalCost();
+        this.sampling = Math.max(this.sampling, other.sampling());
+    }
+
     @Override
     public LightStopwatch copy() {
         try {
@@ -170,6 +192,7 @@ public final class LightStopwatch implements Stopwatch {
         this.times = 0L;
         this.totalCost = 0L;
         this.totalChildrenTimes = -1L;
+        this.sampling = 1L;
 
         this.children.clear();
     }
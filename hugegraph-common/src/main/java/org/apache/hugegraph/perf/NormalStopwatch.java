@@ -20,6 +20,7 @@ package org.apache.hugegraph.perf;
 import java.util.List;
 import java.util.function.BiFunction;
 
+import org.apache.hugegraph.util.E;
 import org.apache.hugegraph.util.Log;
 import org.slf4j.Logger;
 
@@ -43,6 +44,7 @@ public final class NormalStopwatch implements Stopwatch {
     private long totalSelfWasted = 0L;
     private long totalChildrenWasted = -1L;
     private long totalChildrenTimes = -1L;
+    private long sampling = 1L;
 
     private final String name;
     private final Path parent;
@@ -179,6 +181,16 @@ public final class NormalStopwatch implements Stopwatch {
         return this.totalChildrenWasted;
     }
 
+    @Override
+    public long sampling() {
+        return this.sampling;
+    }
+
+    @Override
+    public void sampling(long sampling) {
+        this.sampling = sampling;
+    }
+
     @Override
     public void fillChildrenTotal(List<Stopwatch> children) {
         // Fill total wasted cost of children
@@ -187,6 +199,23 @@ public final class NormalStopwatch implements Stopwatch {
         this.totalChildrenTimes = children.stream().mapToLong(Stopwatch::totalTimes).sum();
     }
 
+    @Override
+    public void merge(Stopwatch other) {
+        E.checkArgument(this.id.equals(other.id()),
+                        "Can't merge stopwatch '%s' into '%s'",
+                        other.id(), this.id);
+        this.times += other.times();
+        this.totalCost += other.totalCost();
+        this.sampling = Math.max(this.sampling, other.sampling());
+        this.totalSelfWasted += other.totalSelfWasted();
+        if (this.minCost > other.minCost()) {
+            this.minCost = other.minCost();
+        }
+        if (this.maxCost < other.maxCost()) {
+            this.maxCost = other.maxCost();
+        }
+    }
+
     @Override
     public Stopwatch copy() {
         try {
@@ -226,6 +255,7 @@ public final class NormalStopwatch implements Stopwatch {
         this.totalSelfWasted = 0L;
         this.totalChildrenWasted = -1L;
         this.totalChildrenTimes = -1L;
+        this.sampling = 1L;
 
         this.children.clear();
     }
@@ -274,11 +304,11 @@ public final class NormalStopwatch implements Stopwatch {
 
         String startName = "each_start_cost";
         eachStartWastedLost = testEachCost.apply(startName, () -> {
-            Stopwatch watch = PerfUtil.instance().start(startName);
+            Stopwatch watch = PerfUtil.instance().start(startName, 1);
             PerfUtil.instance().end(startName);
             for (int i = 0; i < times; i++) {
                 // Test call start()
-                PerfUtil.instance().start(startName);
+                PerfUtil.instance().start(startName, 1);
                 // Mock end()
                 watch.lastStartTime(-1L);
                 callStack.pop();
@@ -287,7 +317,7 @@ public final class NormalStopwatch implements Stopwatch {
 
         String endName = "each_end_cost";
         eachEndWastedLost = testEachCost.apply(endName, () -> {
-            Stopwatch watch = PerfUtil.instance().start(endName);
+            Stopwatch watch = PerfUtil.instance().start(endName, 1);
             PerfUtil.instance().end(endName);
             for (int i = 0; i < times; i++) {
                 // Mock start()
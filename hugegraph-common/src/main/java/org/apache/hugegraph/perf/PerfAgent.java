@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.perf;
+
+import java.io.ByteArrayInputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hugegraph.perf.PerfUtil.Watched;
+import org.apache.hugegraph.util.Log;
+import org.slf4j.Logger;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.LoaderClassPath;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.AttributeInfo;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.IntegerMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
+
+/**
+ * PerfAgent is a java agent which injects the start()/end() calls of
+ * PerfUtil into the methods annotated by @Watched, like profileClass(),
+ * but by a ClassFileTransformer instead of defining the classes by
+ * Javassist, so it works for the classes already loaded.
+ *
+ * It can be started with the JVM by:
+ *   -javaagent:hugegraph-common.jar[=package1,package2]
+ * or be attached to a running JVM with the same arguments, in which case
+ * the loaded classes with @Watched methods in the packages are
+ * retransformed. All the packages are watched if no package is specified.
+ * The dependencies of hugegraph-common like javassist are expected to be in
+ * the classpath of the application.
+ */
+public final class PerfAgent {
+
+    private static final Logger LOG = Log.logger(PerfAgent.class);
+
+    private static final String PERF_PACKAGE = "org.apache.hugegraph.perf.";
+    // The classes of JDK never have @Watched methods
+    private static final String[] JDK_PACKAGES = {
+            "java.", "javax.", "sun.", "jdk."
+    };
+    /*
+     * Match the annotation by name, since the application may load its own
+     * copy of PerfUtil by a class loader other than the agent's
+     */
+    private static final String WATCHED_NAME = Watched.class.getName();
+
+    private static WatchedTransformer TRANSFORMER = null;
+
+    public static void premain(String args, Instrumentation inst) {
+        install(args, inst, false);
+    }
+
+    public static void agentmain(String args, Instrumentation inst) {
+        install(args, inst, true);
+    }
+
+    public static synchronized boolean installed() {
+        return TRANSFORMER != null;
+    }
+
+    /**
+     * Create a transformer which profiles the classes in the packages,
+     * it can be used to profile classes by a custom class loader
+     * @param packages The package prefixes, all packages if it's empty
+     * @return The transformer returns null for the classes not profiled
+     */
+    public static ClassFileTransformer newTransformer(String... packages) {
+        return new WatchedTransformer(Arrays.asList(packages));
+    }
+
+    private static synchronized void install(String args, Instrumentation inst,
+                                             boolean retransform) {
+        List<String> packages = parsePackages(args);
+        if (TRANSFORMER == null) {
+            TRANSFORMER = new WatchedTransformer(packages);
+            inst.addTransformer(TRANSFORMER,
+                                inst.isRetransformClassesSupported());
+        } else {
+            // Attached again, watch the packages of both
+            TRANSFORMER.addPackages(packages);
+        }
+        LOG.info("Installed perf agent for packages {}",
+                 packages.isEmpty() ? "all" : packages);
+
+        if (retransform) {
+            retransformLoadedClasses(inst, packages);
+        }
+    }
+
+    private static void retransformLoadedClasses(Instrumentation inst,
+                                                 List<String> packages) {
+        if (!inst.isRetransformClassesSupported()) {
+            LOG.warn("Can't profile the loaded classes since the JVM " +
+                     "doesn't support retransforming classes");
+            return;
+        }
+        int count = 0;
+        for (Class<?> clazz : inst.getAllLoadedClasses()) {
+            if (!inst.isModifiableClass(clazz) ||
+                !matches(packages, clazz.getName()) ||
+                !hasWatchedMethod(clazz)) {
+                continue;
+            }
+            try {
+                inst.retransformClasses(clazz);
+                count++;
+            } catch (Throwable e) {
+                LOG.warn("Failed to profile loaded class '{}'",
+                         clazz.getName(), e);
+            }
+        }
+        LOG.info("Profiled {} loaded classes", count);
+    }
+
+    private static List<String> parsePackages(String args) {
+        if (args == null || args.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> packages = new ArrayList<>();
+        for (String pkg : args.split(",")) {
+            pkg = pkg.trim();
+            if (!pkg.isEmpty()) {
+                packages.add(pkg);
+            }
+        }
+        return packages;
+    }
+
+    private static boolean matches(List<String> packages, String className) {
+        if (className.startsWith(PERF_PACKAGE)) {
+            // Don't profile the profiler itself
+            return false;
+        }
+        for (String pkg : JDK_PACKAGES) {
+            if (className.startsWith(pkg)) {
+                return false;
+            }
+        }
+        if (packages.isEmpty()) {
+            return true;
+        }
+        for (String pkg : packages) {
+            if (className.startsWith(pkg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasWatchedMethod(Class<?> clazz) {
+        try {
+            for (Method method : clazz.getDeclaredMethods()) {
+                for (java.lang.annotation.Annotation annotation :
+                     method.getDeclaredAnnotations()) {
+                    if (annotation.annotationType().getName()
+                                  .equals(WATCHED_NAME)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (Throwable ignored) {
+            // The dependent classes of the methods may be missing
+        }
+        return false;
+    }
+
+    private static final class WatchedTransformer
+                         implements ClassFileTransformer {
+
+        // The descriptor of @Watched in the constant pool of the classes
+        private static final byte[] WATCHED =
+                ("L" + WATCHED_NAME.replace('.', '/') + ";")
+                .getBytes(StandardCharsets.UTF_8);
+        // The bad character shifts of WATCHED for Horspool search
+        private static final int[] WATCHED_SHIFTS = shifts(WATCHED);
+
+        // The package prefixes to profile, all packages if empty
+        private volatile List<String> packages;
+
+        WatchedTransformer(List<String> packages) {
+            this.packages = packages;
+        }
+
+        synchronized void addPackages(List<String> packages) {
+            if (this.packages.isEmpty() || packages.isEmpty()) {
+                this.packages = Collections.emptyList();
+                return;
+            }
+            Set<String> all = new LinkedHashSet<>(this.packages);
+            all.addAll(packages);
+            this.packages = new ArrayList<>(all);
+        }
+
+        @Override
+        public byte[] transform(ClassLoader loader, String className,
+                                Class<?> classBeingRedefined,
+                                ProtectionDomain domain, byte[] classfile) {
+            if (className == null) {
+                return null;
+            }
+            String name = className.replace('/', '.');
+            // Check the descriptor to avoid parsing the classes not watched
+            if (!matches(this.packages, name) || !containsWatched(classfile)) {
+                return null;
+            }
+            try {
+                return profile(loader, classfile);
+            } catch (Throwable e) {
+                // The exception thrown by transformer is ignored by the JVM
+                LOG.warn("Failed to profile class '{}'", name, e);
+                return null;
+            }
+        }
+
+        private static byte[] profile(ClassLoader loader, byte[] classfile)
+                                      throws Exception {
+            ClassPool pool = new ClassPool(true);
+            if (loader != null) {
+                pool.appendClassPath(new LoaderClassPath(loader));
+            }
+            CtClass ctClass = pool.makeClass(
+                              new ByteArrayInputStream(classfile));
+            try {
+                boolean profiled = false;
+                for (CtMethod method : ctClass.getDeclaredMethods()) {
+                    int modifiers = method.getModifiers();
+                    if (Modifier.isAbstract(modifiers) ||
+                        Modifier.isNative(modifiers)) {
+                        continue;
+                    }
+                    Annotation watched = watchedAnnotation(method);
+                    if (watched != null) {
+                        String name = PerfUtil.watchedName(
+                                      stringValue(watched, "value"),
+                                      stringValue(watched, "prefix"),
+                                      method.getName());
+                        PerfUtil.profile(method, name,
+                                         intValue(watched, "sampling"));
+                        profiled = true;
+                    }
+                }
+                return profiled ? ctClass.toBytecode() : null;
+            } finally {
+                ctClass.detach();
+            }
+        }
+
+        /**
+         * Read the annotation from the class file, since the annotation
+         * class can't be loaded while transforming
+         */
+        private static Annotation watchedAnnotation(CtMethod method) {
+            AttributeInfo attr = method.getMethodInfo().getAttribute(
+                                 AnnotationsAttribute.visibleTag);
+            if (!(attr instanceof AnnotationsAttribute)) {
+                return null;
+            }
+            return ((AnnotationsAttribute) attr).getAnnotation(WATCHED_NAME);
+        }
+
+        private static String stringValue(Annotation annotation,
+                                          String member) {
+            MemberValue value = annotation.getMemberValue(member);
+            if (value instanceof StringMemberValue) {
+                return ((StringMemberValue) value).getValue();
+            }
+            // The default value is not in the class file
+            return "";
+        }
+
+        private static int intValue(Annotation annotation, String member) {
+            MemberValue value = annotation.getMemberValue(member);
+            if (value instanceof IntegerMemberValue) {
+                return ((IntegerMemberValue) value).getValue();
+            }
+            return 0;
+        }
+
+        /**
+         * Search the descriptor of @Watched by Boyer-Moore-Horspool, which
+         * skips most bytes of the class file since the descriptor is long
+         */
+        private static boolean containsWatched(byte[] bytes) {
+            int last = WATCHED.length - 1;
+            for (int i = last; i < bytes.length;
+                 i += WATCHED_SHIFTS[bytes[i] & 0xff]) {
+                int j = 0;
+                while (j <= last && bytes[i - j] == WATCHED[last - j]) {
+                    j++;
+                }
+                if (j > last) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int[] shifts(byte[] target) {
+            int[] shifts = new int[256];
+            Arrays.fill(shifts, target.length);
+            for (int i = 0; i < target.length - 1; i++) {
+                shifts[target[i] & 0xff] = target.length - 1 - i;
+            }
+            return shifts;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.perf;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hugegraph.perf.Stopwatch.Path;
+import org.apache.hugegraph.util.E;
+import org.apache.hugegraph.util.ExecutorUtil;
+import org.apache.hugegraph.util.Log;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * PerfExporter writes the stopwatches of all threads to a local file in
+ * JSON lines format periodically, each line contains the delta of the
+ * stopwatches since the last line, like:
+ * {"time":1690000000000,"interval":10000,"stopwatches":{"foo/bar":{
+ * "parent":"foo","name":"bar","times":3,"total_cost":1200,...}}}
+ *
+ * The deltas are computed for each thread by comparing with the copy of
+ * its stopwatches at the last export, then merged by path, so the
+ * stopwatches are never reset and the profiled threads are not affected.
+ * If a thread has cleared its stopwatches since the last export, the delta
+ * of the thread is its current value. The calls recorded by a thread since
+ * the last export are not exported if it has exited or been removed.
+ *
+ * The file is rolled to `file.1` once its size exceeds `maxFileSize`, and
+ * at most `maxFiles` files are kept including the current one.
+ */
+public final class PerfExporter implements AutoCloseable {
+
+    private static final Logger LOG = Log.logger(PerfExporter.class);
+
+    public static final String EXPORTER_WORKER = "perf-exporter-%d";
+
+    private final File file;
+    private final long interval;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    private ScheduledExecutorService executor;
+    private boolean closed;
+    private Writer writer;
+    private long fileSize;
+    // The copies of the stopwatches of each thread at the last export
+    private Map<PerfUtil, Copy> lastCopies;
+    private long lastTime;
+
+    /**
+     * @param file The file to write, with the rolled files in the same dir
+     * @param interval The interval of exporting in milliseconds
+     * @param maxFileSize The size in bytes to roll the file
+     * @param maxFiles The max count of files to keep
+     */
+    public PerfExporter(String file, long interval,
+                        long maxFileSize, int maxFiles) {
+        E.checkArgument(file != null && !file.isEmpty(),
+                        "The export file can't be null or empty");
+        E.checkArgument(interval > 0L,
+                        "The export interval must be > 0, but got %s",
+                        interval);
+        E.checkArgument(maxFileSize > 0L,
+                        "The max file size must be > 0, but got %s",
+                        maxFileSize);
+        E.checkArgument(maxFiles > 0,
+                        "The max files must be > 0, but got %s", maxFiles);
+        this.file = new File(file);
+        this.interval = interval;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.executor = null;
+        this.closed = false;
+        this.writer = null;
+        this.fileSize = 0L;
+        this.lastCopies = Collections.emptyMap();
+        this.lastTime = System.nanoTime();
+    }
+
+    public synchronized void start() {
+        E.checkState(!this.closed, "The perf exporter has been closed");
+        E.checkState(this.executor == null,
+                     "The perf exporter has been started");
+        this.executor = ExecutorUtil.newScheduledThreadPool(EXPORTER_WORKER);
+        this.executor.scheduleAtFixedRate(this::exportQuietly, this.interval,
+                                          this.interval,
+                                          TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Export the delta since the last export immediately
+     */
+    public synchronized void export() throws IOException {
+        E.checkState(!this.closed, "The perf exporter has been closed");
+        this.doExport();
+    }
+
+    /**
+     * Stop exporting and export the delta of the last interval, the later
+     * calls including the concurrent ones return immediately
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            // Mark closed first, so no other export is done except the last
+            this.closed = true;
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(this.interval, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                this.doExport();
+            } finally {
+                if (this.writer != null) {
+                    this.writer.close();
+                    this.writer = null;
+                }
+            }
+        }
+    }
+
+    private void doExport() throws IOException {
+        long now = System.nanoTime();
+        Map<PerfUtil, Copy> copies = new IdentityHashMap<>();
+        Map<Path, Delta> deltas = new TreeMap<>();
+        for (PerfUtil instance : PerfUtil.instances()) {
+            Copy copy = Copy.of(instance);
+            copies.put(instance, copy);
+            Copy last = this.lastCopies.get(instance);
+            if (last != null && last.clears != copy.clears) {
+                // The stopwatches have been cleared by the thread
+                last = null;
+            }
+            for (Stopwatch watch : copy.stopwatches.values()) {
+                Stopwatch lastWatch = last == null ? null :
+                                      last.stopwatches.get(watch.id());
+                long times = watch.times() - (lastWatch == null ?
+                                              0L : lastWatch.times());
+                if (times <= 0L) {
+                    continue;
+                }
+                deltas.computeIfAbsent(watch.id(), id -> new Delta(watch))
+                      .add(watch, lastWatch, times);
+            }
+        }
+        String line = this.toJsonLine(deltas.values(), now);
+        this.lastCopies = copies;
+        this.lastTime = now;
+        this.write(line);
+    }
+
+    private void exportQuietly() {
+        try {
+            synchronized (this) {
+                if (this.closed) {
+                    return;
+                }
+                this.export();
+            }
+        } catch (Throwable e) {
+            // Don't throw it, or the following exports will be cancelled
+            LOG.warn("Failed to export perf stopwatches to '{}'",
+                     this.file, e);
+        }
+    }
+
+    private String toJsonLine(Collection<Delta> deltas, long now) {
+        StringBuilder sb = new StringBuilder(64 + deltas.size() * 160);
+        sb.append("{\"time\":").append(System.currentTimeMillis());
+        sb.append(",\"interval\":");
+        sb.append(TimeUnit.NANOSECONDS.toMillis(now - this.lastTime));
+        sb.append(",\"stopwatches\":{");
+        boolean first = true;
+        for (Delta delta : deltas) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            appendString(sb, delta.watch.id());
+            sb.append(':');
+            delta.appendJson(sb);
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    /**
+     * Append the value as a JSON string, the names of stopwatches may
+     * contain quotes, backslashes or control characters
+     */
+    private static void appendString(StringBuilder sb, Object value) {
+        sb.append('"');
+        sb.append(JsonStringEncoder.getInstance()
+                                   .quoteAsString(String.valueOf(value)));
+        sb.append('"');
+    }
+
+    private void write(String line) throws IOException {
+        if (this.writer == null) {
+            File parent = this.file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Failed to create dir " + parent);
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                          new FileOutputStream(this.file, true),
+                          StandardCharsets.UTF_8));
+            this.fileSize = this.file.length();
+        }
+        this.writer.write(line);
+        this.writer.write('\n');
+        this.writer.flush();
+        // Estimated by chars, only the names may be non-ASCII
+        this.fileSize += line.length() + 1;
+
+        if (this.fileSize >= this.maxFileSize) {
+            this.writer.close();
+            this.writer = null;
+            this.roll();
+        }
+    }
+
+    private void roll() throws IOException {
+        Files.deleteIfExists(this.rolledFile(this.maxFiles - 1).toPath());
+        for (int i = this.maxFiles - 2; i > 0; i--) {
+            File rolled = this.rolledFile(i);
+            if (rolled.exists()) {
+                Files.move(rolled.toPath(), this.rolledFile(i + 1).toPath(),
+                           StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (this.maxFiles > 1) {
+            Files.move(this.file.toPath(), this.rolledFile(1).toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        }
+        // The current file is truncated if maxFiles is 1
+        Files.deleteIfExists(this.file.toPath());
+    }
+
+    private File rolledFile(int index) {
+        return index == 0 ? this.file : new File(this.file.getPath() + "." +
+                                                 index);
+    }
+
+    /**
+     * The copy of the stopwatches of a thread, with the times the thread
+     * has cleared them before the copy
+     */
+    private static final class Copy {
+
+        private final long clears;
+        private final Map<Path, Stopwatch> stopwatches;
+
+        private Copy(long clears, Map<Path, Stopwatch> stopwatches) {
+            this.clears = clears;
+            this.stopwatches = stopwatches;
+        }
+
+        private static Copy of(PerfUtil instance) {
+            long clears;
+            PerfUtil copy;
+            do {
+                // Copy again if cleared while copying
+                clears = instance.clears();
+                copy = instance.copy();
+            } while (clears != instance.clears());
+            return new Copy(clears, copy.stopwatches());
+        }
+    }
+
+    /**
+     * The delta of the stopwatches of a path, merged from all threads
+     */
+    private static final class Delta {
+
+        private final Stopwatch watch;
+        private long times;
+        private long sampling;
+        private long totalCost;
+        private long totalSelfWasted;
+        // The histogram of the costs in the interval, null if not recorded
+        private LatencyHistogram histogram;
+
+        private Delta(Stopwatch watch) {
+            this.watch = watch;
+            this.times = 0L;
+            this.sampling = 1L;
+            this.totalCost = 0L;
+            this.totalSelfWasted = 0L;
+            this.histogram = null;
+        }
+
+        private void add(Stopwatch watch, Stopwatch last, long times) {
+            this.times += times;
+            this.sampling = Math.max(this.sampling, watch.sampling());
+            this.totalCost += watch.totalCost();
+            this.totalSelfWasted += watch.totalSelfWasted();
+            if (last != null) {
+                this.totalCost -= last.totalCost();
+                this.totalSelfWasted -= last.totalSelfWasted();
+            }
+            if (watch instanceof HistogramStopwatch) {
+                LatencyHistogram histogram = ((HistogramStopwatch) watch)
+                                             .histogram().copy();
+                if (last instanceof HistogramStopwatch) {
+                    histogram.subtract(((HistogramStopwatch) last)
+                                       .histogram());
+                }
+                if (this.histogram == null) {
+                    this.histogram = histogram;
+                } else {
+                    this.histogram.merge(histogram);
+                }
+            }
+        }
+
+        private void appendJson(StringBuilder sb) {
+            sb.append("{\"parent\":");
+            appendString(sb, this.watch.parent());
+            sb.append(",\"name\":");
+            appendString(sb, this.watch.name());
+            sb.append(",\"times\":").append(this.times);
+            sb.append(",\"sampling\":").append(this.sampling);
+            sb.append(",\"total_cost\":").append(this.totalCost);
+            sb.append(",\"total_self_wasted\":")
+              .append(this.totalSelfWasted);
+            if (this.histogram != null) {
+                // The min/max cost of the interval is only known by histogram
+                sb.append(",\"min_cost\":").append(this.histogram.min());
+                sb.append(",\"max_cost\":").append(this.histogram.max());
+                HistogramStopwatch.appendPercentiles(sb, this.histogram);
+            }
+            sb.append('}');
+        }
+    }
+}
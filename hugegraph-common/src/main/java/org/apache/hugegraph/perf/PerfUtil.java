@@ -21,6 +21,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
 import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,7 +30,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -56,20 +59,43 @@ public final class PerfUtil {
     private static final int DEFAULT_CAPACITY = 1024;
 
     private static final ThreadLocal<PerfUtil> INSTANCE = new ThreadLocal<>();
+    /*
+     * The instances of all threads, used to merge them into a snapshot,
+     * weakly keyed by thread to drop the instances of exited threads.
+     * It's guarded by itself.
+     */
+    private static final Map<Thread, PerfUtil> INSTANCES = new WeakHashMap<>();
 
     private static PerfUtil SINGLE_INSTANCE = null;
     private static Thread SINGLE_THREAD = null;
     private static LocalTimer LOCAL_TIMER = null;
     private static boolean LIGHT_WATCH = false;
-
+    private static boolean HISTOGRAM_WATCH = false;
+    private static int SAMPLING = 1;
+
+    /*
+     * Only accessed by the owner thread without lock, so the hot path of
+     * start()/end() pays nothing for the other threads. It's changed under
+     * the lock of this instance when a new path is added or it's cleared,
+     * and copied under the lock by the other threads, see watches()
+     */
     private final Map<Path, Stopwatch> stopwatches;
     private final LocalStack<Stopwatch> callStack;
     private final Stopwatch root;
+    // The sampling rate of the outermost call being recorded
+    private int sampling;
+    // The depth of the calls not recorded since the outermost is not sampled
+    private int skipped;
+    // The times cleared, only written by the owner thread
+    private volatile long clears;
 
     private PerfUtil() {
         this.stopwatches = new HashMap<>(DEFAULT_CAPACITY);
         this.callStack = new LocalStack<>(DEFAULT_CAPACITY);
         this.root = newStopwatch(Path.ROOT_NAME, Path.EMPTY);
+        this.sampling = 1;
+        this.skipped = 0;
+        this.clears = 0L;
     }
 
     public static PerfUtil instance() {
@@ -83,10 +109,54 @@ public final class PerfUtil {
         if (p == null) {
             p = new PerfUtil();
             INSTANCE.set(p);
+            synchronized (INSTANCES) {
+                INSTANCES.put(Thread.currentThread(), p);
+            }
         }
         return p;
     }
 
+    /**
+     * Remove the instance of current thread, its stopwatches won't be
+     * included in the snapshot any more. The instance of an exited thread
+     * is also dropped once the thread is garbage collected, call it before
+     * the thread exits to drop it immediately
+     */
+    public static void removeInstance() {
+        PerfUtil p = INSTANCE.get();
+        if (p == null) {
+            return;
+        }
+        INSTANCE.remove();
+        synchronized (INSTANCES) {
+            INSTANCES.remove(Thread.currentThread());
+        }
+        if (SINGLE_INSTANCE == p) {
+            SINGLE_INSTANCE = null;
+            SINGLE_THREAD = null;
+        }
+    }
+
+    /**
+     * Merge the stopwatches of all threads by path into a new PerfUtil,
+     * it can be called while other threads keep profiling, in which case
+     * the stopwatches being updated may be merged partially
+     * @return The snapshot which can be output by toJson()/toECharts()
+     */
+    public static PerfUtil snapshot() {
+        PerfUtil snapshot = new PerfUtil();
+        for (PerfUtil instance : instances()) {
+            snapshot.merge(instance);
+        }
+        return snapshot;
+    }
+
+    static List<PerfUtil> instances() {
+        synchronized (INSTANCES) {
+            return new ArrayList<>(INSTANCES.values());
+        }
+    }
+
     public static void profileSingleThread(boolean yes) {
         SINGLE_INSTANCE = yes ? PerfUtil.instance() : null;
         SINGLE_THREAD = yes ? Thread.currentThread() : null;
@@ -132,6 +202,35 @@ public final class PerfUtil {
         LIGHT_WATCH = yes;
     }
 
+    /**
+     * Use HistogramStopwatch to record the percentiles of the cost, it
+     * doesn't take effect if light-stopwatch is used. Each path of each
+     * thread holds a LatencyHistogram, which costs 256 bytes for every
+     * power of 2 between the min and max cost, e.g. about 5KB if the cost
+     * ranges from 1us to 1s, and 15KB at most
+     */
+    public static void useHistogramStopwatch(boolean yes) {
+        if (yes != HISTOGRAM_WATCH) {
+            PerfUtil instance = INSTANCE.get();
+            boolean empty = instance == null || instance.empty();
+            String message = "Please call clear() before switching " +
+                             "histogram-stopwatch due to there is dirty watch";
+            E.checkArgument(empty, message);
+        }
+        HISTOGRAM_WATCH = yes;
+    }
+
+    /**
+     * Record 1 in `sampling` outermost calls of each thread randomly, for
+     * the methods without their own sampling rate, the times and costs of
+     * all calls can be estimated by the Stopwatch.estimatedXxx() methods
+     */
+    public static void useSampling(int sampling) {
+        E.checkArgument(sampling > 0,
+                        "The sampling must be > 0, but got %s", sampling);
+        SAMPLING = sampling;
+    }
+
     protected static long now() {
         if (LOCAL_TIMER != null) {
             return LOCAL_TIMER.now();
@@ -141,16 +240,39 @@ public final class PerfUtil {
     }
 
     protected static Stopwatch newStopwatch(String name, Path parent) {
-        return LIGHT_WATCH ? new LightStopwatch(name, parent) :
-                             new NormalStopwatch(name, parent);
+        if (LIGHT_WATCH) {
+            return new LightStopwatch(name, parent);
+        }
+        return HISTOGRAM_WATCH ? new HistogramStopwatch(name, parent) :
+                                 new NormalStopwatch(name, parent);
     }
 
     protected static Stopwatch newStopwatch(String name, Stopwatch parent) {
-        return LIGHT_WATCH ? new LightStopwatch(name, parent) :
-                             new NormalStopwatch(name, parent);
+        if (LIGHT_WATCH) {
+            return new LightStopwatch(name, parent);
+        }
+        return HISTOGRAM_WATCH ? new HistogramStopwatch(name, parent) :
+                                 new NormalStopwatch(name, parent);
     }
 
     public Stopwatch start(String name) {
+        return this.start(name, 0);
+    }
+
+    /**
+     * Start the watch of a call with sampling: the outermost call of a
+     * thread is recorded 1 in `sampling` calls, and the nested calls are
+     * recorded only if the outermost call is recorded, so the paths of the
+     * recorded calls are complete
+     * @param name The name of the watch
+     * @param sampling The sampling rate if the call is the outermost one,
+     *                 0 means the global rate set by useSampling()
+     * @return The watch started, or null if the call is not recorded
+     */
+    public Stopwatch start(String name, int sampling) {
+        if (this.skip(sampling)) {
+            return null;
+        }
         long start = now();
 
         Stopwatch parent = this.callStack.empty() ?
@@ -161,16 +283,20 @@ public final class PerfUtil {
         if (watch == null) {
             watch = newStopwatch(name, parent);
             assert !this.stopwatches.containsKey(watch.id()) : watch;
-            this.stopwatches.put(watch.id(), watch);
+            this.addStopwatch(watch);
         }
         this.callStack.push(watch);
 
+        watch.sampling(this.sampling);
         watch.startTime(start);
 
         return watch;
     }
 
     public Stopwatch start2(String name) {
+        if (this.skip(0)) {
+            return null;
+        }
         long start = now(); // cost 70 ns with System.nanoTime()
 
         Path parent = this.callStack.empty() ?
@@ -180,16 +306,22 @@ public final class PerfUtil {
         Stopwatch watch = this.stopwatches.get(id); // cost 170
         if (watch == null) {
             watch = newStopwatch(name, parent);
-            this.stopwatches.put(watch.id(), watch); // cost 180
+            this.addStopwatch(watch); // cost 180
         }
         this.callStack.push(watch); // cost 190
 
+        watch.sampling(this.sampling);
         watch.startTime(start);
 
         return watch;
     }
 
     public void end(String name) {
+        if (this.skipped > 0) {
+            // The call is not recorded by start()
+            this.skipped--;
+            return;
+        }
         long start = LIGHT_WATCH ? 0L : now();
 
         Stopwatch watch = this.callStack.pop();
@@ -200,16 +332,94 @@ public final class PerfUtil {
         watch.endTime(start);
     }
 
+    private boolean skip(int sampling) {
+        if (this.skipped > 0) {
+            // Nested in an outermost call which is not sampled
+            this.skipped++;
+            return true;
+        }
+        if (this.callStack.empty()) {
+            int rate = sampling > 0 ? sampling : SAMPLING;
+            if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) {
+                this.skipped = 1;
+                return true;
+            }
+            this.sampling = rate;
+        }
+        return false;
+    }
+
     public boolean empty() {
         return this.stopwatches.isEmpty() && this.root.empty();
     }
 
     public void clear() {
         String error = "Can't be cleared when the call has not ended yet";
-        E.checkState(this.callStack.empty(), error);
+        E.checkState(this.callStack.empty() && this.skipped == 0, error);
 
-        this.stopwatches.clear();
+        synchronized (this) {
+            this.stopwatches.clear();
+        }
         this.root.clear();
+        this.clears++;
+    }
+
+    private void addStopwatch(Stopwatch watch) {
+        // Only for a new path, so the lock is rarely taken and contended
+        synchronized (this) {
+            this.stopwatches.put(watch.id(), watch);
+        }
+    }
+
+    /**
+     * Copy the stopwatches of this instance, it can be called by the
+     * threads other than the owner
+     */
+    private List<Stopwatch> watches() {
+        synchronized (this) {
+            return new ArrayList<>(this.stopwatches.values());
+        }
+    }
+
+    Map<Path, Stopwatch> stopwatches() {
+        return this.stopwatches;
+    }
+
+    /**
+     * @return The times this instance has been cleared, it's increased
+     *         after the stopwatches are cleared
+     */
+    long clears() {
+        return this.clears;
+    }
+
+    /**
+     * Copy the stopwatches of this instance like snapshot(), it can be
+     * called while the owner thread keeps profiling
+     */
+    PerfUtil copy() {
+        PerfUtil copy = new PerfUtil();
+        copy.merge(this);
+        return copy;
+    }
+
+    private void merge(PerfUtil other) {
+        List<Stopwatch> watches = other.watches();
+        // Sort by path to create the parent before its children
+        watches.sort((i, j) -> i.id().compareTo(j.id()));
+        for (Stopwatch watch : watches) {
+            Stopwatch merged = this.stopwatches.get(watch.id());
+            if (merged == null) {
+                Stopwatch parent = watch.parent().equals(Path.EMPTY) ?
+                                   this.root :
+                                   this.stopwatches.get(watch.parent());
+                merged = parent == null ?
+                         newStopwatch(watch.name(), watch.parent()) :
+                         newStopwatch(watch.name(), parent);
+                this.addStopwatch(merged);
+            }
+            merged.merge(watch);
+        }
     }
 
     public void profilePackage(String... packages) throws Throwable {
@@ -271,22 +481,31 @@ public final class PerfUtil {
 
     private void profile(CtMethod ctMethod)
                          throws CannotCompileException, ClassNotFoundException {
-        final String START =
-                "org.apache.hugegraph.perf.PerfUtil.instance().start(\"%s\");";
-        final String END =
-                "org.apache.hugegraph.perf.PerfUtil.instance().end(\"%s\");";
-
         Watched annotation = (Watched) ctMethod.getAnnotation(Watched.class);
+        String name = watchedName(annotation.value(), annotation.prefix(),
+                                  ctMethod.getName());
+        profile(ctMethod, name, annotation.sampling());
+    }
 
-        String name = annotation.value();
+    static String watchedName(String value, String prefix, String method) {
+        String name = value;
         if (name.isEmpty()) {
-            name = ctMethod.getName();
+            name = method;
         }
-        if (!annotation.prefix().isEmpty()) {
-            name = annotation.prefix() + "." + name;
+        if (!prefix.isEmpty()) {
+            name = prefix + "." + name;
         }
+        return name;
+    }
+
+    static void profile(CtMethod ctMethod, String name, int sampling)
+                        throws CannotCompileException {
+        final String START =
+                "org.apache.hugegraph.perf.PerfUtil.instance().start(\"%s\", %s);";
+        final String END =
+                "org.apache.hugegraph.perf.PerfUtil.instance().end(\"%s\");";
 
-        ctMethod.insertBefore(String.format(START, name));
+        ctMethod.insertBefore(String.format(START, name, sampling));
         // Insert as a finally-statement
         ctMethod.insertAfter(String.format(END, name), true);
 
@@ -683,5 +902,7 @@ public final class PerfUtil {
     public @interface Watched {
         String value() default "";
         String prefix() default "";
+        // Record 1 in N calls if outermost, 0 means the global sampling
+        int sampling() default 0;
     }
 }
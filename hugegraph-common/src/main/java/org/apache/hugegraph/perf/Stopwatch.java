@@ -53,8 +53,31 @@ public interface Stopwatch extends Cloneable {
 
     long totalChildrenWasted();
 
+    /**
+     * @return The sampling rate of the recorded calls, 1 if all the calls
+     *         are recorded
+     */
+    long sampling();
+
+    void sampling(long sampling);
+
+    default long estimatedTimes() {
+        return this.times() * this.sampling();
+    }
+
+    default long estimatedTotalCost() {
+        return this.totalCost() * this.sampling();
+    }
+
     void fillChildrenTotal(List<Stopwatch> children);
 
+    /**
+     * Add the times and costs of another stopwatch with the same id into
+     * this one, the min/max cost is the min/max of both, and the larger
+     * sampling rate is kept since it's expected to be the same
+     */
+    void merge(Stopwatch other);
+
     Stopwatch copy();
 
     Stopwatch child(String name);
@@ -80,6 +103,10 @@ public interface Stopwatch extends Cloneable {
                                                  this.totalChildrenWasted());
         sb.append(",\"total_children_times\":").append(
                                                  this.totalChildrenTimes());
+        sb.append(",\"sampling\":").append(this.sampling());
+        sb.append(",\"estimated_times\":").append(this.estimatedTimes());
+        sb.append(",\"estimated_total_cost\":").append(
+                                                 this.estimatedTotalCost());
         sb.append("}");
         return sb.toString();
     }
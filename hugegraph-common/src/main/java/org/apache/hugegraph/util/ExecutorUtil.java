@@ -17,8 +17,10 @@
 
 package org.apache.hugegraph.util;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -84,6 +86,17 @@ public final class ExecutorUtil {
         return Executors.newFixedThreadPool(size, factory);
     }
 
+    public static ThreadPoolExecutor newFixedThreadPool(
+                                     int size, int queueCapacity, String name,
+                                     RejectedExecutionHandler handler) {
+        ThreadFactory factory = new BasicThreadFactory.Builder()
+                                                      .namingPattern(name)
+                                                      .build();
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                                      new ArrayBlockingQueue<>(queueCapacity),
+                                      factory, handler);
+    }
+
     public static ScheduledExecutorService newScheduledThreadPool(String name) {
         return newScheduledThreadPool(1, name);
     }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OrderLimitHeap has the same put/get/containsKey/topN contract as
+ * OrderLimitMap: the entries are ordered by value (decreasing by default)
+ * then by key, and putting a new key into a full heap evicts the last entry.
+ * But it's an indexed heap instead of a TreeMap with a value map: the last
+ * entry is the root of the heap, and each key maps to its heap node, so an
+ * update is one hash lookup plus O(log n) swaps, and the order is only
+ * computed by topN().
+ */
+public class OrderLimitHeap<K extends Comparable<K>, V extends Comparable<V>> {
+
+    private final int capacity;
+    private final Comparator<Node<K, V>> comparator;
+    private final Map<K, Node<K, V>> nodes;
+
+    // A max-heap ordered by the comparator, the root is the last entry
+    private Node<K, V>[] heap;
+    private int size;
+
+    public OrderLimitHeap(int capacity) {
+        this(capacity, false);
+    }
+
+    public OrderLimitHeap(int capacity, boolean incr) {
+        E.checkArgument(capacity > 0, "The capacity must be > 0");
+        this.capacity = capacity;
+        this.comparator = incr ? OrderLimitHeap::compareIncr :
+                                 OrderLimitHeap::compareDecr;
+        this.nodes = new HashMap<>();
+        this.heap = newNodes(Math.min(capacity, 16));
+        this.size = 0;
+    }
+
+    /**
+     * Put a value, evict the last entry if the key is new and it's full
+     * @return the previous value of the key, or null if it's a new key.
+     *         Note that OrderLimitMap.put() always returns null instead.
+     */
+    public V put(K key, V value) {
+        E.checkArgument(key != null && value != null,
+                        "The key and value can't be null");
+        Node<K, V> node = this.nodes.get(key);
+        if (node != null) {
+            V old = node.value;
+            node.value = value;
+            this.siftDown(this.siftUp(node.index));
+            return old;
+        }
+        if (this.size >= this.capacity) {
+            this.nodes.remove(this.heap[0].key);
+            // Replace the root then sift the new one
+            node = this.heap[0];
+            node.key = key;
+            node.value = value;
+            this.nodes.put(key, node);
+            this.siftDown(0);
+            return null;
+        }
+        if (this.size == this.heap.length) {
+            int capacity = (int) Math.min((long) this.size << 1,
+                                          this.capacity);
+            this.heap = Arrays.copyOf(this.heap, capacity);
+        }
+        node = new Node<>(key, value, this.size);
+        this.heap[this.size++] = node;
+        this.nodes.put(key, node);
+        this.siftUp(node.index);
+        return null;
+    }
+
+    public V get(Object key) {
+        Node<K, V> node = this.nodes.get(key);
+        return node == null ? null : node.value;
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        Node<K, V> node = this.nodes.get(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    public boolean containsKey(Object key) {
+        return this.nodes.containsKey(key);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return the first n entries in order, like OrderLimitMap.topN()
+     */
+    public Map<K, V> topN(int n) {
+        E.checkArgument(n > 0, "'N' Must be positive, but got '%s'", n);
+        Node<K, V>[] sorted = Arrays.copyOf(this.heap, this.size);
+        Arrays.sort(sorted, this.comparator);
+        Map<K, V> top = InsertionOrderUtil.newMap();
+        for (int i = 0; i < sorted.length && i < n; i++) {
+            top.put(sorted[i].key, sorted[i].value);
+        }
+        return top;
+    }
+
+    private int siftUp(int index) {
+        Node<K, V> node = this.heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.comparator.compare(node, this.heap[parent]) <= 0) {
+                break;
+            }
+            this.move(this.heap[parent], index);
+            index = parent;
+        }
+        this.move(node, index);
+        return index;
+    }
+
+    private void siftDown(int index) {
+        Node<K, V> node = this.heap[index];
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= this.size) {
+                break;
+            }
+            if (child + 1 < this.size &&
+                this.comparator.compare(this.heap[child + 1],
+                                        this.heap[child]) > 0) {
+                child++;
+            }
+            if (this.comparator.compare(node, this.heap[child]) >= 0) {
+                break;
+            }
+            this.move(this.heap[child], index);
+            index = child;
+        }
+        this.move(node, index);
+    }
+
+    private void move(Node<K, V> node, int index) {
+        this.heap[index] = node;
+        node.index = index;
+    }
+
+    private static <K extends Comparable<K>, V extends Comparable<V>>
+            int compareIncr(Node<K, V> node1, Node<K, V> node2) {
+        int cmp = node1.value.compareTo(node2.value);
+        return cmp != 0 ? cmp : node1.key.compareTo(node2.key);
+    }
+
+    private static <K extends Comparable<K>, V extends Comparable<V>>
+            int compareDecr(Node<K, V> node1, Node<K, V> node2) {
+        int cmp = node2.value.compareTo(node1.value);
+        return cmp != 0 ? cmp : node1.key.compareTo(node2.key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newNodes(int size) {
+        return new Node[size];
+    }
+
+    private static final class Node<K, V> {
+
+        private K key;
+        private V value;
+        // The position in the heap
+        private int index;
+
+        Node(K key, V value, int index) {
+            this.key = key;
+            this.value = value;
+            this.index = index;
+        }
+    }
+}
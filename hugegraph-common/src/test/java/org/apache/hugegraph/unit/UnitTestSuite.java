@@ -22,6 +22,7 @@ import org.apache.hugegraph.testutil.WhiteboxTest;
 import org.apache.hugegraph.unit.config.HugeConfigTest;
 import org.apache.hugegraph.unit.config.OptionSpaceTest;
 import org.apache.hugegraph.unit.event.EventHubTest;
+import org.apache.hugegraph.unit.event.ShardedEventDispatcherTest;
 import org.apache.hugegraph.unit.rest.AbstractRestClientTest;
 import org.apache.hugegraph.unit.version.VersionTest;
 import org.junit.runner.RunWith;
@@ -29,25 +30,41 @@ import org.junit.runners.Suite;
 
 import org.apache.hugegraph.unit.concurrent.AtomicLockTest;
 import org.apache.hugegraph.unit.concurrent.BarrierEventTest;
+import org.apache.hugegraph.unit.concurrent.IndexedKeyLockTest;
 import org.apache.hugegraph.unit.concurrent.KeyLockTest;
 import org.apache.hugegraph.unit.concurrent.LockGroupTest;
 import org.apache.hugegraph.unit.concurrent.LockManagerTest;
+import org.apache.hugegraph.unit.concurrent.LockStatsTest;
 import org.apache.hugegraph.unit.concurrent.PausableScheduledThreadPoolTest;
+import org.apache.hugegraph.unit.concurrent.PooledRowLockTest;
+import org.apache.hugegraph.unit.concurrent.ReadWriteKeyLockTest;
 import org.apache.hugegraph.unit.concurrent.RowLockTest;
 import org.apache.hugegraph.unit.date.SafeDateFormatTest;
 import org.apache.hugegraph.unit.iterator.BatchMapperIteratorTest;
+import org.apache.hugegraph.unit.iterator.ChunkedFilterIteratorTest;
+import org.apache.hugegraph.unit.iterator.ChunkedFlatMapperIteratorTest;
+import org.apache.hugegraph.unit.iterator.CIterSpliteratorTest;
 import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest;
 import org.apache.hugegraph.unit.iterator.FilterIteratorTest;
 import org.apache.hugegraph.unit.iterator.FlatMapperFilterIteratorTest;
 import org.apache.hugegraph.unit.iterator.FlatMapperIteratorTest;
+import org.apache.hugegraph.unit.iterator.IntIteratorTest;
 import org.apache.hugegraph.unit.iterator.LimitIteratorTest;
 import org.apache.hugegraph.unit.iterator.ListIteratorTest;
+import org.apache.hugegraph.unit.iterator.LongIteratorTest;
 import org.apache.hugegraph.unit.iterator.MapperIteratorTest;
+import org.apache.hugegraph.unit.iterator.MergeSortedIteratorTest;
+import org.apache.hugegraph.unit.iterator.OffsetIteratorTest;
+import org.apache.hugegraph.unit.iterator.PrefetchBatchMapperIteratorTest;
+import org.apache.hugegraph.unit.iterator.TopKIteratorTest;
 import org.apache.hugegraph.unit.license.LicenseExtraParamTest;
 import org.apache.hugegraph.unit.license.LicenseCreateParamTest;
 import org.apache.hugegraph.unit.license.LicenseInstallParamTest;
 import org.apache.hugegraph.unit.license.LicenseParamsTest;
 import org.apache.hugegraph.unit.license.MachineInfoTest;
+import org.apache.hugegraph.unit.perf.LatencyHistogramTest;
+import org.apache.hugegraph.unit.perf.PerfAgentTest;
+import org.apache.hugegraph.unit.perf.PerfExporterTest;
 import org.apache.hugegraph.unit.perf.PerfUtilTest;
 import org.apache.hugegraph.unit.perf.StopwatchTest;
 import org.apache.hugegraph.unit.rest.RestClientTest;
@@ -61,6 +78,7 @@ import org.apache.hugegraph.unit.util.InsertionOrderUtilTest;
 import org.apache.hugegraph.unit.util.LogTest;
 import org.apache.hugegraph.unit.util.LongEncodingTest;
 import org.apache.hugegraph.unit.util.NumericUtilTest;
+import org.apache.hugegraph.unit.util.OrderLimitHeapTest;
 import org.apache.hugegraph.unit.util.OrderLimitMapTest;
 import org.apache.hugegraph.unit.util.ReflectionUtilTest;
 import org.apache.hugegraph.unit.util.StringUtilTest;
@@ -71,10 +89,14 @@ import org.apache.hugegraph.unit.util.VersionUtilTest;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     LockManagerTest.class,
+    LockStatsTest.class,
     LockGroupTest.class,
     AtomicLockTest.class,
     KeyLockTest.class,
+    IndexedKeyLockTest.class,
+    ReadWriteKeyLockTest.class,
     RowLockTest.class,
+    PooledRowLockTest.class,
     PausableScheduledThreadPoolTest.class,
 
     HugeConfigTest.class,
@@ -82,6 +104,10 @@ import org.apache.hugegraph.unit.util.VersionUtilTest;
     SafeDateFormatTest.class,
     BarrierEventTest.class,
     EventHubTest.class,
+    ShardedEventDispatcherTest.class,
+    LatencyHistogramTest.class,
+    PerfAgentTest.class,
+    PerfExporterTest.class,
     PerfUtilTest.class,
     StopwatchTest.class,
     AbstractRestClientTest.class,
@@ -92,11 +118,20 @@ import org.apache.hugegraph.unit.util.VersionUtilTest;
     ExtendableIteratorTest.class,
     FilterIteratorTest.class,
     LimitIteratorTest.class,
+    OffsetIteratorTest.class,
     MapperIteratorTest.class,
     FlatMapperIteratorTest.class,
     FlatMapperFilterIteratorTest.class,
+    ChunkedFilterIteratorTest.class,
+    ChunkedFlatMapperIteratorTest.class,
     ListIteratorTest.class,
     BatchMapperIteratorTest.class,
+    PrefetchBatchMapperIteratorTest.class,
+    LongIteratorTest.class,
+    IntIteratorTest.class,
+    CIterSpliteratorTest.class,
+    MergeSortedIteratorTest.class,
+    TopKIteratorTest.class,
 
     BytesTest.class,
     CollectionUtilTest.class,
@@ -111,6 +146,7 @@ import org.apache.hugegraph.unit.util.VersionUtilTest;
     VersionUtilTest.class,
     LongEncodingTest.class,
     OrderLimitMapTest.class,
+    OrderLimitHeapTest.class,
     DateUtilTest.class,
     UnitUtilTest.class,
 
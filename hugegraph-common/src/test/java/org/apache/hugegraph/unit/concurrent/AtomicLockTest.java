@@ -17,6 +17,9 @@
 
 package org.apache.hugegraph.unit.concurrent;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import org.apache.hugegraph.concurrent.AtomicLock;
@@ -59,4 +62,100 @@ public class AtomicLockTest extends BaseUnitTest {
                                   "but got 11", e.getMessage());
         });
     }
+
+    @Test
+    public void testTryLockWithTimeout() throws InterruptedException {
+        AtomicLock lock = new AtomicLock("lock");
+
+        Assert.assertTrue(lock.tryLock(0L, TimeUnit.MILLISECONDS));
+        try {
+            // Not reentrant, return immediately
+            Assert.assertFalse(lock.tryLock(1L, TimeUnit.SECONDS));
+            runWithThreads(2, () -> {
+                try {
+                    Assert.assertFalse(lock.tryLock(10L,
+                                                    TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        Assert.assertTrue(lock.tryLock(10L, TimeUnit.MILLISECONDS));
+        lock.unlock();
+    }
+
+    @Test
+    public void testLockWakeupByUnlock() throws InterruptedException {
+        AtomicLock lock = new AtomicLock("lock");
+        CountDownLatch locked = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> {
+            Assert.assertTrue(lock.tryLock());
+            locked.countDown();
+            try {
+                Thread.sleep(20L);
+            } catch (InterruptedException ignored) {
+                // Ignore
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+
+        long start = System.nanoTime();
+        // Wait at most 1s, but return as soon as the lock is released
+        Assert.assertTrue(lock.lock(1));
+        long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lock.unlock();
+        holder.join();
+        Assert.assertLt(500L, cost);
+    }
+
+    @Test
+    public void testLockWithMultiThreads() {
+        AtomicLock lock = new AtomicLock("lock");
+        int[] counter = new int[1];
+
+        runWithThreads(8, () -> {
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    Assert.assertTrue(lock.tryLock(10L, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                try {
+                    counter[0]++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+
+        Assert.assertEquals(8000, counter[0]);
+    }
+
+    @Test
+    public void testTryLockInterrupted() throws InterruptedException {
+        AtomicLock lock = new AtomicLock("lock");
+        Assert.assertTrue(lock.tryLock());
+        try {
+            runWithThreads(1, () -> {
+                Thread.currentThread().interrupt();
+                Assert.assertThrows(InterruptedException.class, () -> {
+                    lock.tryLock(1L, TimeUnit.SECONDS);
+                });
+                // Interrupted lock(retries) returns false
+                Thread.currentThread().interrupt();
+                Assert.assertFalse(lock.lock(1));
+            });
+        } finally {
+            lock.unlock();
+        }
+        Assert.assertTrue(lock.tryLock());
+        lock.unlock();
+    }
 }
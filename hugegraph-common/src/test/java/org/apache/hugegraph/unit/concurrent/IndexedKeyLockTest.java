@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.concurrent.IndexedKeyLock;
+import org.apache.hugegraph.concurrent.IndexedKeyLock.Handle;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+
+public class IndexedKeyLockTest extends BaseUnitTest {
+
+    private static final int THREADS_NUM = 8;
+
+    @Test
+    public void testSize() {
+        Assert.assertEquals(1, new IndexedKeyLock(1).size());
+        Assert.assertEquals(2, new IndexedKeyLock(2).size());
+        Assert.assertEquals(4, new IndexedKeyLock(3).size());
+        Assert.assertEquals(16, new IndexedKeyLock(16).size());
+        Assert.assertEquals(32, new IndexedKeyLock(17).size());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new IndexedKeyLock(0);
+        }, e -> {
+            Assert.assertContains("The lock size must be > 0",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testLockUnlock() {
+        IndexedKeyLock locks = new IndexedKeyLock();
+
+        Lock lock = locks.lock("1");
+        try {
+            Assert.assertSame(locks.stripe(locks.indexOf("1")), lock);
+            // lock again is OK
+            locks.lock("1");
+            // lock in other threads
+            runWithThreads(1, () -> {
+                Assert.assertFalse(locks.stripe(locks.indexOf("1"))
+                                        .tryLock());
+            });
+            locks.unlock("1");
+        } finally {
+            locks.unlock("1");
+        }
+
+        Assert.assertThrows(IllegalMonitorStateException.class, () -> {
+            locks.unlock("1");
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.lock(null);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.unlock(null);
+        }, e -> {
+            Assert.assertContains("Unlock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testLockUnlockAll() {
+        IndexedKeyLock locks = new IndexedKeyLock(4);
+
+        Handle handle = locks.lockAll("1", 2, 3, "1", 2);
+        Assert.assertTrue(handle.locked());
+        Assert.assertTrue(handle.size() <= 3);
+        for (int i = 1; i < handle.size(); i++) {
+            // Sorted and unique
+            Assert.assertTrue(handle.index(i - 1) < handle.index(i));
+        }
+        locks.unlockAll(handle);
+        Assert.assertFalse(handle.locked());
+        Assert.assertEquals(0, handle.size());
+
+        // The handle is reused by the same thread
+        Handle handle2 = locks.lockAll("1", 3);
+        Assert.assertSame(handle, handle2);
+        // Nested lockAll() uses another handle
+        Handle handle3 = locks.lockAll("1", 2);
+        Assert.assertNotSame(handle2, handle3);
+        locks.unlockAll(handle3);
+        handle2.close();
+
+        // All keys map to the same stripe
+        IndexedKeyLock single = new IndexedKeyLock(1);
+        try (Handle h = single.lockAll("1", 2, 3)) {
+            Assert.assertEquals(1, h.size());
+            Assert.assertEquals(0, h.index(0));
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.lockAll("1", null);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+        // Nothing is locked if any key is null
+        runWithThreads(1, () -> {
+            Lock lock = locks.stripe(locks.indexOf("1"));
+            Assert.assertTrue(lock.tryLock());
+            lock.unlock();
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.lockAll();
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.lockAll((Object[]) null);
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.unlockAll(null);
+        }, e -> {
+            Assert.assertContains("Unlock handle can't be null",
+                                  e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            locks.unlockAll(locks.newHandle());
+        }, e -> {
+            Assert.assertContains("has not been locked", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.lockAll(single.newHandle(), "1");
+        }, e -> {
+            Assert.assertContains("not created by this lock",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testLockAllWithHandle() {
+        IndexedKeyLock locks = new IndexedKeyLock();
+        Handle handle = locks.newHandle();
+
+        Object[] keys = new Object[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        Assert.assertSame(handle, locks.lockAll(handle, keys));
+        Assert.assertEquals(locks.size(), handle.size());
+
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            locks.lockAll(handle, "1");
+        }, e -> {
+            Assert.assertContains("has been locked", e.getMessage());
+        });
+
+        locks.unlockAll(handle);
+        for (int i = 0; i < locks.size(); i++) {
+            Lock lock = locks.stripe(i);
+            Assert.assertTrue(lock.tryLock());
+            lock.unlock();
+        }
+    }
+
+    @Test
+    public void testLockAllWithMultiThreads() {
+        IndexedKeyLock locks = new IndexedKeyLock(8);
+        AtomicInteger counter = new AtomicInteger();
+        int[] shared = new int[1];
+        int times = 1000;
+
+        runWithThreads(THREADS_NUM, () -> {
+            for (int i = 0; i < times; i++) {
+                // Keys in reversed order with each other thread
+                Object[] keys = counter.incrementAndGet() % 2 == 0 ?
+                                new Object[]{"a", "b", "c", 1} :
+                                new Object[]{1, "c", "b", "a"};
+                try (Handle ignored = locks.lockAll(keys)) {
+                    locks.lock("a");
+                    try {
+                        shared[0]++;
+                    } finally {
+                        locks.unlock("a");
+                    }
+                }
+            }
+        });
+
+        Assert.assertEquals(THREADS_NUM * times, shared[0]);
+    }
+}
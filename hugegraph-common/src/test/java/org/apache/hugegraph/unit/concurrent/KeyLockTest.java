@@ -20,6 +20,7 @@ package org.apache.hugegraph.unit.concurrent;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import org.junit.Test;
@@ -121,4 +122,96 @@ public class KeyLockTest extends BaseUnitTest {
             Assert.assertContains("Unlock locks can't be null", e.getMessage());
         });
     }
+
+    @Test
+    public void testTryLock() throws InterruptedException {
+        KeyLock locks = new KeyLock();
+
+        Assert.assertTrue(locks.tryLock("1", 0L, TimeUnit.MILLISECONDS));
+        try {
+            // lock again is OK
+            Assert.assertTrue(locks.tryLock("1", 0L, TimeUnit.MILLISECONDS));
+            locks.unlock("1");
+            // lock in other threads is timeout
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertFalse(locks.tryLock("1", 10L,
+                                                     TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            locks.unlock("1");
+        }
+        Assert.assertEquals(1L, locks.timeouts());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.tryLock(null, 0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testTryLockAll() throws InterruptedException {
+        KeyLock locks = new KeyLock(4);
+        Object[] keys = new Object[]{"1", 2, 3};
+
+        List<Lock> ls = locks.tryLockAll(keys, 0L, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(3, ls.size());
+        locks.unlockAll(ls);
+
+        locks.lock(3);
+        try {
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertNull(locks.tryLockAll(keys, 10L,
+                                                       TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Assert.assertEquals(1L, locks.timeouts());
+
+            // The locks acquired before timeout have been released
+            runWithThreads(1, () -> {
+                Lock lock = locks.lock("1");
+                locks.unlock("1");
+                Assert.assertNotNull(lock);
+            });
+        } finally {
+            locks.unlock(3);
+        }
+
+        // Rollback if interrupted
+        locks.lock(2);
+        try {
+            runWithThreads(1, () -> {
+                Thread.currentThread().interrupt();
+                Assert.assertThrows(InterruptedException.class, () -> {
+                    locks.tryLockAll(keys, 1L, TimeUnit.SECONDS);
+                });
+            });
+        } finally {
+            locks.unlock(2);
+        }
+        runWithThreads(1, () -> {
+            locks.unlockAll(locks.lockAll(keys));
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.tryLockAll(new Object[]{"1", null}, 0L,
+                             TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.tryLockAll(new Object[]{}, 0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+    }
 }
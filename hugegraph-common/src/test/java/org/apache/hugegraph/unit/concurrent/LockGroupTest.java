@@ -17,6 +17,9 @@
 
 package org.apache.hugegraph.unit.concurrent;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -25,8 +28,12 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.junit.Test;
 
 import org.apache.hugegraph.concurrent.AtomicLock;
+import org.apache.hugegraph.concurrent.IndexedKeyLock;
 import org.apache.hugegraph.concurrent.KeyLock;
 import org.apache.hugegraph.concurrent.LockGroup;
+import org.apache.hugegraph.concurrent.LockStats;
+import org.apache.hugegraph.concurrent.PooledRowLock;
+import org.apache.hugegraph.concurrent.ReadWriteKeyLock;
 import org.apache.hugegraph.concurrent.RowLock;
 import org.apache.hugegraph.testutil.Assert;
 import org.apache.hugegraph.unit.BaseUnitTest;
@@ -91,6 +98,38 @@ public class LockGroupTest extends BaseUnitTest {
         Assert.assertSame(lock, lock1);
     }
 
+    @Test
+    public void testIndexedKeyLock() {
+        IndexedKeyLock lock = this.group.indexedKeyLock("lock");
+        Assert.assertNotNull(lock);
+        IndexedKeyLock lock1 = this.group.indexedKeyLock("lock");
+        Assert.assertSame(lock, lock1);
+    }
+
+    @Test
+    public void testIndexedKeyLockWithSize() {
+        IndexedKeyLock lock = this.group.indexedKeyLock("lock", 10);
+        Assert.assertEquals(16, lock.size());
+        IndexedKeyLock lock1 = this.group.indexedKeyLock("lock");
+        Assert.assertSame(lock, lock1);
+    }
+
+    @Test
+    public void testReadWriteKeyLock() {
+        ReadWriteKeyLock lock = this.group.readWriteKeyLock("lock");
+        Assert.assertNotNull(lock);
+        ReadWriteKeyLock lock1 = this.group.readWriteKeyLock("lock");
+        Assert.assertSame(lock, lock1);
+    }
+
+    @Test
+    public void testReadWriteKeyLockWithSize() {
+        ReadWriteKeyLock lock = this.group.readWriteKeyLock("lock", 10);
+        Assert.assertEquals(16, lock.size());
+        ReadWriteKeyLock lock1 = this.group.readWriteKeyLock("lock");
+        Assert.assertSame(lock, lock1);
+    }
+
     @Test
     public void testRowLock() {
         RowLock<?> lock = this.group.rowLock("lock");
@@ -99,8 +138,160 @@ public class LockGroupTest extends BaseUnitTest {
         Assert.assertSame(lock, lock1);
     }
 
+    @Test
+    public void testPooledRowLock() {
+        PooledRowLock<?> lock = this.group.pooledRowLock("lock");
+        Assert.assertNotNull(lock);
+        PooledRowLock<?> lock1 = this.group.pooledRowLock("lock");
+        Assert.assertSame(lock, lock1);
+    }
+
     @Test
     public void testName() {
         Assert.assertEquals(GROUP, this.group.name());
     }
+
+    @Test
+    public void testStatsNotInstrumented() {
+        Assert.assertFalse(this.group.instrumented());
+        this.group.lock("lock").lock();
+        this.group.lock("lock").unlock();
+        Assert.assertTrue(this.group.stats().isEmpty());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new LockGroup(GROUP, -1);
+        }, e -> {
+            Assert.assertContains("The stats sample interval must be >= 0",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testStats() throws InterruptedException {
+        LockGroup group = new LockGroup(GROUP, 1);
+        Assert.assertTrue(group.instrumented());
+
+        Lock lock = group.lock("lock");
+        lock.lock();
+        try {
+            lock.lock();
+            lock.unlock();
+            runWithThreads(1, () -> {
+                Assert.assertFalse(lock.tryLock());
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        ReadWriteLock rwLock = group.readWriteLock("rw");
+        rwLock.readLock().lock();
+        rwLock.readLock().unlock();
+        rwLock.writeLock().lock();
+        rwLock.writeLock().unlock();
+
+        KeyLock keyLock = group.keyLock("key", 4);
+        keyLock.lock("k1").unlock();
+        List<Lock> locks = keyLock.lockAll("k1", "k2");
+        int stripes = locks.size();
+        keyLock.unlockAll(locks);
+
+        RowLock<String> rowLock = group.rowLock("row");
+        rowLock.lock("r1");
+        rowLock.unlock("r1");
+
+        PooledRowLock<String> pooledRowLock = group.pooledRowLock("pooled");
+        pooledRowLock.lock("r1");
+        pooledRowLock.lock("r1");
+        pooledRowLock.unlock("r1");
+        pooledRowLock.unlock("r1");
+
+        AtomicLock atomicLock = group.atomicLock("atomic");
+        Assert.assertTrue(atomicLock.tryLock());
+        atomicLock.unlock();
+
+        Map<String, LockStats.Snapshot> stats = group.stats();
+        Assert.assertEquals(7, stats.size());
+
+        LockStats.Snapshot snapshot = stats.get("lock");
+        Assert.assertEquals("lock", snapshot.name());
+        Assert.assertEquals(2L, snapshot.acquisitions());
+        // The failed non-blocking try is not counted as a timeout
+        Assert.assertEquals(0L, snapshot.timeouts());
+        Assert.assertEquals(0L, snapshot.waiting());
+        Assert.assertEquals(2L, snapshot.waitTime().count());
+        // Only the outermost lock is counted in the hold time
+        Assert.assertEquals(1L, snapshot.holdTime().count());
+
+        Assert.assertEquals(1L, stats.get("rw#read").acquisitions());
+        Assert.assertEquals(0L, stats.get("rw#read").holdTime().count());
+        Assert.assertEquals(1L, stats.get("rw#write").acquisitions());
+        Assert.assertEquals(1L, stats.get("rw#write").holdTime().count());
+
+        snapshot = stats.get("key");
+        Assert.assertEquals(1L + stripes, snapshot.acquisitions());
+        // Two keys may share a stripe, which is held twice then
+        Assert.assertGte(2L, snapshot.holdTime().count());
+        Assert.assertLte(snapshot.acquisitions(), snapshot.holdTime().count());
+
+        Assert.assertEquals(1L, stats.get("row").acquisitions());
+        Assert.assertEquals(1L, stats.get("row").holdTime().count());
+        Assert.assertEquals(1L, stats.get("pooled").acquisitions());
+        Assert.assertEquals(1L, stats.get("pooled").holdTime().count());
+        Assert.assertEquals(1L, stats.get("atomic").acquisitions());
+        Assert.assertEquals(1L, stats.get("atomic").holdTime().count());
+    }
+
+    @Test
+    public void testStatsWithReadWriteLockName() {
+        LockGroup group = new LockGroup(GROUP, 1);
+        group.lock("rw.read").lock();
+        group.lock("rw.read").unlock();
+        group.readWriteLock("rw").readLock().lock();
+        group.readWriteLock("rw").readLock().unlock();
+
+        Map<String, LockStats.Snapshot> stats = group.stats();
+        Assert.assertEquals(3, stats.size());
+        Assert.assertEquals(1L, stats.get("rw.read").acquisitions());
+        Assert.assertEquals(1L, stats.get("rw#read").acquisitions());
+        Assert.assertEquals(0L, stats.get("rw#write").acquisitions());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            group.lock("rw#read");
+        }, e -> {
+            Assert.assertContains("can't contain '#'", e.getMessage());
+        });
+        // The name is not limited if the group is not instrumented
+        Assert.assertNotNull(new LockGroup(GROUP).lock("rw#read"));
+    }
+
+    @Test
+    public void testStatsWithTimeout() throws InterruptedException {
+        LockGroup group = new LockGroup(GROUP, 1);
+        KeyLock keyLock = group.keyLock("key");
+        RowLock<String> rowLock = group.rowLock("row");
+
+        keyLock.lock("k1");
+        rowLock.lock("r1");
+        try {
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertFalse(keyLock.tryLock("k1", 1L,
+                                                       TimeUnit.MILLISECONDS));
+                    Assert.assertFalse(rowLock.tryLock("r1", 1L,
+                                                       TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            keyLock.unlock("k1");
+            rowLock.unlock("r1");
+        }
+
+        Map<String, LockStats.Snapshot> stats = group.stats();
+        Assert.assertEquals(1L, stats.get("key").timeouts());
+        Assert.assertEquals(1L, stats.get("key").acquisitions());
+        Assert.assertEquals(1L, stats.get("row").timeouts());
+        Assert.assertEquals(1L, stats.get("row").acquisitions());
+    }
 }
@@ -17,11 +17,14 @@
 
 package org.apache.hugegraph.unit.concurrent;
 
+import java.util.Map;
+
 import org.junit.After;
 import org.junit.Test;
 
 import org.apache.hugegraph.concurrent.LockGroup;
 import org.apache.hugegraph.concurrent.LockManager;
+import org.apache.hugegraph.concurrent.LockStats;
 import org.apache.hugegraph.testutil.Assert;
 import org.apache.hugegraph.unit.BaseUnitTest;
 
@@ -122,4 +125,27 @@ public class LockManagerTest extends BaseUnitTest {
             Assert.assertContains("does not exists", e.getMessage());
         });
     }
+
+    @Test
+    public void testStats() {
+        LockManager manager = LockManager.instance();
+
+        LockGroup lockGroup = manager.create(GROUP, 1);
+        LockGroup lockGroup2 = manager.create(GROUP2);
+        Assert.assertTrue(lockGroup.instrumented());
+        Assert.assertFalse(lockGroup2.instrumented());
+
+        lockGroup.lock("lock").lock();
+        lockGroup.lock("lock").unlock();
+        lockGroup2.lock("lock").lock();
+        lockGroup2.lock("lock").unlock();
+
+        Map<String, Map<String, LockStats.Snapshot>> stats = manager.stats();
+        Assert.assertTrue(stats.containsKey(GROUP));
+        Assert.assertFalse(stats.containsKey(GROUP2));
+        Assert.assertEquals(1L, stats.get(GROUP).get("lock").acquisitions());
+
+        manager.destroy(GROUP);
+        Assert.assertFalse(manager.stats().containsKey(GROUP));
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.concurrent.LockStats;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+
+public class LockStatsTest extends BaseUnitTest {
+
+    @Test
+    public void testInvalidSampleInterval() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new LockStats("lock", 0);
+        }, e -> {
+            Assert.assertContains("The sample interval must be > 0",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testAcquireAndRelease() {
+        LockStats stats = new LockStats("lock", 1);
+        Assert.assertEquals("lock", stats.name());
+
+        long start = stats.beginWait();
+        Assert.assertNotEquals(LockStats.NONE, start);
+        Assert.assertEquals(1L, stats.snapshot().waiting());
+
+        long acquiredAt = stats.endWait(start, true);
+        Assert.assertNotEquals(LockStats.NONE, acquiredAt);
+        stats.released(acquiredAt);
+
+        LockStats.Snapshot snapshot = stats.snapshot();
+        Assert.assertEquals("lock", snapshot.name());
+        Assert.assertEquals(1, snapshot.sampleInterval());
+        Assert.assertEquals(1L, snapshot.acquisitions());
+        Assert.assertEquals(0L, snapshot.timeouts());
+        Assert.assertEquals(0L, snapshot.waiting());
+        Assert.assertEquals(1L, snapshot.waitTime().count());
+        Assert.assertEquals(1L, snapshot.holdTime().count());
+    }
+
+    @Test
+    public void testTimeout() {
+        LockStats stats = new LockStats("lock", 1);
+        long start = stats.beginWait();
+        Assert.assertEquals(LockStats.NONE, stats.endWait(start, false));
+
+        LockStats.Snapshot snapshot = stats.snapshot();
+        Assert.assertEquals(0L, snapshot.acquisitions());
+        Assert.assertEquals(1L, snapshot.timeouts());
+        Assert.assertEquals(1L, snapshot.waitTime().count());
+        Assert.assertEquals(0L, snapshot.holdTime().count());
+    }
+
+    @Test
+    public void testTry() {
+        LockStats stats = new LockStats("lock", 1);
+        long start = stats.beginWait();
+        Assert.assertEquals(LockStats.NONE, stats.endTry(start, false));
+
+        LockStats.Snapshot snapshot = stats.snapshot();
+        Assert.assertEquals(0L, snapshot.acquisitions());
+        Assert.assertEquals(0L, snapshot.timeouts());
+        Assert.assertEquals(0L, snapshot.waiting());
+        Assert.assertEquals(0L, snapshot.waitTime().count());
+
+        start = stats.beginWait();
+        long acquiredAt = stats.endTry(start, true);
+        Assert.assertNotEquals(LockStats.NONE, acquiredAt);
+        stats.released(acquiredAt);
+
+        snapshot = stats.snapshot();
+        Assert.assertEquals(1L, snapshot.acquisitions());
+        Assert.assertEquals(0L, snapshot.timeouts());
+        Assert.assertEquals(1L, snapshot.waitTime().count());
+        Assert.assertEquals(1L, snapshot.holdTime().count());
+    }
+
+    @Test
+    public void testSampled() {
+        LockStats stats = new LockStats("lock", 1000);
+        for (int i = 0; i < 10000; i++) {
+            long start = stats.beginWait();
+            stats.released(stats.endWait(start, true));
+        }
+        LockStats.Snapshot snapshot = stats.snapshot();
+        Assert.assertEquals(10000L, snapshot.acquisitions());
+        long sampled = snapshot.waitTime().count();
+        Assert.assertTrue("sampled " + sampled, sampled < 1000L);
+        Assert.assertEquals(sampled, snapshot.holdTime().count());
+    }
+
+    @Test
+    public void testReleaseNotSampled() {
+        LockStats stats = new LockStats("lock", 1);
+        stats.released(LockStats.NONE);
+        Assert.assertEquals(0L, stats.snapshot().holdTime().count());
+    }
+
+    @Test
+    public void testHistogram() {
+        LockStats stats = new LockStats("lock", 1);
+        long start = stats.beginWait();
+        long acquiredAt = stats.endWait(start, true);
+        stats.released(acquiredAt - TimeUnit.MILLISECONDS.toNanos(10L));
+
+        LockStats.HistogramSnapshot hold = stats.snapshot().holdTime();
+        Assert.assertEquals(1L, hold.count());
+        Assert.assertGte(TimeUnit.MILLISECONDS.toNanos(10L), hold.max());
+        Assert.assertEquals(hold.sum(), hold.mean());
+        Assert.assertEquals(hold.max(), hold.percentile(100.0));
+        Assert.assertLte(hold.max(), hold.percentile(50.0));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            hold.percentile(0.0);
+        }, e -> {
+            Assert.assertContains("The percentile must be in (0, 100]",
+                                  e.getMessage());
+        });
+
+        LockStats.HistogramSnapshot empty = new LockStats("lock", 1)
+                                            .snapshot().holdTime();
+        Assert.assertEquals(0L, empty.count());
+        Assert.assertEquals(0L, empty.mean());
+        Assert.assertEquals(0L, empty.percentile(99.0));
+    }
+
+    @Test
+    public void testWaiting() throws InterruptedException {
+        LockStats stats = new LockStats("lock", 1);
+        CountDownLatch began = new CountDownLatch(3);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                long start = stats.beginWait();
+                began.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException ignored) {
+                    // Ignore
+                }
+                stats.endWait(start, true);
+            });
+            threads[i].start();
+        }
+        began.await();
+        Assert.assertEquals(3L, stats.snapshot().waiting());
+        done.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0L, stats.snapshot().waiting());
+        Assert.assertEquals(3L, stats.snapshot().acquisitions());
+    }
+}
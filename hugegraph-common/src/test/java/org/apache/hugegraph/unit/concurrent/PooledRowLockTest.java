@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.concurrent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.concurrent.PooledRowLock;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import com.google.common.collect.ImmutableSet;
+
+public class PooledRowLockTest extends BaseUnitTest {
+
+    private static final int THREADS_NUM = 8;
+
+    @Test
+    public void testPooledRowLock() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+        // Regular lock and unlock
+        lock.lock(1);
+        lock.unlock(1);
+
+        // Lock one lock multiple times
+        lock.lock(1);
+        lock.lock(1);
+        lock.unlock(1);
+        lock.unlock(1);
+
+        // Unlock one lock multiple times
+        lock.lock(1);
+        lock.unlock(1);
+        lock.unlock(1);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.lock(null);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.unlock(null);
+        }, e -> {
+            Assert.assertContains("Unlock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testPooledRowLockMultiRows() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+        lock.lockAll(ImmutableSet.of(1, 2, 3));
+        lock.unlockAll(ImmutableSet.of(1, 2, 3));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.lockAll(null);
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.unlockAll(null);
+        }, e -> {
+            Assert.assertContains("Unlock keys can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.lockAll(ImmutableSet.of());
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.unlockAll(ImmutableSet.of());
+        }, e -> {
+            Assert.assertContains("Unlock keys can't be null or empty",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testPooledRowLockWithMultiThreads() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+        Set<String> names = new HashSet<>(THREADS_NUM);
+        List<Integer> keys = new ArrayList<>(5);
+        Random random = new Random();
+        for (int i = 0; i < 5; i++) {
+            keys.add(random.nextInt(THREADS_NUM));
+        }
+
+        Assert.assertEquals(0, names.size());
+
+        runWithThreads(THREADS_NUM, () -> {
+            lock.lockAll(new HashSet<>(keys));
+            names.add(Thread.currentThread().getName());
+            lock.unlockAll(new HashSet<>(keys));
+        });
+
+        Assert.assertEquals(THREADS_NUM, names.size());
+    }
+
+    @Test
+    public void testPooledRowLockWithMultiThreadsLockOneKey() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+        Set<String> names = new HashSet<>(THREADS_NUM);
+
+        Assert.assertEquals(0, names.size());
+
+        Integer key = 1;
+        runWithThreads(THREADS_NUM, () -> {
+            lock.lock(key);
+            names.add(Thread.currentThread().getName());
+            lock.unlock(key);
+        });
+
+        Assert.assertEquals(THREADS_NUM, names.size());
+    }
+
+    @Test
+    public void testPooledRowLockWithMultiThreadsWithRandomKey() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+        Set<String> names = new HashSet<>(THREADS_NUM);
+
+        Assert.assertEquals(0, names.size());
+
+        runWithThreads(THREADS_NUM, () -> {
+            List<Integer> keys = new ArrayList<>(5);
+            Random random = new Random();
+            for (int i = 0; i < 5; i++) {
+                keys.add(random.nextInt(THREADS_NUM));
+            }
+            lock.lockAll(new HashSet<>(keys));
+            names.add(Thread.currentThread().getName());
+            lock.unlockAll(new HashSet<>(keys));
+        });
+
+        Assert.assertEquals(THREADS_NUM, names.size());
+    }
+
+    @Test
+    public void testPooledRowLockTryLock() throws InterruptedException {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+
+        Assert.assertTrue(lock.tryLock(1, 0L, TimeUnit.MILLISECONDS));
+        try {
+            // Lock one lock multiple times
+            Assert.assertTrue(lock.tryLock(1, 0L, TimeUnit.MILLISECONDS));
+            lock.unlock(1);
+            // Lock in other threads is timeout
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertFalse(lock.tryLock(1, 10L,
+                                                    TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            lock.unlock(1);
+        }
+        Assert.assertEquals(1L, lock.timeouts());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.tryLock(null, 0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testPooledRowLockTryLockAll() throws InterruptedException {
+        PooledRowLock<Integer> lock = new PooledRowLock<>();
+        Set<Integer> keys = ImmutableSet.of(3, 1, 2);
+
+        Assert.assertTrue(lock.tryLockAll(keys, 0L, TimeUnit.MILLISECONDS));
+        lock.unlockAll(keys);
+
+        lock.lock(3);
+        try {
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertFalse(lock.tryLockAll(keys, 10L,
+                                                       TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Assert.assertEquals(1L, lock.timeouts());
+
+            // The keys locked before timeout have been released
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertTrue(lock.tryLockAll(ImmutableSet.of(1, 2),
+                                                      0L, TimeUnit.SECONDS));
+                    lock.unlockAll(ImmutableSet.of(1, 2));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            lock.unlock(3);
+        }
+
+        // Rollback if interrupted
+        lock.lock(2);
+        try {
+            runWithThreads(1, () -> {
+                Thread.currentThread().interrupt();
+                Assert.assertThrows(InterruptedException.class, () -> {
+                    lock.tryLockAll(keys, 1L, TimeUnit.SECONDS);
+                });
+            });
+        } finally {
+            lock.unlock(2);
+        }
+        runWithThreads(1, () -> {
+            lock.lockAll(keys);
+            lock.unlockAll(keys);
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.tryLockAll(null, 0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testPooledRowLockRecycle() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>(4);
+        Assert.assertEquals(0, lock.size());
+
+        lock.lock(1);
+        lock.lock(2);
+        Assert.assertEquals(2, lock.size());
+        lock.unlock(1);
+        Assert.assertEquals(1, lock.size());
+        lock.unlock(2);
+        Assert.assertEquals(0, lock.size());
+
+        // Reentrant lock keeps the entry until the last unlock
+        lock.lock(1);
+        lock.lock(1);
+        lock.unlock(1);
+        Assert.assertEquals(1, lock.size());
+        lock.unlock(1);
+        Assert.assertEquals(0, lock.size());
+
+        // Unlock a row not locked by current thread is ignored
+        lock.lock(1);
+        runWithThreads(1, () -> {
+            lock.unlock(1);
+        });
+        Assert.assertEquals(1, lock.size());
+        lock.unlock(1);
+        Assert.assertEquals(0, lock.size());
+    }
+
+    @Test
+    public void testPooledRowLockMutualExclusion() {
+        PooledRowLock<Integer> lock = new PooledRowLock<>(2);
+        int[] counters = new int[4];
+        AtomicInteger holders = new AtomicInteger();
+
+        runWithThreads(THREADS_NUM, () -> {
+            Random random = new Random();
+            for (int i = 0; i < 10000; i++) {
+                int key = random.nextInt(counters.length);
+                lock.lock(key);
+                try {
+                    if (key == 0) {
+                        Assert.assertEquals(1, holders.incrementAndGet());
+                        holders.decrementAndGet();
+                    }
+                    counters[key]++;
+                } finally {
+                    lock.unlock(key);
+                }
+            }
+        });
+
+        int sum = 0;
+        for (int counter : counters) {
+            sum += counter;
+        }
+        Assert.assertEquals(THREADS_NUM * 10000, sum);
+        Assert.assertEquals(0, lock.size());
+    }
+}
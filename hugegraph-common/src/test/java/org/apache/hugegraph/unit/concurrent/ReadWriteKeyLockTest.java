@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.concurrent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.concurrent.ReadWriteKeyLock;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+
+public class ReadWriteKeyLockTest extends BaseUnitTest {
+
+    private static final int THREADS_NUM = 8;
+
+    @Test
+    public void testReadLockUnlock() throws InterruptedException {
+        ReadWriteKeyLock locks = new ReadWriteKeyLock();
+
+        AtomicBoolean written = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            locks.writeLock("1");
+            written.set(true);
+            locks.writeUnlock("1");
+        });
+
+        locks.readLock("1");
+        try {
+            // Read lock in other threads is OK
+            runWithThreads(THREADS_NUM, () -> {
+                locks.readLock("1");
+                locks.readUnlock("1");
+            });
+            // Write lock in other threads is blocked
+            writer.start();
+            writer.join(100L);
+            Assert.assertFalse(written.get());
+        } finally {
+            locks.readUnlock("1");
+        }
+        writer.join();
+        Assert.assertTrue(written.get());
+
+        Assert.assertThrows(IllegalMonitorStateException.class, () -> {
+            locks.readUnlock("1");
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.readLock(null);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.readUnlock(null);
+        }, e -> {
+            Assert.assertContains("Unlock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testWriteLockUnlock() {
+        ReadWriteKeyLock locks = new ReadWriteKeyLock();
+
+        locks.writeLock("1");
+        try {
+            // lock again is OK
+            locks.writeLock("1");
+            // Downgrade to read lock is OK
+            locks.readLock("1");
+            locks.readUnlock("1");
+            locks.writeUnlock("1");
+        } finally {
+            locks.writeUnlock("1");
+        }
+
+        Assert.assertThrows(IllegalMonitorStateException.class, () -> {
+            locks.writeUnlock("1");
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.writeLock(null);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.writeUnlock(null);
+        }, e -> {
+            Assert.assertContains("Unlock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testLockUnlockAll() {
+        ReadWriteKeyLock locks = new ReadWriteKeyLock(4);
+
+        List<Lock> ls = locks.readLockAll("1", 2, 3, "1");
+        Assert.assertTrue(ls.size() <= 3);
+        locks.unlockAll(ls);
+
+        ls = locks.writeLockAll("1", 2, 3, "1");
+        Assert.assertTrue(ls.size() <= 3);
+        locks.unlockAll(ls);
+
+        ReadWriteKeyLock single = new ReadWriteKeyLock(1);
+        ls = single.writeLockAll("1", 2, 3);
+        Assert.assertEquals(1, ls.size());
+        single.unlockAll(ls);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.readLockAll("1", null);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.writeLockAll();
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            locks.unlockAll(null);
+        }, e -> {
+            Assert.assertContains("Unlock locks can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testWriteLockAllWithMultiThreads() {
+        ReadWriteKeyLock locks = new ReadWriteKeyLock(8);
+        int[] shared = new int[1];
+        int times = 1000;
+
+        runWithThreads(THREADS_NUM, () -> {
+            for (int i = 0; i < times; i++) {
+                Object[] keys = i % 2 == 0 ? new Object[]{"a", "b", 1} :
+                                             new Object[]{1, "b", "a"};
+                List<Lock> ls = locks.writeLockAll(keys);
+                try {
+                    shared[0]++;
+                } finally {
+                    locks.unlockAll(ls);
+                }
+            }
+        });
+
+        Assert.assertEquals(THREADS_NUM * times, shared[0]);
+    }
+}
@@ -18,15 +18,19 @@
 package org.apache.hugegraph.unit.concurrent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import org.apache.hugegraph.concurrent.RowLock;
 import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.testutil.Whitebox;
 import org.apache.hugegraph.unit.BaseUnitTest;
 import com.google.common.collect.ImmutableSet;
 
@@ -156,4 +160,117 @@ public class RowLockTest extends BaseUnitTest {
 
         Assert.assertEquals(THREADS_NUM, names.size());
     }
+
+    @Test
+    public void testRowLockTryLock() throws InterruptedException {
+        RowLock<Integer> lock = new RowLock<>();
+
+        Assert.assertTrue(lock.tryLock(1, 0L, TimeUnit.MILLISECONDS));
+        try {
+            // Lock one lock multiple times
+            Assert.assertTrue(lock.tryLock(1, 0L, TimeUnit.MILLISECONDS));
+            lock.unlock(1);
+            // Lock in other threads is timeout
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertFalse(lock.tryLock(1, 10L,
+                                                    TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            lock.unlock(1);
+        }
+        Assert.assertEquals(1L, lock.timeouts());
+
+        // The lock of a key is not left in the map if it can't be locked
+        runWithThreads(1, () -> {
+            Thread.currentThread().interrupt();
+            Assert.assertThrows(InterruptedException.class, () -> {
+                lock.tryLock(2, 1L, TimeUnit.SECONDS);
+            });
+        });
+        Map<Integer, ?> locks = Whitebox.getInternalState(lock, "locks");
+        Assert.assertEquals(0, locks.size());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.tryLock(null, 0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testRowLockTryLockAll() throws InterruptedException {
+        RowLock<Integer> lock = new RowLock<>();
+        Set<Integer> keys = ImmutableSet.of(3, 1, 2);
+
+        Assert.assertTrue(lock.tryLockAll(keys, 0L, TimeUnit.MILLISECONDS));
+        lock.unlockAll(keys);
+
+        lock.lock(3);
+        try {
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertFalse(lock.tryLockAll(keys, 10L,
+                                                       TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Assert.assertEquals(1L, lock.timeouts());
+
+            // The keys locked before timeout have been released
+            runWithThreads(1, () -> {
+                try {
+                    Assert.assertTrue(lock.tryLockAll(ImmutableSet.of(1, 2),
+                                                      0L, TimeUnit.SECONDS));
+                    lock.unlockAll(ImmutableSet.of(1, 2));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            lock.unlock(3);
+        }
+
+        // Rollback if interrupted
+        lock.lock(2);
+        try {
+            runWithThreads(1, () -> {
+                Thread.currentThread().interrupt();
+                Assert.assertThrows(InterruptedException.class, () -> {
+                    lock.tryLockAll(keys, 1L, TimeUnit.SECONDS);
+                });
+            });
+        } finally {
+            lock.unlock(2);
+        }
+        runWithThreads(1, () -> {
+            lock.lockAll(keys);
+            lock.unlockAll(keys);
+        });
+
+        Map<Integer, ?> locks = Whitebox.getInternalState(lock, "locks");
+        Assert.assertEquals(0, locks.size());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.tryLockAll(null, 0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock keys can't be null or empty",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.tryLockAll(new HashSet<>(Arrays.asList(1, null)),
+                            0L, TimeUnit.MILLISECONDS);
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            lock.lockAll(new HashSet<>(Arrays.asList(1, null)));
+        }, e -> {
+            Assert.assertContains("Lock key can't be null", e.getMessage());
+        });
+    }
 }
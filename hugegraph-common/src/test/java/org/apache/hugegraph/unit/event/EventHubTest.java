@@ -17,6 +17,13 @@
 
 package org.apache.hugegraph.unit.event;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
@@ -459,4 +466,378 @@ public class EventHubTest extends BaseUnitTest {
             }
         });
     }
+
+    @Test
+    public void testOwnExecutorWithInvalidArgs() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new EventHub("own", 0, 1, EventHub.Backpressure.BLOCK);
+        }, e -> {
+            Assert.assertContains("The thread size must be > 0",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new EventHub("own", 1, 0, EventHub.Backpressure.BLOCK);
+        }, e -> {
+            Assert.assertContains("The queue capacity must be > 0",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            new EventHub("own", 1, 1, null);
+        });
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            this.eventHub.shutdown(1L);
+        }, e -> {
+            Assert.assertContains("doesn't own an executor", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testOwnExecutorWithBlock() throws Exception {
+        EventHub hub = new EventHub("own", 1, 1, EventHub.Backpressure.BLOCK);
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger count = new AtomicInteger();
+        hub.listen("event", event -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return count.incrementAndGet();
+        });
+
+        try {
+            // One is running and one is queued
+            hub.notify("event");
+            hub.notify("event");
+            Thread notifier = new Thread(() -> {
+                hub.notify("event");
+            });
+            notifier.start();
+            notifier.join(100L);
+            Assert.assertTrue(notifier.isAlive());
+            Assert.assertEquals(1, hub.queueDepth());
+
+            blocked.countDown();
+            notifier.join();
+        } finally {
+            blocked.countDown();
+            Assert.assertTrue(hub.shutdown(10L));
+        }
+        Assert.assertEquals(3, count.get());
+        Assert.assertEquals(0L, hub.rejected());
+        Assert.assertEquals(0, hub.queueDepth());
+
+        Assert.assertThrows(RejectedExecutionException.class, () -> {
+            hub.notify("event");
+        }, e -> {
+            Assert.assertContains("has been shut down", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testOwnExecutorWithBlockAndShutdown() throws Exception {
+        EventHub hub = new EventHub("own", 1, 1, EventHub.Backpressure.BLOCK);
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger count = new AtomicInteger();
+        hub.listen("event", event -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return count.incrementAndGet();
+        });
+
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            hub.notify("event");
+            hub.notify("event");
+            Thread notifier = new Thread(() -> {
+                try {
+                    hub.notify("event");
+                } catch (RejectedExecutionException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+            notifier.start();
+            notifier.join(100L);
+            Assert.assertTrue(notifier.isAlive());
+
+            // Shut down while the notifier is blocked
+            Assert.assertFalse(hub.shutdown(0L));
+            blocked.countDown();
+            notifier.join();
+        } finally {
+            blocked.countDown();
+            Assert.assertTrue(hub.shutdown(10L));
+        }
+        // The blocked event is either delivered or rejected, never lost
+        Assert.assertEquals(3, count.get() + rejected.get());
+        Assert.assertEquals(0, hub.queueDepth());
+    }
+
+    @Test
+    public void testOwnExecutorWithPercentInName() throws Exception {
+        EventHub hub = new EventHub("own-%d-%s", 1, 1,
+                                    EventHub.Backpressure.REJECT);
+        hub.listen("event", event -> Thread.currentThread().getName());
+        try {
+            Future<Integer> future = hub.notify("event");
+            Assert.assertEquals(1, (int) future.get(10L, TimeUnit.SECONDS));
+        } finally {
+            Assert.assertTrue(hub.shutdown(10L));
+        }
+    }
+
+    @Test
+    public void testOwnExecutorWithDropOldest() throws Exception {
+        EventHub hub = new EventHub("own", 1, 1,
+                                    EventHub.Backpressure.DROP_OLDEST);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        hub.listen("event", event -> {
+            running.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return true;
+        });
+
+        try {
+            Future<Integer> first = hub.notify("event");
+            running.await();
+            Future<Integer> second = hub.notify("event");
+            Future<Integer> third = hub.notify("event");
+            Assert.assertEquals(1L, hub.rejected());
+            Assert.assertEquals(1, hub.queueDepth());
+            Assert.assertTrue(second.isCancelled());
+            Assert.assertThrows(CancellationException.class, () -> {
+                second.get();
+            });
+
+            blocked.countDown();
+            Assert.assertEquals(1, (int) first.get(10L, TimeUnit.SECONDS));
+            Assert.assertEquals(1, (int) third.get(10L, TimeUnit.SECONDS));
+        } finally {
+            blocked.countDown();
+            Assert.assertTrue(hub.shutdown(10L));
+        }
+    }
+
+    @Test
+    public void testOwnExecutorWithReject() throws Exception {
+        EventHub hub = new EventHub("own", 1, 1, EventHub.Backpressure.REJECT);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        hub.listen("event", event -> {
+            running.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return true;
+        });
+
+        try {
+            hub.notify("event");
+            running.await();
+            Future<Integer> queued = hub.notify("event");
+            Assert.assertThrows(RejectedExecutionException.class, () -> {
+                hub.notify("event");
+            }, e -> {
+                Assert.assertContains("The event queue of EventHub 'own' " +
+                                      "is full", e.getMessage());
+            });
+            Assert.assertEquals(1L, hub.rejected());
+
+            blocked.countDown();
+            Assert.assertEquals(1, (int) queued.get(10L, TimeUnit.SECONDS));
+        } finally {
+            blocked.countDown();
+            Assert.assertTrue(hub.shutdown(10L));
+        }
+    }
+
+    @Test
+    public void testEventNotifySync() {
+        final String notify = "event-notify-sync";
+        Thread caller = Thread.currentThread();
+        AtomicInteger count = new AtomicInteger();
+
+        this.eventHub.listen(notify, event -> {
+            Assert.assertEquals(notify, event.name());
+            Assert.assertSame(caller, Thread.currentThread());
+            return count.incrementAndGet();
+        });
+        this.eventHub.listen(notify, event -> {
+            throw new IllegalStateException("listener error");
+        });
+
+        Assert.assertEquals(1, this.eventHub.notifySync(notify, "arg"));
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(0, this.eventHub.notifySync("event-none"));
+    }
+
+    @Test
+    public void testEventNotifyAll() throws Exception {
+        final String notify = "event-notify-all";
+        List<Object> received = new ArrayList<>();
+
+        this.eventHub.listen(notify, event -> {
+            synchronized (received) {
+                received.add(event.args()[0]);
+            }
+            return true;
+        });
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new Event(this.eventHub, notify, i));
+            events.add(new Event(this.eventHub, "event-none", i));
+        }
+        Future<Integer> future = this.eventHub.notifyAll(events);
+        Assert.assertEquals(100, (int) future.get(10L, TimeUnit.SECONDS));
+        Assert.assertEquals(100, received.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, received.get(i));
+        }
+
+        future = this.eventHub.notifyAll(ImmutableList.of(
+                 new Event(this.eventHub, "event-none")));
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(0, (int) future.get());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            this.eventHub.notifyAll(ImmutableList.of(new Event("fake",
+                                                               notify)));
+        }, e -> {
+            Assert.assertContains("The source of event 'event-notify-all' " +
+                                  "must be EventHub 'test'", e.getMessage());
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            this.eventHub.notifyAll(null);
+        });
+    }
+
+    @Test
+    public void testEventListenPrefix() {
+        List<String> received = new ArrayList<>();
+        EventListener cache = event -> received.add("cache:" + event.name());
+        EventListener cacheEdge = event -> {
+            return received.add("cache.edge:" + event.name());
+        };
+        EventListener all = event -> received.add("all:" + event.name());
+
+        this.eventHub.listenPrefix("cache.", cache);
+        this.eventHub.listenPrefix("cache.edge", cacheEdge);
+        this.eventHub.listenPrefix("", all);
+        this.eventHub.listen("cache.edge.clear", event -> {
+            return received.add("exact:" + event.name());
+        });
+        Assert.assertEquals(ImmutableList.of(cache),
+                            this.eventHub.prefixListeners("cache."));
+        Assert.assertEquals(ImmutableList.of(),
+                            this.eventHub.prefixListeners("cache"));
+
+        Assert.assertEquals(4, this.eventHub.notifySync("cache.edge.clear"));
+        Assert.assertEquals(ImmutableList.of("exact:cache.edge.clear",
+                                             "all:cache.edge.clear",
+                                             "cache:cache.edge.clear",
+                                             "cache.edge:cache.edge.clear"),
+                            received);
+
+        received.clear();
+        Assert.assertEquals(2, this.eventHub.notifySync("cache.vertex"));
+        Assert.assertEquals(ImmutableList.of("all:cache.vertex",
+                                             "cache:cache.vertex"),
+                            received);
+
+        received.clear();
+        Assert.assertEquals(1, this.eventHub.notifySync("cache"));
+        Assert.assertEquals(ImmutableList.of("all:cache"), received);
+
+        // The snapshots are rebuilt after unlisten
+        Assert.assertEquals(1, this.eventHub.unlistenPrefix("cache.", cache));
+        Assert.assertEquals(0, this.eventHub.unlistenPrefix("cache.", cache));
+        Assert.assertEquals(ImmutableList.of(all),
+                            this.eventHub.unlistenPrefix(""));
+        Assert.assertEquals(ImmutableList.of(),
+                            this.eventHub.unlistenPrefix(""));
+        Assert.assertEquals(0, this.eventHub.notifySync("cache.vertex"));
+        Assert.assertEquals(2, this.eventHub.notifySync("cache.edge.clear"));
+
+        Assert.assertEquals(ImmutableList.of(cacheEdge),
+                            this.eventHub.unlistenPrefix("cache.edge"));
+        Assert.assertEquals(1, this.eventHub.notifySync("cache.edge.clear"));
+
+        Assert.assertThrows(NullPointerException.class, () -> {
+            this.eventHub.listenPrefix(null, all);
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            this.eventHub.listenPrefix("cache.", null);
+        });
+    }
+
+    @Test
+    public void testEventListenPrefixWithWildcard() {
+        List<String> received = new ArrayList<>();
+        EventListener clear = event -> received.add("clear:" + event.name());
+        EventListener any = event -> received.add("any:" + event.name());
+        EventListener cache = event -> received.add("cache:" + event.name());
+
+        this.eventHub.listenPrefix("cache.*.clear", clear);
+        this.eventHub.listenPrefix("*.edge", any);
+        this.eventHub.listenPrefix("cache*", cache);
+        Assert.assertEquals(ImmutableList.of(clear),
+                            this.eventHub.prefixListeners("cache.*.clear"));
+
+        Assert.assertEquals(3, this.eventHub.notifySync("cache.edge.clear"));
+        Assert.assertEquals(ImmutableList.of("cache:cache.edge.clear",
+                                             "any:cache.edge.clear",
+                                             "clear:cache.edge.clear"),
+                            received);
+
+        // The wildcard matches a segment of any length, even an empty one
+        received.clear();
+        Assert.assertEquals(2, this.eventHub.notifySync("cache..clear.all"));
+        Assert.assertEquals(ImmutableList.of("cache:cache..clear.all",
+                                             "clear:cache..clear.all"),
+                            received);
+
+        // The wildcard doesn't match the separator
+        received.clear();
+        Assert.assertEquals(0, this.eventHub.notifySync("graph.vertex.edge"));
+        Assert.assertEquals(1, this.eventHub.notifySync("cachex.a.b.clear"));
+        Assert.assertEquals(ImmutableList.of("cache:cachex.a.b.clear"),
+                            received);
+
+        Assert.assertEquals(1, this.eventHub.unlistenPrefix("cache.*.clear",
+                                                            clear));
+        Assert.assertEquals(2, this.eventHub.notifySync("cache.edge.clear"));
+    }
+
+    @Test
+    public void testEventListenersSnapshotRebuilt() {
+        final String notify = "event-snapshot";
+        AtomicInteger count = new AtomicInteger();
+        EventListener listener = event -> count.incrementAndGet();
+
+        Assert.assertEquals(0, this.eventHub.notifySync(notify));
+
+        this.eventHub.listen(notify, listener);
+        Assert.assertEquals(1, this.eventHub.notifySync(notify));
+
+        this.eventHub.listen(EventHub.ANY_EVENT, listener);
+        Assert.assertEquals(2, this.eventHub.notifySync(notify));
+
+        Assert.assertEquals(1, this.eventHub.unlisten(notify, listener));
+        Assert.assertEquals(1, this.eventHub.notifySync(notify));
+
+        this.eventHub.unlisten(EventHub.ANY_EVENT);
+        Assert.assertEquals(0, this.eventHub.notifySync(notify));
+        Assert.assertEquals(4, count.get());
+    }
 }
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hugegraph.event.Event;
+import org.apache.hugegraph.event.EventHub;
+import org.apache.hugegraph.event.ShardedEventDispatcher;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+
+public class ShardedEventDispatcherTest extends BaseUnitTest {
+
+    private static final int THREADS_NUM = 8;
+
+    private ShardedEventDispatcher dispatcher;
+    private EventHub eventHub;
+
+    @Before
+    public void setup() {
+        this.dispatcher = new ShardedEventDispatcher("test", 4, 16);
+        this.eventHub = new EventHub("test", this.dispatcher);
+        Assert.assertEquals("test", this.dispatcher.name());
+        Assert.assertEquals(4, this.dispatcher.shards());
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        this.dispatcher.shutdown();
+        Assert.assertTrue(this.dispatcher.awaitTermination(10L,
+                                                           TimeUnit.SECONDS));
+        Assert.assertTrue(this.dispatcher.terminated());
+    }
+
+    @Test
+    public void testInvalidArgs() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ShardedEventDispatcher("test", 0, 16);
+        }, e -> {
+            Assert.assertContains("The shards must be > 0", e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ShardedEventDispatcher("test", 1, 0);
+        }, e -> {
+            Assert.assertContains("The buffer size must be in (0, 2^30]",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            new EventHub("test", null);
+        });
+    }
+
+    @Test
+    public void testNotify() throws Exception {
+        final String notify = "event-notify";
+        AtomicInteger count = new AtomicInteger();
+
+        this.eventHub.listen(notify, event -> {
+            Assert.assertEquals(notify, event.name());
+            Assert.assertArrayEquals(new Object[]{"arg"}, event.args());
+            return count.incrementAndGet();
+        });
+        this.eventHub.listen(EventHub.ANY_EVENT, event -> {
+            return count.incrementAndGet();
+        });
+
+        Future<Integer> future = this.eventHub.notify(notify, "arg");
+        Assert.assertEquals(2, (int) future.get(10L, TimeUnit.SECONDS));
+        Assert.assertEquals(2, count.get());
+
+        future = this.eventHub.notify("event-other", "arg");
+        Assert.assertEquals(1, (int) future.get(10L, TimeUnit.SECONDS));
+        Assert.assertEquals(3, count.get());
+    }
+
+    @Test
+    public void testNotifyWithoutListener() throws Exception {
+        Future<Integer> future = this.eventHub.notify("event-none");
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(0, (int) future.get());
+    }
+
+    @Test
+    public void testNotifyWithListenerError() throws Exception {
+        final String notify = "event-error";
+        this.eventHub.listen(notify, event -> {
+            throw new IllegalStateException("listener error");
+        });
+        this.eventHub.listen(notify, event -> true);
+
+        Future<Integer> future = this.eventHub.notify(notify);
+        Assert.assertEquals(1, (int) future.get(10L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNotifyInOrderWithMultiThreads()
+                                          throws InterruptedException {
+        final int events = 4;
+        final int times = 2000;
+        // The last sequence received of each event from each thread
+        int[][] received = new int[events][THREADS_NUM];
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger count = new AtomicInteger();
+
+        for (int i = 0; i < events; i++) {
+            int[] last = received[i];
+            this.eventHub.listen("event-" + i, event -> {
+                int thread = (int) event.args()[0];
+                int sequence = (int) event.args()[1];
+                if (sequence != last[thread] + 1) {
+                    outOfOrder.incrementAndGet();
+                }
+                last[thread] = sequence;
+                return count.incrementAndGet();
+            });
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        runWithThreads(THREADS_NUM, () -> {
+            int thread = threads.getAndIncrement();
+            Future<Integer> future = null;
+            for (int i = 0; i < times; i++) {
+                future = this.eventHub.notify("event-" + (i % events),
+                                              thread, i / events + 1);
+            }
+            synchronized (futures) {
+                futures.add(future);
+            }
+        });
+
+        for (Future<Integer> future : futures) {
+            try {
+                future.get(10L, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+        // Wait for the events of other shards
+        this.dispatcher.shutdown();
+        Assert.assertTrue(this.dispatcher.awaitTermination(10L,
+                                                           TimeUnit.SECONDS));
+        Assert.assertEquals(0L, this.dispatcher.pending());
+        Assert.assertEquals(THREADS_NUM * times, count.get());
+        Assert.assertEquals(0, outOfOrder.get());
+    }
+
+    @Test
+    public void testNotifyWithFullBuffer() throws Exception {
+        ShardedEventDispatcher dispatcher = new ShardedEventDispatcher(
+                                            "full", 1, 2);
+        EventHub hub = new EventHub("full", dispatcher);
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger count = new AtomicInteger();
+        hub.listen("event", event -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return count.incrementAndGet();
+        });
+
+        try {
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    hub.notify("event", i);
+                }
+            });
+            publisher.start();
+            publisher.join(100L);
+            // Blocked since the listener is blocked and the buffer is full
+            Assert.assertTrue(publisher.isAlive());
+            Assert.assertGte(2L, dispatcher.pending());
+
+            blocked.countDown();
+            publisher.join();
+        } finally {
+            dispatcher.shutdown();
+        }
+        Assert.assertTrue(dispatcher.awaitTermination(10L, TimeUnit.SECONDS));
+        Assert.assertEquals(10, count.get());
+    }
+
+    @Test
+    public void testShutdownWithFullBuffer() throws Exception {
+        ShardedEventDispatcher dispatcher = new ShardedEventDispatcher(
+                                            "full", 1, 2);
+        EventHub hub = new EventHub("full", dispatcher);
+        CountDownLatch blocked = new CountDownLatch(1);
+        hub.listen("event", event -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return true;
+        });
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread publisher = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10; i++) {
+                    hub.notify("event", i);
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        try {
+            publisher.start();
+            publisher.join(100L);
+            Assert.assertTrue(publisher.isAlive());
+
+            // The parked publisher is rejected once shut down
+            dispatcher.shutdown();
+            publisher.join(10000L);
+            Assert.assertFalse(publisher.isAlive());
+            Assert.assertInstanceOf(RejectedExecutionException.class,
+                                    error.get());
+        } finally {
+            blocked.countDown();
+            dispatcher.shutdown();
+        }
+        Assert.assertTrue(dispatcher.awaitTermination(10L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNotifyAfterShutdown() throws InterruptedException,
+                                                 ExecutionException {
+        this.eventHub.listen("event", event -> true);
+        this.dispatcher.shutdown();
+
+        Assert.assertThrows(RejectedExecutionException.class, () -> {
+            this.eventHub.notify("event");
+        }, e -> {
+            Assert.assertContains("has been shut down", e.getMessage());
+        });
+        // Not rejected if there is no listener
+        Assert.assertEquals(0, (int) this.eventHub.notify("none").get());
+    }
+
+    @Test
+    public void testNotifyAll() throws Exception {
+        List<Object> received = new ArrayList<>();
+        this.eventHub.listen("event", event -> {
+            received.add(event.args()[0]);
+            return true;
+        });
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new Event(this.eventHub, "event", i));
+        }
+        Future<Integer> future = this.eventHub.notifyAll(events);
+        Assert.assertEquals(100, (int) future.get(10L, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    public void testNotifyAllAfterShutdown() {
+        AtomicInteger count = new AtomicInteger();
+        this.eventHub.listen(EventHub.ANY_EVENT, event -> {
+            count.incrementAndGet();
+            return true;
+        });
+        this.dispatcher.shutdown();
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(new Event(this.eventHub, "event" + i));
+        }
+        Assert.assertThrows(RejectedExecutionException.class, () -> {
+            this.eventHub.notifyAll(events);
+        }, e -> {
+            Assert.assertContains("has been shut down", e.getMessage());
+        });
+        Assert.assertEquals(0L, this.dispatcher.pending());
+        Assert.assertEquals(0, count.get());
+    }
+}
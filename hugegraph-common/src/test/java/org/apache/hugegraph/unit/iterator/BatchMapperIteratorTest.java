@@ -324,6 +324,47 @@ public class BatchMapperIteratorTest extends BaseUnitTest {
         Assert.assertFalse(results.hasNext());
     }
 
+    @Test
+    public void testReuseBuffer() {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> copies = new ArrayList<>();
+        Iterator<Integer> results;
+        results = new BatchMapperIterator<>(2, DATA3.iterator(), batch -> {
+            batches.add(batch);
+            copies.addAll(batch);
+            return batch.iterator();
+        }, true);
+
+        Assert.assertEquals(ImmutableList.of(4, 5, 6),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(ImmutableList.of(4, 5, 6), copies);
+        Assert.assertEquals(2, batches.size());
+        // The same buffer is refilled for each batch and cleared at last
+        Assert.assertSame(batches.get(0), batches.get(1));
+        Assert.assertEquals(0, batches.get(0).size());
+
+        results = new BatchMapperIterator<>(2, EMPTY, MAPPER, true);
+        Assert.assertFalse(results.hasNext());
+
+        results = new BatchMapperIterator<>(Integer.MAX_VALUE,
+                                            DATA3.iterator(), MAPPER, true);
+        Assert.assertEquals(ImmutableList.of(4, 5, 6),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testReuseBufferWithMapperReturnNull() {
+        Iterator<Integer> results;
+        results = new BatchMapperIterator<>(1, DATA3.iterator(), batch -> {
+            if (batch.get(0) == 5) {
+                return null;
+            }
+            return batch.iterator();
+        }, true);
+        Assert.assertEquals(ImmutableList.of(4, 6),
+                            ImmutableList.copyOf(results));
+    }
+
     @Test
     public void testClose() throws Exception {
         CloseableItor<Integer> vals = new CloseableItor<>(DATA1.iterator());
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.CIter;
+import org.apache.hugegraph.iterator.CIterSpliterator;
+import org.apache.hugegraph.iterator.ExtendableIterator;
+import org.apache.hugegraph.iterator.MapperIterator;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class CIterSpliteratorTest extends BaseUnitTest {
+
+    private static final int SUB_ITERATORS = 8;
+    private static final int SUB_SIZE = 1000;
+
+    @Test
+    public void testStream() {
+        CloseableItor<Integer> origin = new CloseableItor<>(
+                                        range(0, 10).iterator());
+        CIter<Integer> iter = new MapperIterator<>(origin, i -> i * 2);
+        try (Stream<Integer> stream = iter.stream()) {
+            Assert.assertFalse(stream.isParallel());
+            Assert.assertEquals(ImmutableList.of(0, 4, 8, 12, 16),
+                                stream.filter(i -> i % 4 == 0)
+                                      .collect(Collectors.toList()));
+            Assert.assertFalse(origin.closed());
+        }
+        Assert.assertTrue(origin.closed());
+    }
+
+    @Test
+    public void testParallelStream() {
+        List<CloseableItor<Integer>> origins = new ArrayList<>();
+        ExtendableIterator<Integer> iter = new ExtendableIterator<>();
+        for (int i = 0; i < SUB_ITERATORS; i++) {
+            CloseableItor<Integer> origin = new CloseableItor<>(
+                                            range(i * SUB_SIZE,
+                                                  (i + 1) * SUB_SIZE)
+                                            .iterator());
+            origins.add(origin);
+            iter.extend(origin);
+        }
+
+        List<Integer> results;
+        try (Stream<Integer> stream = iter.parallelStream()) {
+            Assert.assertTrue(stream.isParallel());
+            results = stream.map(i -> i + 1).collect(Collectors.toList());
+        }
+        // The order is kept
+        Assert.assertEquals(range(1, SUB_ITERATORS * SUB_SIZE + 1), results);
+        for (CloseableItor<Integer> origin : origins) {
+            Assert.assertTrue(origin.closed());
+        }
+    }
+
+    @Test
+    public void testParallelStreamWithShortCircuit() {
+        List<CloseableItor<Integer>> origins = new ArrayList<>();
+        ExtendableIterator<Integer> iter = new ExtendableIterator<>();
+        for (int i = 0; i < SUB_ITERATORS; i++) {
+            CloseableItor<Integer> origin = new CloseableItor<>(
+                                            range(0, SUB_SIZE).iterator());
+            origins.add(origin);
+            iter.extend(origin);
+        }
+
+        try (Stream<Integer> stream = iter.parallelStream()) {
+            Assert.assertTrue(stream.anyMatch(i -> i == 10));
+        }
+        // Including the sub iterators not consumed
+        for (CloseableItor<Integer> origin : origins) {
+            Assert.assertTrue(origin.closed());
+        }
+    }
+
+    @Test
+    public void testSplitExtendableIterator() {
+        ExtendableIterator<Integer> iter = new ExtendableIterator<>();
+        for (int i = 0; i < 4; i++) {
+            iter.extend(range(i * 10, (i + 1) * 10).iterator());
+        }
+        Spliterator<Integer> spliterator = new CIterSpliterator<>(iter);
+        Assert.assertEquals(Spliterator.ORDERED,
+                            spliterator.characteristics());
+
+        // Split at the boundary of sub iterators
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Spliterator<Integer> prefix2 = prefix.trySplit();
+        Assert.assertEquals(range(0, 10), drain(prefix2));
+        Assert.assertEquals(range(10, 20), drain(prefix));
+
+        Assert.assertTrue(spliterator.tryAdvance(i -> {
+            Assert.assertEquals(20, (int) i);
+        }));
+        // Split by batch after iterating
+        prefix = spliterator.trySplit();
+        Assert.assertEquals(range(21, 40), drain(prefix));
+        Assert.assertNull(spliterator.trySplit());
+        Assert.assertFalse(spliterator.tryAdvance(i -> {
+            Assert.fail("Unexpected element: " + i);
+        }));
+    }
+
+    @Test
+    public void testSplitByBatch() {
+        CIter<Integer> iter = new MapperIterator<>(range(0, 3000).iterator(),
+                                                   i -> i);
+        Spliterator<Integer> spliterator = new CIterSpliterator<>(iter);
+
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Assert.assertEquals(1024L, prefix.estimateSize());
+        Assert.assertEquals(range(0, 1024), drain(prefix));
+        prefix = spliterator.trySplit();
+        Assert.assertEquals(range(1024, 3000), drain(prefix));
+        Assert.assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void testCloseWithException() {
+        CloseableItor<Integer> origin = new CloseableItor<>(
+                                        range(0, 10).iterator());
+        // The last sub iterator is closed by the stream instead of fetch()
+        ExtendableIterator<Integer> iter = new ExtendableIterator<>(
+                                           origin, new FailedCloseItor());
+        Stream<Integer> stream = iter.stream();
+        Assert.assertEquals(10L, stream.count());
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            stream.close();
+        }, e -> {
+            Assert.assertContains("Failed to close iterator", e.getMessage());
+            Assert.assertContains("Failed to close",
+                                  e.getCause().getMessage());
+        });
+        Assert.assertTrue(origin.closed());
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> drain(Spliterator<Integer> spliterator) {
+        List<Integer> list = new ArrayList<>();
+        spliterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    private static class FailedCloseItor implements Iterator<Integer>,
+                                                    AutoCloseable {
+
+        @Override
+        public boolean hasNext() {
+            return false;
+        }
+
+        @Override
+        public Integer next() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws Exception {
+            throw new Exception("Failed to close");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.ChunkedFilterIterator;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class ChunkedFilterIteratorTest extends BaseUnitTest {
+
+    private static final List<Integer> DATA = IntStream.range(0, 100).boxed()
+                                                       .collect(Collectors
+                                                       .toList());
+
+    @Test
+    public void testFilter() {
+        for (int chunk : new int[]{1, 3, 64, 1000}) {
+            Iterator<Integer> results = new ChunkedFilterIterator<>(
+                                        DATA.iterator(), i -> i % 7 == 0,
+                                        chunk);
+            Assert.assertEquals(ImmutableList.of(0, 7, 14, 21, 28, 35, 42,
+                                                 49, 56, 63, 70, 77, 84,
+                                                 91, 98),
+                                ImmutableList.copyOf(results));
+        }
+
+        Iterator<Integer> results = new ChunkedFilterIterator<>(
+                                    DATA.iterator(), i -> true);
+        Assert.assertEquals(DATA, ImmutableList.copyOf(results));
+
+        // The chunks without kept elements are skipped
+        results = new ChunkedFilterIterator<>(DATA.iterator(),
+                                              i -> i == 99, 4);
+        Assert.assertEquals(ImmutableList.of(99),
+                            ImmutableList.copyOf(results));
+
+        Iterator<Integer> results2 = new ChunkedFilterIterator<>(
+                                     DATA.iterator(), i -> false);
+        Assert.assertFalse(results2.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results2.next();
+        });
+
+        results = new ChunkedFilterIterator<>(Collections.emptyIterator(),
+                                              i -> true);
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testFilterWithNull() {
+        Iterator<Integer> results = new ChunkedFilterIterator<>(
+                                    Arrays.asList(null, 1, null, 2)
+                                          .iterator(), i -> true, 3);
+        Assert.assertEquals(ImmutableList.of(1, 2),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testFilterByChunk() {
+        AtomicInteger read = new AtomicInteger();
+        Iterator<Integer> origin = new Iterator<Integer>() {
+            private final Iterator<Integer> iter = DATA.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return this.iter.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                read.incrementAndGet();
+                return this.iter.next();
+            }
+        };
+        Iterator<Integer> results = new ChunkedFilterIterator<>(
+                                    origin, i -> true, 10);
+        Assert.assertEquals(0, (int) results.next());
+        Assert.assertEquals(10, read.get());
+        for (int i = 1; i < 10; i++) {
+            Assert.assertEquals(i, (int) results.next());
+        }
+        Assert.assertEquals(10, read.get());
+        Assert.assertEquals(10, (int) results.next());
+        Assert.assertEquals(20, read.get());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<Integer> vals = new CloseableItor<>(DATA.iterator());
+        ChunkedFilterIterator<Integer> results = new ChunkedFilterIterator<>(
+                                                 vals, i -> true);
+        Assert.assertFalse(vals.closed());
+        results.close();
+        Assert.assertTrue(vals.closed());
+    }
+
+    @Test
+    public void testInvalidChunk() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ChunkedFilterIterator<>(DATA.iterator(), i -> true, 0);
+        }, e -> {
+            Assert.assertContains("Expect chunk > 0, but got 0",
+                                  e.getMessage());
+        });
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.ChunkedFlatMapperIterator;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.testutil.Whitebox;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class ChunkedFlatMapperIteratorTest extends BaseUnitTest {
+
+    private static final List<Integer> DATA = ImmutableList.of(1, 2, 3, 4);
+
+    // Map n into n copies of n
+    private static final BiConsumer<Integer, Consumer<? super Integer>>
+                         REPEAT = (n, results) -> {
+                             for (int i = 0; i < n; i++) {
+                                 results.accept(n);
+                             }
+                         };
+
+    @Test
+    public void testFlatMap() {
+        List<Integer> expected = ImmutableList.of(1, 2, 2, 3, 3, 3,
+                                                  4, 4, 4, 4);
+        for (int chunk : new int[]{1, 2, 3, 100}) {
+            Iterator<Integer> results = new ChunkedFlatMapperIterator<>(
+                                        DATA.iterator(), REPEAT, chunk);
+            Assert.assertEquals(expected, ImmutableList.copyOf(results));
+        }
+
+        Iterator<Integer> results = new ChunkedFlatMapperIterator<>(
+                                    DATA.iterator(), REPEAT);
+        Assert.assertEquals(expected, ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testFlatMapWithEmptyOrNull() {
+        // The elements mapped into nothing are skipped
+        Iterator<Integer> results = new ChunkedFlatMapperIterator<>(
+                                    DATA.iterator(), (n, rs) -> {
+                                        if (n == 4) {
+                                            rs.accept(n);
+                                        }
+                                    }, 1);
+        Assert.assertEquals(ImmutableList.of(4),
+                            ImmutableList.copyOf(results));
+
+        Iterator<Integer> results2 = new ChunkedFlatMapperIterator<>(
+                                     DATA.iterator(), (n, rs) -> { });
+        Assert.assertFalse(results2.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results2.next();
+        });
+
+        results = new ChunkedFlatMapperIterator<>(
+                  Arrays.asList(null, 1, null, 2).iterator(), (n, rs) -> {
+                      rs.accept(null);
+                      rs.accept(n * 10);
+                  }, 2);
+        Assert.assertEquals(ImmutableList.of(10, 20),
+                            ImmutableList.copyOf(results));
+
+        results = new ChunkedFlatMapperIterator<>(
+                  Collections.<Integer>emptyIterator(), REPEAT);
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testFlatMapWithTypeChanged() {
+        BiConsumer<Integer, Consumer<? super String>> mapper = (n, rs) -> {
+            rs.accept("a" + n);
+            rs.accept("b" + n);
+        };
+        Iterator<String> results = new ChunkedFlatMapperIterator<>(
+                                   DATA.iterator(), mapper, 3);
+        Assert.assertEquals(ImmutableList.of("a1", "b1", "a2", "b2", "a3",
+                                             "b3", "a4", "b4"),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testShrinkBuffer() {
+        List<Integer> data = ImmutableList.of(100, 1, 1, 1, 1);
+        ChunkedFlatMapperIterator<Integer, Integer> results =
+                new ChunkedFlatMapperIterator<>(data.iterator(), REPEAT, 1);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(100, (int) results.next());
+        }
+        Object[] buffer = Whitebox.getInternalState(results, "results");
+        Assert.assertGte(100, buffer.length);
+
+        // Shrunk after a chunk with 1 result
+        Assert.assertEquals(1, (int) results.next());
+        Assert.assertEquals(1, (int) results.next());
+        buffer = Whitebox.getInternalState(results, "results");
+        Assert.assertEquals(2, buffer.length);
+        Assert.assertEquals(ImmutableList.of(1, 1),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<Integer> vals = new CloseableItor<>(DATA.iterator());
+        ChunkedFlatMapperIterator<Integer, Integer> results;
+        results = new ChunkedFlatMapperIterator<>(vals, REPEAT);
+        Assert.assertFalse(vals.closed());
+        results.close();
+        Assert.assertTrue(vals.closed());
+    }
+
+    @Test
+    public void testInvalidChunk() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ChunkedFlatMapperIterator<>(DATA.iterator(), REPEAT, 0);
+        }, e -> {
+            Assert.assertContains("Expect chunk > 0, but got 0",
+                                  e.getMessage());
+        });
+    }
+}
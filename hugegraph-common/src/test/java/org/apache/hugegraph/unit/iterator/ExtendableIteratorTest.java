@@ -25,6 +25,8 @@ import java.util.NoSuchElementException;
 import org.junit.Test;
 
 import org.apache.hugegraph.iterator.ExtendableIterator;
+import org.apache.hugegraph.iterator.ListIterator;
+import org.apache.hugegraph.iterator.Skippable;
 import org.apache.hugegraph.testutil.Assert;
 import org.apache.hugegraph.unit.BaseUnitTest;
 import com.google.common.collect.ImmutableList;
@@ -213,6 +215,35 @@ public class ExtendableIteratorTest extends BaseUnitTest {
         Assert.assertTrue(c3.closed());
     }
 
+    @Test
+    public void testSkip() throws Exception {
+        CloseableItor<Integer> first = new CloseableItor<>(
+                                       ImmutableList.of(1, 2).iterator());
+        ListIterator<Integer> second = new ListIterator<>(
+                                       ImmutableList.of(3, 4, 5));
+        ExtendableIterator<Integer> results = new ExtendableIterator<>(
+                                              first, second);
+        results.extend(ImmutableList.of(6, 7).iterator());
+
+        Assert.assertSame(results, Skippable.of(results));
+        Assert.assertEquals(1, (int) results.next());
+        Assert.assertTrue(results.hasNext());
+        // Skip the fetched one, the rest of the first one and the second
+        Assert.assertEquals(4L, results.skip(4L));
+        Assert.assertTrue(first.closed());
+        Assert.assertEquals(6, (int) results.next());
+        Assert.assertEquals(1L, results.skip(3L));
+        Assert.assertFalse(results.hasNext());
+
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            results.extend(ImmutableList.of(8).iterator());
+        });
+
+        ExtendableIterator<Integer> empty = new ExtendableIterator<>();
+        Assert.assertEquals(0L, empty.skip(1L));
+        Assert.assertFalse(empty.hasNext());
+    }
+
     protected static class CloseableItor<V> implements Iterator<V>,
                                                        AutoCloseable {
 
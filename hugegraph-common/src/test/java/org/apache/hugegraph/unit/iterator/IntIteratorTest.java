@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.CIter;
+import org.apache.hugegraph.iterator.ExtendableIntIterator;
+import org.apache.hugegraph.iterator.IntBatchMapperIterator;
+import org.apache.hugegraph.iterator.IntCIter;
+import org.apache.hugegraph.iterator.IntFilterIterator;
+import org.apache.hugegraph.iterator.IntLimitIterator;
+import org.apache.hugegraph.iterator.IntMapperIterator;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class IntIteratorTest extends BaseUnitTest {
+
+    private static final Iterator<String> EMPTY = Collections.emptyIterator();
+
+    private static final List<String> DATA = ImmutableList.of("1", "2", "3",
+                                                              "4", "5");
+
+    @Test
+    public void testMapper() {
+        IntCIter results = new IntMapperIterator<>(DATA.iterator(),
+                                                   Integer::parseInt);
+        Assert.assertEquals(ImmutableList.of(1, 2, 3, 4, 5), toList(results));
+
+        List<String> nulls = Arrays.asList(null, "1", null, "2", null);
+        results = new IntMapperIterator<>(nulls.iterator(), Integer::parseInt);
+        Assert.assertEquals(ImmutableList.of(1, 2), toList(results));
+
+        IntCIter empty = new IntMapperIterator<>(EMPTY,
+                                                 Integer::parseInt);
+        Assert.assertFalse(empty.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            empty.nextInt();
+        });
+    }
+
+    @Test
+    public void testHasNextAndNextWithMultiTimes() {
+        IntCIter results = new IntMapperIterator<>(DATA.iterator(),
+                                                   Integer::parseInt);
+        Assert.assertTrue(results.hasNext());
+        Assert.assertTrue(results.hasNext());
+        Assert.assertEquals(1, results.nextInt());
+        // Boxed by CIter<Integer>.next()
+        Assert.assertEquals(2, (int) results.next());
+        Assert.assertEquals(3, results.nextInt());
+        Assert.assertEquals(4, results.nextInt());
+        Assert.assertEquals(5, results.nextInt());
+        Assert.assertFalse(results.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results.next();
+        });
+    }
+
+    @Test
+    public void testFilterAndLimit() {
+        IntCIter results = new IntFilterIterator(
+                           IntStream.range(0, 10).iterator(),
+                           v -> v % 3 == 0);
+        Assert.assertEquals(ImmutableList.of(0, 3, 6, 9), toList(results));
+
+        results = new IntFilterIterator(IntStream.range(0, 10).iterator(),
+                                        v -> (v & 1) == 0);
+        results = new IntLimitIterator(results, v -> v > 5);
+        Assert.assertEquals(ImmutableList.of(0, 2, 4), toList(results));
+    }
+
+    @Test
+    public void testExtendable() {
+        ExtendableIntIterator results = new ExtendableIntIterator();
+        Assert.assertFalse(results.hasNext());
+
+        results = new ExtendableIntIterator(IntStream.range(0, 2).iterator(),
+                                            IntStream.empty().iterator());
+        results.extend(IntStream.range(2, 4).iterator());
+        results.extend(null);
+        Assert.assertEquals(ImmutableList.of(0, 1, 2, 3), toList(results));
+
+        ExtendableIntIterator results2 = new ExtendableIntIterator(
+                                         IntStream.of(1).iterator());
+        Assert.assertEquals(1, results2.nextInt());
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            results2.extend(IntStream.of(2).iterator());
+        }, e -> {
+            Assert.assertContains("Can't extend iterator after iterating",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testBatchMapper() {
+        List<int[]> batches = new ArrayList<>();
+        CIter<Integer> results = new IntBatchMapperIterator<>(
+                                 2, IntStream.range(0, 5).iterator(),
+                                 batch -> {
+                                     batches.add(batch);
+                                     return Arrays.stream(batch).boxed()
+                                                  .iterator();
+                                 });
+        Assert.assertEquals(ImmutableList.of(0, 1, 2, 3, 4),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(3, batches.size());
+        Assert.assertArrayEquals(new int[]{0, 1}, batches.get(0));
+        Assert.assertArrayEquals(new int[]{2, 3}, batches.get(1));
+        Assert.assertArrayEquals(new int[]{4}, batches.get(2));
+
+        // The mapper returns null or empty for some batches
+        results = new IntBatchMapperIterator<>(
+                  1, IntStream.range(0, 5).iterator(), batch -> {
+                      if (batch[0] == 1) {
+                          return null;
+                      } else if (batch[0] == 3) {
+                          return Collections.emptyIterator();
+                      }
+                      return Collections.singletonList(batch[0]).iterator();
+                  });
+        Assert.assertEquals(ImmutableList.of(0, 2, 4),
+                            ImmutableList.copyOf(results));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new IntBatchMapperIterator<>(0, IntStream.empty().iterator(),
+                                         batch -> null);
+        }, e -> {
+            Assert.assertContains("Expect batch > 0, but got 0",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<String> objects = new CloseableItor<>(DATA.iterator());
+        IntCIter results = new IntMapperIterator<>(objects,
+                                                   Integer::parseInt);
+        results = new IntLimitIterator(results, v -> v > 2);
+        Assert.assertEquals(ImmutableList.of(1, 2), toList(results));
+        Assert.assertTrue(objects.closed());
+
+        objects = new CloseableItor<>(DATA.iterator());
+        results = new IntMapperIterator<>(objects, Integer::parseInt);
+        results = new IntFilterIterator(results, v -> true);
+        results.close();
+        Assert.assertTrue(objects.closed());
+    }
+
+    private static List<Integer> toList(PrimitiveIterator.OfInt iter) {
+        List<Integer> list = new ArrayList<>();
+        while (iter.hasNext()) {
+            list.add(iter.nextInt());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.CIter;
+import org.apache.hugegraph.iterator.ExtendableLongIterator;
+import org.apache.hugegraph.iterator.LongBatchMapperIterator;
+import org.apache.hugegraph.iterator.LongCIter;
+import org.apache.hugegraph.iterator.LongFilterIterator;
+import org.apache.hugegraph.iterator.LongLimitIterator;
+import org.apache.hugegraph.iterator.LongMapperIterator;
+import org.apache.hugegraph.iterator.Metadatable;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class LongIteratorTest extends BaseUnitTest {
+
+    private static final Iterator<String> EMPTY = Collections.emptyIterator();
+
+    private static final List<String> DATA = ImmutableList.of("1", "2", "3",
+                                                              "4", "5");
+
+    @Test
+    public void testMapper() {
+        LongCIter results = new LongMapperIterator<>(DATA.iterator(),
+                                                     Long::parseLong);
+        Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L, 5L),
+                            toList(results));
+
+        List<String> nulls = Arrays.asList(null, "1", null, "2", null);
+        results = new LongMapperIterator<>(nulls.iterator(), Long::parseLong);
+        Assert.assertEquals(ImmutableList.of(1L, 2L), toList(results));
+
+        LongCIter empty = new LongMapperIterator<>(EMPTY,
+                                                   Long::parseLong);
+        Assert.assertFalse(empty.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            empty.nextLong();
+        });
+    }
+
+    @Test
+    public void testHasNextAndNextWithMultiTimes() {
+        LongCIter results = new LongMapperIterator<>(DATA.iterator(),
+                                                     Long::parseLong);
+        Assert.assertTrue(results.hasNext());
+        Assert.assertTrue(results.hasNext());
+        Assert.assertEquals(1L, results.nextLong());
+        // Boxed by CIter<Long>.next()
+        Assert.assertEquals(2L, results.next());
+        Assert.assertEquals(3L, results.nextLong());
+        Assert.assertEquals(4L, results.nextLong());
+        Assert.assertTrue(results.hasNext());
+        Assert.assertEquals(5L, results.nextLong());
+        Assert.assertFalse(results.hasNext());
+        Assert.assertFalse(results.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results.next();
+        });
+    }
+
+    @Test
+    public void testFilter() {
+        LongCIter results = new LongFilterIterator(
+                            LongStream.range(0L, 10L).iterator(),
+                            v -> v % 3L == 0L);
+        Assert.assertEquals(ImmutableList.of(0L, 3L, 6L, 9L),
+                            toList(results));
+
+        results = new LongFilterIterator(LongStream.range(0L, 10L).iterator(),
+                                         v -> false);
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testLimit() {
+        CloseableLongItor origin = new CloseableLongItor(0L, 10L);
+        LongCIter results = new LongLimitIterator(origin, v -> v >= 3L);
+        Assert.assertEquals(ImmutableList.of(0L, 1L, 2L), toList(results));
+        Assert.assertTrue(origin.closed);
+
+        origin = new CloseableLongItor(0L, 3L);
+        results = new LongLimitIterator(origin, v -> v >= 5L);
+        Assert.assertEquals(ImmutableList.of(0L, 1L, 2L), toList(results));
+        Assert.assertFalse(origin.closed);
+    }
+
+    @Test
+    public void testChain() {
+        LongCIter results = new LongMapperIterator<>(DATA.iterator(),
+                                                     Long::parseLong);
+        results = new LongFilterIterator(results, v -> v != 2L);
+        results = new LongLimitIterator(results, v -> v > 4L);
+        Assert.assertEquals(ImmutableList.of(1L, 3L, 4L), toList(results));
+    }
+
+    @Test
+    public void testExtendable() {
+        ExtendableLongIterator results = new ExtendableLongIterator();
+        Assert.assertFalse(results.hasNext());
+
+        results = new ExtendableLongIterator(
+                  LongStream.range(0L, 2L).iterator(),
+                  LongStream.empty().iterator());
+        results.extend(LongStream.range(2L, 4L).iterator());
+        results.extend(null);
+        Assert.assertEquals(ImmutableList.of(0L, 1L, 2L, 3L),
+                            toList(results));
+
+        ExtendableLongIterator results2 = new ExtendableLongIterator(
+                                          LongStream.of(1L).iterator());
+        Assert.assertEquals(1L, results2.nextLong());
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            results2.extend(LongStream.of(2L).iterator());
+        }, e -> {
+            Assert.assertContains("Can't extend iterator after iterating",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testBatchMapper() {
+        List<long[]> batches = new ArrayList<>();
+        CIter<Long> results = new LongBatchMapperIterator<>(
+                              2, LongStream.range(0L, 5L).iterator(),
+                              batch -> {
+                                  batches.add(batch);
+                                  return Arrays.stream(batch).boxed()
+                                               .iterator();
+                              });
+        Assert.assertEquals(ImmutableList.of(0L, 1L, 2L, 3L, 4L),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(3, batches.size());
+        Assert.assertArrayEquals(new long[]{0L, 1L}, batches.get(0));
+        Assert.assertArrayEquals(new long[]{2L, 3L}, batches.get(1));
+        Assert.assertArrayEquals(new long[]{4L}, batches.get(2));
+
+        // The mapper returns null or empty for some batches
+        results = new LongBatchMapperIterator<>(
+                  1, LongStream.range(0L, 5L).iterator(), batch -> {
+                      if (batch[0] == 1L) {
+                          return null;
+                      } else if (batch[0] == 3L) {
+                          return Collections.emptyIterator();
+                      }
+                      return Collections.singletonList(batch[0]).iterator();
+                  });
+        Assert.assertEquals(ImmutableList.of(0L, 2L, 4L),
+                            ImmutableList.copyOf(results));
+
+        // A huge batch size
+        results = new LongBatchMapperIterator<>(
+                  Integer.MAX_VALUE, LongStream.range(0L, 10000L).iterator(),
+                  batch -> Collections.singletonList((long) batch.length)
+                                      .iterator());
+        Assert.assertEquals(ImmutableList.of(10000L),
+                            ImmutableList.copyOf(results));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new LongBatchMapperIterator<>(0, LongStream.empty().iterator(),
+                                          batch -> null);
+        }, e -> {
+            Assert.assertContains("Expect batch > 0, but got 0",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableLongItor origin = new CloseableLongItor(0L, 3L);
+        LongCIter results = new LongFilterIterator(origin, v -> true);
+        Assert.assertFalse(origin.closed);
+        results.close();
+        Assert.assertTrue(origin.closed);
+
+        CloseableItor<String> objects = new CloseableItor<>(DATA.iterator());
+        results = new LongMapperIterator<>(objects, Long::parseLong);
+        results.close();
+        Assert.assertTrue(objects.closed());
+
+        CloseableLongItor origin1 = new CloseableLongItor(0L, 3L);
+        CloseableLongItor origin2 = new CloseableLongItor(3L, 6L);
+        results = new ExtendableLongIterator(origin1, origin2);
+        results.close();
+        Assert.assertTrue(origin1.closed);
+        Assert.assertTrue(origin2.closed);
+
+        origin = new CloseableLongItor(0L, 3L);
+        CloseableItor<Long> batchResults = new CloseableItor<>(
+                                           ImmutableList.of(1L, 2L)
+                                                        .iterator());
+        CIter<Long> batchMapper = new LongBatchMapperIterator<>(
+                                  2, origin, batch -> batchResults);
+        Assert.assertEquals(1L, batchMapper.next());
+        batchMapper.close();
+        Assert.assertTrue(origin.closed);
+        Assert.assertTrue(batchResults.closed());
+    }
+
+    @Test
+    public void testMetadata() {
+        LongCIter results = new LongFilterIterator(
+                            new CloseableLongItor(0L, 3L), v -> true);
+        Assert.assertEquals("meta1", results.metadata("meta1"));
+
+        LongCIter results2 = new LongFilterIterator(
+                             LongStream.range(0L, 3L).iterator(), v -> true);
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            results2.metadata("meta1");
+        }, e -> {
+            Assert.assertContains("Original iterator is not Metadatable",
+                                  e.getMessage());
+        });
+    }
+
+    private static List<Long> toList(PrimitiveIterator.OfLong iter) {
+        List<Long> list = new ArrayList<>();
+        while (iter.hasNext()) {
+            list.add(iter.nextLong());
+        }
+        return list;
+    }
+
+    private static class CloseableLongItor implements PrimitiveIterator.OfLong,
+                                                      AutoCloseable,
+                                                      Metadatable {
+
+        private final long end;
+        private long next;
+        private boolean closed;
+
+        CloseableLongItor(long begin, long end) {
+            this.next = begin;
+            this.end = end;
+            this.closed = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.end;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.next++;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+
+        @Override
+        public Object metadata(String meta, Object... args) {
+            return meta;
+        }
+    }
+}
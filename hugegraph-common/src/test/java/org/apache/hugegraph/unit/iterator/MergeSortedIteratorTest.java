@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.MergeSortedIterator;
+import org.apache.hugegraph.iterator.Metadatable;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class MergeSortedIteratorTest extends BaseUnitTest {
+
+    private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+    @Test
+    public void testMerge() {
+        Iterator<Integer> results = new MergeSortedIterator<>(ImmutableList.of(
+                                    ImmutableList.of(1, 4, 7).iterator(),
+                                    ImmutableList.of(2, 5, 8, 9).iterator(),
+                                    ImmutableList.of(3, 6).iterator()),
+                                    ORDER);
+        Assert.assertEquals(ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9),
+                            ImmutableList.copyOf(results));
+
+        results = new MergeSortedIterator<>(ImmutableList.of(
+                  ImmutableList.of(9, 5, 1).iterator(),
+                  ImmutableList.of(8, 4).iterator()),
+                  ORDER.reversed());
+        Assert.assertEquals(ImmutableList.of(9, 8, 5, 4, 1),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testMergeWithEmptyOrNull() {
+        Iterator<Integer> results;
+        results = new MergeSortedIterator<>(ImmutableList.of(), ORDER);
+        Assert.assertFalse(results.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results.next();
+        });
+
+        Iterator<Integer> results2 = new MergeSortedIterator<>(
+                                     ImmutableList.of(
+                                     Collections.<Integer>emptyIterator(),
+                                     Arrays.asList(null, 2, null).iterator(),
+                                     ImmutableList.of(1).iterator()),
+                                     ORDER);
+        Assert.assertEquals(ImmutableList.of(1, 2),
+                            ImmutableList.copyOf(results2));
+    }
+
+    @Test
+    public void testMergeRandom() {
+        Random random = new Random(17);
+        List<Iterator<Integer>> itors = new ArrayList<>();
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<Integer> sub = new ArrayList<>();
+            int size = random.nextInt(100);
+            for (int j = 0; j < size; j++) {
+                sub.add(random.nextInt(50));
+            }
+            Collections.sort(sub);
+            all.addAll(sub);
+            itors.add(sub.iterator());
+        }
+        Collections.sort(all);
+        Iterator<Integer> results = new MergeSortedIterator<>(itors, ORDER);
+        Assert.assertEquals(all, ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testMergeStable() {
+        // Compare by the first char only
+        Comparator<String> first = Comparator.comparing(s -> s.charAt(0));
+        Iterator<String> results = new MergeSortedIterator<>(ImmutableList.of(
+                                   ImmutableList.of("a2", "b2").iterator(),
+                                   ImmutableList.of("a1", "b1").iterator()),
+                                   first);
+        Assert.assertEquals(ImmutableList.of("a2", "a1", "b2", "b1"),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testMergeWithDedup() {
+        Iterator<Integer> results = new MergeSortedIterator<>(ImmutableList.of(
+                                    ImmutableList.of(1, 2, 2, 5).iterator(),
+                                    ImmutableList.of(2, 3, 5).iterator(),
+                                    ImmutableList.of(1, 5, 6).iterator()),
+                                    ORDER, true);
+        Assert.assertEquals(ImmutableList.of(1, 2, 3, 5, 6),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<Integer> itor1 = new CloseableItor<>(
+                                       ImmutableList.of(1).iterator());
+        CloseableItor<Integer> itor2 = new CloseableItor<>(
+                                       ImmutableList.of(2, 3).iterator());
+        MergeSortedIterator<Integer> results = new MergeSortedIterator<>(
+                                               ImmutableList.of(itor1, itor2),
+                                               ORDER);
+        Assert.assertEquals(1, (int) results.next());
+        Assert.assertEquals(2, (int) results.next());
+        // Closed once exhausted
+        Assert.assertTrue(itor1.closed());
+        Assert.assertFalse(itor2.closed());
+
+        results.close();
+        Assert.assertTrue(itor2.closed());
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testMetadata() {
+        MergeSortedIterator<Integer> results = new MergeSortedIterator<>(
+                                               ImmutableList.of(
+                                               new MetaItor("page1"),
+                                               new MetaItor("page2")),
+                                               ORDER);
+        Assert.assertEquals(ImmutableList.of("page1", "page2"),
+                            results.metadata("page"));
+
+        MergeSortedIterator<Integer> results2 = new MergeSortedIterator<>(
+                                                ImmutableList.of(
+                                                new MetaItor("page1"),
+                                                Collections.emptyIterator()),
+                                                ORDER);
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            results2.metadata("page");
+        }, e -> {
+            Assert.assertContains("Original iterator is not Metadatable",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testInvalidArgs() {
+        Assert.assertThrows(NullPointerException.class, () -> {
+            new MergeSortedIterator<>(null, ORDER);
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            new MergeSortedIterator<Integer>(ImmutableList.of(), null);
+        });
+    }
+
+    private static class MetaItor implements Iterator<Integer>, Metadatable {
+
+        private final String page;
+
+        MetaItor(String page) {
+            this.page = page;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return false;
+        }
+
+        @Override
+        public Integer next() {
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public Object metadata(String meta, Object... args) {
+            return this.page;
+        }
+    }
+}
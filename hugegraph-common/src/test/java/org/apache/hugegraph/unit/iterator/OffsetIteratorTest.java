@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.CIter;
+import org.apache.hugegraph.iterator.FilterIterator;
+import org.apache.hugegraph.iterator.LimitIterator;
+import org.apache.hugegraph.iterator.ListIterator;
+import org.apache.hugegraph.iterator.MapperIterator;
+import org.apache.hugegraph.iterator.Metadatable;
+import org.apache.hugegraph.iterator.OffsetIterator;
+import org.apache.hugegraph.iterator.Skippable;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class OffsetIteratorTest extends BaseUnitTest {
+
+    private static final List<Integer> DATA = ImmutableList.of(1, 2, 3, 4, 5);
+
+    @Test
+    public void testOffset() {
+        Iterator<Integer> results;
+        results = new OffsetIterator<>(DATA.iterator(), 0L);
+        Assert.assertEquals(DATA, ImmutableList.copyOf(results));
+
+        results = new OffsetIterator<>(DATA.iterator(), 2L);
+        Assert.assertEquals(ImmutableList.of(3, 4, 5),
+                            ImmutableList.copyOf(results));
+
+        results = new OffsetIterator<>(DATA.iterator(), 5L);
+        Assert.assertFalse(results.hasNext());
+
+        Iterator<Integer> results2 = new OffsetIterator<>(DATA.iterator(),
+                                                          Long.MAX_VALUE);
+        Assert.assertFalse(results2.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results2.next();
+        });
+
+        results = new OffsetIterator<>(Arrays.asList(1, null, 2, null, 3)
+                                             .iterator(), 1L);
+        Assert.assertEquals(ImmutableList.of(2, 3),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testOffsetWithSkippable() {
+        CountingSkippable origin = new CountingSkippable(10);
+        Iterator<Integer> results = new OffsetIterator<>(origin, 7L);
+        Assert.assertEquals(ImmutableList.of(7, 8, 9),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(7L, origin.skipped);
+        Assert.assertEquals(3, origin.read);
+
+        // Skip by the Skippable of the metadata
+        origin = new CountingSkippable(10);
+        results = new OffsetIterator<>(new MetaSkippable(origin), 7L);
+        Assert.assertEquals(ImmutableList.of(7, 8, 9),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(7L, origin.skipped);
+        Assert.assertEquals(3, origin.read);
+
+        // Skip over the end
+        origin = new CountingSkippable(10);
+        results = new OffsetIterator<>(origin, 20L);
+        Assert.assertFalse(results.hasNext());
+        Assert.assertEquals(10L, origin.skipped);
+        Assert.assertEquals(0, origin.read);
+    }
+
+    @Test
+    public void testOffsetWithLimitByCount() {
+        CountingSkippable origin = new CountingSkippable(10);
+        CIter<Integer> results = new OffsetIterator<>(
+                                 new LimitIterator<>(origin, 5L), 3L);
+        Assert.assertEquals(ImmutableList.of(3, 4),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(3L, origin.skipped);
+        // Not read once the limit is reached
+        Assert.assertEquals(2, origin.read);
+
+        // The skipped elements are counted down from the limit
+        origin = new CountingSkippable(10);
+        LimitIterator<Integer> limit = new LimitIterator<>(origin, 5L);
+        Assert.assertEquals(0, (int) limit.next());
+        Assert.assertEquals(4L, limit.skip(100L));
+        Assert.assertFalse(limit.hasNext());
+        Assert.assertEquals(0L, limit.skip(1L));
+        Assert.assertEquals(4L, origin.skipped);
+        Assert.assertEquals(1, origin.read);
+
+        origin = new CountingSkippable(10);
+        Assert.assertFalse(new LimitIterator<>(origin, 0L).hasNext());
+        Assert.assertEquals(0, origin.read);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new LimitIterator<>(DATA.iterator(), -1L);
+        }, e -> {
+            Assert.assertContains("Expect limit >= 0, but got -1",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testOffsetWithLimitByCallback() {
+        CountingSkippable origin = new CountingSkippable(10);
+        CIter<Integer> results = new OffsetIterator<>(
+                                 new LimitIterator<>(origin, i -> i >= 5),
+                                 3L);
+        Assert.assertEquals(ImmutableList.of(3, 4),
+                            ImmutableList.copyOf(results));
+        // The callback has to see the skipped elements
+        Assert.assertEquals(0L, origin.skipped);
+        Assert.assertEquals(6, origin.read);
+    }
+
+    @Test
+    public void testSkippableNotForwarded() {
+        CountingSkippable origin = new CountingSkippable(10);
+        CIter<Integer> results = new FilterIterator<>(origin, i -> i > 5);
+        Assert.assertNull(results.metadata(Skippable.METADATA));
+        Assert.assertNull(Skippable.of(results));
+
+        // Skip by reading the filtered elements
+        Assert.assertEquals(2L, Skippable.skip(results, 2L));
+        Assert.assertEquals(ImmutableList.of(8, 9),
+                            ImmutableList.copyOf(results));
+        Assert.assertEquals(0L, origin.skipped);
+
+        results = new MapperIterator<>(origin, i -> i);
+        Assert.assertNull(Skippable.of(results));
+
+        // The other metadata is still forwarded
+        Assert.assertEquals("page", results.metadata("page"));
+
+        Assert.assertNull(Skippable.of(DATA.iterator()));
+    }
+
+    @Test
+    public void testListIteratorSkip() {
+        ListIterator<Integer> results = new ListIterator<>(-1,
+                                                           DATA.iterator());
+        Assert.assertSame(results, Skippable.of(results));
+        Assert.assertSame(results, results.metadata(Skippable.METADATA));
+
+        Assert.assertEquals(0L, results.skip(0L));
+        Assert.assertTrue(results.hasNext());
+        // Including the fetched one
+        Assert.assertEquals(2L, results.skip(2L));
+        Assert.assertEquals(3, (int) results.next());
+        Assert.assertEquals(2L, results.skip(5L));
+        Assert.assertFalse(results.hasNext());
+        Assert.assertEquals(0L, results.skip(1L));
+    }
+
+    @Test
+    public void testListIteratorSkipWithCollection() {
+        // Skip by moving the index of list
+        ListIterator<Integer> results = new ListIterator<>(DATA);
+        Assert.assertEquals(3L, results.skip(3L));
+        Assert.assertEquals(4, (int) results.next());
+        Assert.assertEquals(DATA.size() - 4L, results.skip(Long.MAX_VALUE));
+        Assert.assertFalse(results.hasNext());
+
+        // Skip by reading the collection which is not a list
+        results = new ListIterator<>(new LinkedHashSet<>(DATA));
+        Assert.assertTrue(results.hasNext());
+        Assert.assertEquals(3L, results.skip(3L));
+        Assert.assertEquals(4, (int) results.next());
+        Assert.assertEquals(DATA.size() - 4L, results.skip(Long.MAX_VALUE));
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<Integer> vals = new CloseableItor<>(DATA.iterator());
+        OffsetIterator<Integer> results = new OffsetIterator<>(vals, 1L);
+
+        Assert.assertFalse(vals.closed());
+        results.close();
+        Assert.assertTrue(vals.closed());
+    }
+
+    @Test
+    public void testInvalidOffset() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new OffsetIterator<>(Collections.emptyIterator(), -1L);
+        }, e -> {
+            Assert.assertContains("Expect offset >= 0, but got -1",
+                                  e.getMessage());
+        });
+    }
+
+    /**
+     * An iterator of [0, size) which counts the elements read and skipped
+     */
+    private static class CountingSkippable implements Iterator<Integer>,
+                                                      Skippable, Metadatable {
+
+        private final int size;
+        private int next;
+        private int read;
+        private long skipped;
+
+        CountingSkippable(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.size;
+        }
+
+        @Override
+        public Integer next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.read++;
+            return this.next++;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.min(n, this.size - this.next);
+            this.next += (int) skipped;
+            this.skipped += skipped;
+            return skipped;
+        }
+
+        @Override
+        public Object metadata(String meta, Object... args) {
+            return meta;
+        }
+    }
+
+    /**
+     * An iterator which supports skipping only by metadata
+     */
+    private static class MetaSkippable implements Iterator<Integer>,
+                                                  Metadatable {
+
+        private final CountingSkippable origin;
+
+        MetaSkippable(CountingSkippable origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.origin.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+            return this.origin.next();
+        }
+
+        @Override
+        public Object metadata(String meta, Object... args) {
+            if (Skippable.METADATA.equals(meta)) {
+                return this.origin;
+            }
+            throw new IllegalStateException("Unsupported metadata " + meta);
+        }
+    }
+}
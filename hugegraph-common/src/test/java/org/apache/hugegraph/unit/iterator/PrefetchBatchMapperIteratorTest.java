@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.PrefetchBatchMapperIterator;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class PrefetchBatchMapperIteratorTest extends BaseUnitTest {
+
+    private static final List<Integer> DATA = IntStream.range(0, 100).boxed()
+                                                       .collect(Collectors
+                                                       .toList());
+
+    private static final Function<List<Integer>, Iterator<Integer>> MAPPER =
+                         batch -> batch.iterator();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        this.executor.shutdownNow();
+        this.executor.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testOrdered() {
+        for (int batch : new int[]{1, 3, 10, 200}) {
+            Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                        batch, DATA.iterator(), MAPPER,
+                                        this.executor, 3, true);
+            Assert.assertEquals(DATA, ImmutableList.copyOf(results));
+        }
+
+        Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                    2, Collections.emptyIterator(), MAPPER,
+                                    this.executor, 3, true);
+        Assert.assertFalse(results.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results.next();
+        });
+    }
+
+    @Test
+    public void testUnordered() {
+        // The first batch is the slowest one
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            if (batch.contains(0)) {
+                sleep(100L);
+            }
+            return batch.iterator();
+        };
+        Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                    10, DATA.iterator(), mapper,
+                                    this.executor, 4, false);
+        List<Integer> list = new ArrayList<>(ImmutableList.copyOf(results));
+        Assert.assertNotEquals(DATA, list);
+        Collections.sort(list);
+        Assert.assertEquals(DATA, list);
+    }
+
+    @Test
+    public void testInterruptedWhileWaiting() {
+        CountDownLatch blocked = new CountDownLatch(1);
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return batch.iterator();
+        };
+        try {
+            for (boolean ordered : new boolean[]{true, false}) {
+                Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                            10, DATA.iterator(), mapper,
+                                            this.executor, 2, ordered);
+                Thread.currentThread().interrupt();
+                Assert.assertThrows(RuntimeException.class, () -> {
+                    results.hasNext();
+                }, e -> {
+                    Assert.assertInstanceOf(InterruptedException.class,
+                                            e.getCause());
+                });
+                // The interrupt status is kept for the caller
+                Assert.assertTrue(Thread.interrupted());
+            }
+        } finally {
+            blocked.countDown();
+        }
+    }
+
+    @Test
+    public void testBatchDroppedByExecutor() throws InterruptedException {
+        for (boolean ordered : new boolean[]{true, false}) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            CountDownLatch blocked = new CountDownLatch(1);
+            // Occupy the only thread, so the batches are queued
+            executor.submit(() -> {
+                blocked.await();
+                return null;
+            });
+            Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                        10, DATA.iterator(), MAPPER,
+                                        executor, 2, ordered);
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread consumer = new Thread(() -> {
+                try {
+                    results.hasNext();
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            consumer.start();
+            // Wait for the batches submitted
+            while (consumer.isAlive() &&
+                   consumer.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(10L);
+            }
+
+            // The queued batches are dropped and never run
+            executor.shutdownNow();
+            consumer.join(10000L);
+            Assert.assertFalse(consumer.isAlive());
+            Assert.assertInstanceOf(IllegalStateException.class, error.get());
+            Assert.assertContains("cancelled or dropped by the executor",
+                                  error.get().getMessage());
+        }
+    }
+
+    @Test
+    public void testMapperReturnNullOrEmpty() {
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            if (batch.get(0) % 20 == 0) {
+                return null;
+            } else if (batch.get(0) % 20 == 10) {
+                return Collections.emptyIterator();
+            }
+            return Collections.singletonList(batch.get(0)).iterator();
+        };
+        Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                    5, DATA.iterator(), mapper,
+                                    this.executor, 2, true);
+        Assert.assertEquals(ImmutableList.of(5, 15, 25, 35, 45,
+                                             55, 65, 75, 85, 95),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testPrefetchBounded() {
+        AtomicInteger mapped = new AtomicInteger();
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            mapped.incrementAndGet();
+            return batch.iterator();
+        };
+        PrefetchBatchMapperIterator<Integer, Integer> results;
+        results = new PrefetchBatchMapperIterator<>(10, DATA.iterator(),
+                                                    mapper, this.executor,
+                                                    3, true);
+        Assert.assertEquals(0, results.pendingBatches());
+
+        // The next 3 batches are mapped while the first one is consumed
+        Assert.assertEquals(0, results.next());
+        Assert.assertEquals(2, results.pendingBatches());
+        for (int i = 1; i < 10; i++) {
+            Assert.assertEquals(i, results.next());
+        }
+        Assert.assertEquals(2, results.pendingBatches());
+        Assert.assertEquals(10, results.next());
+        Assert.assertEquals(2, results.pendingBatches());
+        Assert.assertLte(4, mapped.get());
+
+        int count = 11;
+        while (results.hasNext()) {
+            Assert.assertEquals(count++, results.next());
+            Assert.assertLte(2, results.pendingBatches());
+        }
+        Assert.assertEquals(100, count);
+        Assert.assertEquals(10, mapped.get());
+    }
+
+    @Test
+    public void testMapperOverlapWithConsumer() throws InterruptedException {
+        CountDownLatch secondMapped = new CountDownLatch(1);
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            if (batch.get(0) == 10) {
+                secondMapped.countDown();
+            }
+            return batch.iterator();
+        };
+        Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                    10, DATA.iterator(), mapper,
+                                    this.executor, 2, true);
+        Assert.assertEquals(0, results.next());
+        // Mapped before the first batch is consumed
+        Assert.assertTrue(secondMapped.await(10L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMapperThrowException() {
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            if (batch.contains(50)) {
+                throw new IllegalStateException("Failed to map " + batch);
+            }
+            return batch.iterator();
+        };
+        Iterator<Integer> results = new PrefetchBatchMapperIterator<>(
+                                    10, DATA.iterator(), mapper,
+                                    this.executor, 2, true);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(i, results.next());
+        }
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            results.next();
+        }, e -> {
+            Assert.assertContains("Failed to map [50,", e.getMessage());
+        });
+        // Continue with the next batch
+        Assert.assertEquals(60, results.next());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<Integer> vals = new CloseableItor<>(DATA.iterator());
+        List<CloseableItor<Integer>> mapped = Collections.synchronizedList(
+                                              new ArrayList<>());
+        Function<List<Integer>, Iterator<Integer>> mapper = batch -> {
+            CloseableItor<Integer> iter = new CloseableItor<>(
+                                          batch.iterator());
+            mapped.add(iter);
+            return iter;
+        };
+        PrefetchBatchMapperIterator<Integer, Integer> results;
+        results = new PrefetchBatchMapperIterator<>(10, vals, mapper,
+                                                    this.executor, 4, false);
+        Assert.assertTrue(results.hasNext());
+        results.next();
+
+        Assert.assertFalse(vals.closed());
+        results.close();
+        Assert.assertTrue(vals.closed());
+        Assert.assertEquals(0, results.pendingBatches());
+        Assert.assertFalse(results.hasNext());
+
+        // Wait for the batches being mapped while closing
+        this.executor.shutdown();
+        Assert.assertTrue(this.executor.awaitTermination(10L,
+                                                         TimeUnit.SECONDS));
+        Assert.assertGte(1, mapped.size());
+        for (CloseableItor<Integer> iter : mapped) {
+            Assert.assertTrue(iter.closed());
+        }
+    }
+
+    @Test
+    public void testInvalidArgs() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new PrefetchBatchMapperIterator<>(0, DATA.iterator(), MAPPER,
+                                              this.executor, 1, true);
+        }, e -> {
+            Assert.assertContains("Expect batch > 0, but got 0",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new PrefetchBatchMapperIterator<>(1, DATA.iterator(), MAPPER,
+                                              this.executor, 0, true);
+        }, e -> {
+            Assert.assertContains("Expect prefetch > 0, but got 0",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            new PrefetchBatchMapperIterator<>(1, DATA.iterator(), MAPPER,
+                                              null, 1, true);
+        });
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.iterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.iterator.TopKIterator;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.iterator.ExtendableIteratorTest.CloseableItor;
+import com.google.common.collect.ImmutableList;
+
+@SuppressWarnings("resource")
+public class TopKIteratorTest extends BaseUnitTest {
+
+    private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+    private static final List<Integer> DATA = ImmutableList.of(5, 3, 8, 1,
+                                                               9, 2, 7);
+
+    @Test
+    public void testTopK() {
+        Iterator<Integer> results;
+        results = new TopKIterator<>(DATA.iterator(), 3, ORDER);
+        Assert.assertEquals(ImmutableList.of(1, 2, 3),
+                            ImmutableList.copyOf(results));
+
+        results = new TopKIterator<>(DATA.iterator(), 3, ORDER.reversed());
+        Assert.assertEquals(ImmutableList.of(9, 8, 7),
+                            ImmutableList.copyOf(results));
+
+        results = new TopKIterator<>(DATA.iterator(), 1, ORDER);
+        Assert.assertEquals(ImmutableList.of(1),
+                            ImmutableList.copyOf(results));
+
+        // The limit is larger than the size
+        results = new TopKIterator<>(DATA.iterator(), Integer.MAX_VALUE,
+                                     ORDER);
+        Assert.assertEquals(ImmutableList.of(1, 2, 3, 5, 7, 8, 9),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testTopKWithEmptyOrNull() {
+        Iterator<Integer> results = new TopKIterator<>(
+                                    Collections.emptyIterator(), 3, ORDER);
+        Assert.assertFalse(results.hasNext());
+        Assert.assertThrows(NoSuchElementException.class, () -> {
+            results.next();
+        });
+
+        Iterator<Integer> results2 = new TopKIterator<>(
+                                     Arrays.asList(null, 3, null, 1, 2)
+                                           .iterator(), 2, ORDER);
+        Assert.assertEquals(ImmutableList.of(1, 2),
+                            ImmutableList.copyOf(results2));
+    }
+
+    @Test
+    public void testTopKStable() {
+        // Compare by the first char only
+        Comparator<String> first = Comparator.comparing(s -> s.charAt(0));
+        List<String> data = ImmutableList.of("b1", "a1", "c1", "a2", "b2",
+                                             "a3", "b3");
+        Iterator<String> results = new TopKIterator<>(data.iterator(), 4,
+                                                      first);
+        Assert.assertEquals(ImmutableList.of("a1", "a2", "a3", "b1"),
+                            ImmutableList.copyOf(results));
+
+        results = new TopKIterator<>(data.iterator(), 2, first);
+        Assert.assertEquals(ImmutableList.of("a1", "a2"),
+                            ImmutableList.copyOf(results));
+    }
+
+    @Test
+    public void testTopKRandom() {
+        Random random = new Random(17);
+        for (int limit : new int[]{1, 10, 100, 1000, 5000}) {
+            List<Integer> data = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                data.add(random.nextInt(500));
+            }
+            List<Integer> sorted = new ArrayList<>(data);
+            Collections.sort(sorted);
+            sorted = sorted.subList(0, Math.min(limit, sorted.size()));
+
+            Iterator<Integer> results = new TopKIterator<>(data.iterator(),
+                                                           limit, ORDER);
+            Assert.assertEquals(sorted, ImmutableList.copyOf(results));
+        }
+    }
+
+    @Test
+    public void testHasNextAndNextWithMultiTimes() {
+        Iterator<Integer> results = new TopKIterator<>(DATA.iterator(), 2,
+                                                       ORDER);
+        Assert.assertTrue(results.hasNext());
+        Assert.assertTrue(results.hasNext());
+        Assert.assertEquals(1, (int) results.next());
+        Assert.assertEquals(2, (int) results.next());
+        Assert.assertFalse(results.hasNext());
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CloseableItor<Integer> vals = new CloseableItor<>(DATA.iterator());
+        TopKIterator<Integer> results = new TopKIterator<>(vals, 2, ORDER);
+
+        Assert.assertFalse(vals.closed());
+        results.close();
+        Assert.assertTrue(vals.closed());
+    }
+
+    @Test
+    public void testInvalidArgs() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new TopKIterator<>(DATA.iterator(), 0, ORDER);
+        }, e -> {
+            Assert.assertContains("Expect limit > 0, but got 0",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(NullPointerException.class, () -> {
+            new TopKIterator<>(DATA.iterator(), 1, null);
+        });
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.perf;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.perf.LatencyHistogram;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+
+public class LatencyHistogramTest extends BaseUnitTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0L, histogram.count());
+        Assert.assertEquals(0L, histogram.min());
+        Assert.assertEquals(0L, histogram.max());
+        Assert.assertEquals(0L, histogram.percentile(50.0D));
+        Assert.assertEquals(0L, histogram.percentile(100.0D));
+    }
+
+    @Test
+    public void testPercentileOfSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        // The small values are counted exactly
+        Assert.assertEquals(20L, histogram.count());
+        Assert.assertEquals(1L, histogram.min());
+        Assert.assertEquals(20L, histogram.max());
+        Assert.assertEquals(1L, histogram.percentile(0.0D));
+        Assert.assertEquals(10L, histogram.percentile(50.0D));
+        Assert.assertEquals(18L, histogram.percentile(90.0D));
+        Assert.assertEquals(20L, histogram.percentile(100.0D));
+    }
+
+    @Test
+    public void testPercentileOfLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(100000L, histogram.count());
+        Assert.assertEquals(1000L, histogram.min());
+        Assert.assertEquals(100000000L, histogram.max());
+
+        assertAbout(50000000L, histogram.percentile(50.0D));
+        assertAbout(90000000L, histogram.percentile(90.0D));
+        assertAbout(99000000L, histogram.percentile(99.0D));
+        assertAbout(99900000L, histogram.percentile(99.9D));
+        Assert.assertEquals(100000000L, histogram.percentile(100.0D));
+    }
+
+    @Test
+    public void testRecordExtremeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1L);
+        histogram.record(Long.MAX_VALUE);
+
+        Assert.assertEquals(2L, histogram.count());
+        Assert.assertEquals(0L, histogram.min());
+        Assert.assertEquals(Long.MAX_VALUE, histogram.max());
+        Assert.assertEquals(0L, histogram.percentile(50.0D));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.percentile(100.0D));
+    }
+
+    @Test
+    public void testMergeAndCopy() {
+        LatencyHistogram histogram1 = new LatencyHistogram();
+        LatencyHistogram histogram2 = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram1.record(i);
+            histogram2.record(i + 10);
+        }
+
+        LatencyHistogram copy = histogram1.copy();
+        histogram1.merge(histogram2);
+        Assert.assertEquals(20L, histogram1.count());
+        Assert.assertEquals(1L, histogram1.min());
+        Assert.assertEquals(20L, histogram1.max());
+        Assert.assertEquals(10L, histogram1.percentile(50.0D));
+
+        // The copy is not changed by merge
+        Assert.assertEquals(10L, copy.count());
+        Assert.assertEquals(10L, copy.max());
+        Assert.assertEquals(5L, copy.percentile(50.0D));
+
+        histogram1.merge(new LatencyHistogram());
+        Assert.assertEquals(20L, histogram1.count());
+        Assert.assertEquals(1L, histogram1.min());
+
+        histogram1.clear();
+        Assert.assertEquals(0L, histogram1.count());
+        Assert.assertEquals(0L, histogram1.percentile(50.0D));
+    }
+
+    @Test
+    public void testSubtract() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram earlier = histogram.copy();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyHistogram delta = histogram.copy();
+        delta.subtract(earlier);
+        Assert.assertEquals(10L, delta.count());
+        // Narrowed to the bounds of the buckets
+        Assert.assertEquals(992L, delta.min());
+        Assert.assertEquals(10000L, delta.max());
+        assertAbout(5000L, delta.percentile(50.0D));
+        Assert.assertEquals(10000L, delta.percentile(100.0D));
+
+        delta.subtract(histogram);
+        Assert.assertEquals(0L, delta.count());
+        Assert.assertEquals(0L, delta.min());
+        Assert.assertEquals(0L, delta.max());
+        Assert.assertEquals(0L, delta.percentile(50.0D));
+    }
+
+    @Test
+    public void testAllocateBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.buckets());
+
+        // Allocate the group of [1024, 2048), then extend it to cover others
+        histogram.record(2000L);
+        Assert.assertEquals(32, histogram.buckets());
+        histogram.record(1500L);
+        Assert.assertEquals(32, histogram.buckets());
+        histogram.record(5000L);
+        Assert.assertEquals(96, histogram.buckets());
+        histogram.record(10L);
+        Assert.assertEquals(9 * 32, histogram.buckets());
+        Assert.assertEquals(4L, histogram.count());
+        Assert.assertEquals(10L, histogram.min());
+        Assert.assertEquals(5000L, histogram.max());
+        Assert.assertEquals(10L, histogram.percentile(25.0D));
+        assertAbout(1500L, histogram.percentile(50.0D));
+        assertAbout(2000L, histogram.percentile(75.0D));
+
+        // Subtract and merge the histograms of different ranges
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(1L << 40);
+        LatencyHistogram delta = other.copy();
+        delta.subtract(histogram);
+        Assert.assertEquals(1L, delta.count());
+        Assert.assertEquals(32, delta.buckets());
+        histogram.merge(other);
+        Assert.assertEquals(5L, histogram.count());
+        Assert.assertEquals(1L << 40, histogram.max());
+        Assert.assertEquals(1L << 40, histogram.percentile(100.0D));
+
+        histogram.clear();
+        Assert.assertEquals(0, histogram.buckets());
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            histogram.percentile(-1.0D);
+        }, e -> {
+            Assert.assertContains("must be in [0, 100]", e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            histogram.percentile(100.1D);
+        }, e -> {
+            Assert.assertContains("must be in [0, 100]", e.getMessage());
+        });
+    }
+
+    private static void assertAbout(long expected, long actual) {
+        // The relative error is at most 1/32
+        Assert.assertGte(expected, actual);
+        Assert.assertLte(expected + expected / 32L, actual);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.hugegraph.perf.PerfAgent;
+import org.apache.hugegraph.perf.PerfUtil;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.perf.testclass.TestClass;
+
+public class PerfAgentTest extends BaseUnitTest {
+
+    private static final String PACKAGE = "org.apache.hugegraph.unit.perf";
+
+    @After
+    public void teardown() {
+        PerfUtil.instance().clear();
+    }
+
+    @Test
+    public void testTransform() throws Exception {
+        String name = TestClass.AgentProfile.class.getName();
+        ClassFileTransformer transformer = PerfAgent.newTransformer(PACKAGE);
+        byte[] classfile = transformer.transform(loader(), internalName(name),
+                                                 null, null, classfile(name));
+        Assert.assertNotNull(classfile);
+
+        Class<?> clazz = new TransformedClassLoader(name, classfile)
+                         .loadClass(name);
+        Assert.assertNotEquals(TestClass.AgentProfile.class, clazz);
+        Object obj = clazz.getDeclaredConstructor().newInstance();
+        clazz.getMethod("foo").invoke(obj);
+        clazz.getMethod("foo").invoke(obj);
+        clazz.getMethod("bar").invoke(obj);
+
+        Map<?, ?> json = new ObjectMapper().readValue(
+                         PerfUtil.instance().toJson(), Map.class);
+        Assert.assertEquals(2, times(json, "agent_foo"));
+        Assert.assertEquals(2, times(json, "agent_foo/agent.bar"));
+        Assert.assertEquals(1, times(json, "agent.bar"));
+
+        // Transform with all packages
+        transformer = PerfAgent.newTransformer();
+        Assert.assertNotNull(transformer.transform(loader(),
+                                                   internalName(name), null,
+                                                   null, classfile(name)));
+    }
+
+    @Test
+    public void testTransformIgnored() throws Exception {
+        ClassFileTransformer transformer = PerfAgent.newTransformer(PACKAGE);
+
+        // Not in the packages
+        String name = TestClass.AgentProfile.class.getName();
+        ClassFileTransformer other = PerfAgent.newTransformer("org.other");
+        Assert.assertNull(other.transform(loader(), internalName(name),
+                                          null, null, classfile(name)));
+
+        // Without @Watched methods
+        name = TestClass.ManuallyProfile.class.getName();
+        Assert.assertNull(transformer.transform(loader(), internalName(name),
+                                                null, null, classfile(name)));
+
+        // The classes of profiler itself
+        name = PerfUtil.class.getName();
+        Assert.assertNull(PerfAgent.newTransformer().transform(
+                          loader(), internalName(name), null, null,
+                          classfile(name)));
+
+        // The classes of JDK, even if with @Watched methods
+        name = TestClass.AgentProfile.class.getName();
+        Assert.assertNull(PerfAgent.newTransformer().transform(
+                          loader(), "java/util/AgentProfile", null, null,
+                          classfile(name)));
+
+        // The classes without name, like lambda
+        Assert.assertNull(transformer.transform(loader(), null, null, null,
+                                                new byte[0]));
+
+        // Invalid class file
+        name = TestClass.AgentProfile.class.getName();
+        byte[] classfile = classfile(name);
+        classfile[0] = 0;
+        Assert.assertNull(transformer.transform(loader(), internalName(name),
+                                                null, null, classfile));
+    }
+
+    @Test
+    public void testNotInstalled() {
+        Assert.assertFalse(PerfAgent.installed());
+    }
+
+    private static ClassLoader loader() {
+        return PerfAgentTest.class.getClassLoader();
+    }
+
+    private static String internalName(String className) {
+        return className.replace('.', '/');
+    }
+
+    private static byte[] classfile(String className) throws IOException {
+        String resource = internalName(className) + ".class";
+        try (InputStream input = loader().getResourceAsStream(resource)) {
+            Assert.assertNotNull(resource, input);
+            return IOUtils.toByteArray(input);
+        }
+    }
+
+    private static Object times(Map<?, ?> json, String watch) {
+        Map<?, ?> map = (Map<?, ?>) json.get(watch);
+        Assert.assertNotNull("Not exist stopwatch " + watch, map);
+        return map.get("times");
+    }
+
+    private static final class TransformedClassLoader extends ClassLoader {
+
+        private final String name;
+        private final byte[] classfile;
+
+        TransformedClassLoader(String name, byte[] classfile) {
+            super(loader());
+            this.name = name;
+            this.classfile = classfile;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve)
+                                     throws ClassNotFoundException {
+            if (!this.name.equals(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (this.getClassLoadingLock(name)) {
+                Class<?> clazz = this.findLoadedClass(name);
+                if (clazz == null) {
+                    clazz = this.defineClass(name, this.classfile, 0,
+                                             this.classfile.length);
+                }
+                return clazz;
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.hugegraph.perf.PerfExporter;
+import org.apache.hugegraph.perf.PerfUtil;
+import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.unit.BaseUnitTest;
+import org.apache.hugegraph.unit.perf.testclass.TestClass;
+
+public class PerfExporterTest extends BaseUnitTest {
+
+    private static final String FOO = "manu-foo";
+    private static final String FOO_BAR = "manu-foo/manu-bar";
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("perf-exporter").toFile();
+        this.file = new File(this.dir, "perf.json");
+    }
+
+    @After
+    public void teardown() throws IOException {
+        PerfUtil.instance().clear();
+        PerfUtil.useHistogramStopwatch(false);
+        FileUtils.deleteDirectory(this.dir);
+    }
+
+    @Test
+    public void testExportDelta() throws Exception {
+        TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+        try (PerfExporter exporter = this.newExporter(1000000L, 2)) {
+            obj.foo();
+            obj.foo();
+            exporter.export();
+
+            obj.foo();
+            exporter.export();
+
+            exporter.export();
+
+            // The counters are cleared by the profiled thread
+            PerfUtil.instance().clear();
+            obj.foo();
+            exporter.export();
+        }
+
+        List<String> lines = this.readLines(this.file);
+        // The last line is exported by close()
+        Assert.assertEquals(5, lines.size());
+
+        Map<?, ?> watches = stopwatches(lines.get(0));
+        Assert.assertEquals(2, value(watches, FOO, "times"));
+        Assert.assertEquals(FOO, value(watches, FOO, "name"));
+        Assert.assertEquals("", value(watches, FOO, "parent"));
+        Assert.assertEquals(2, value(watches, FOO_BAR, "times"));
+        Assert.assertEquals("manu-bar", value(watches, FOO_BAR, "name"));
+        Assert.assertEquals(FOO, value(watches, FOO_BAR, "parent"));
+        Assert.assertNotNull(value(watches, FOO, "total_cost"));
+        Assert.assertNotNull(value(watches, FOO, "total_self_wasted"));
+        Assert.assertNull(value(watches, FOO, "p50_cost"));
+
+        watches = stopwatches(lines.get(1));
+        Assert.assertEquals(1, value(watches, FOO, "times"));
+        Assert.assertEquals(1, value(watches, FOO_BAR, "times"));
+
+        watches = stopwatches(lines.get(2));
+        Assert.assertFalse(watches.containsKey(FOO));
+
+        watches = stopwatches(lines.get(3));
+        Assert.assertEquals(1, value(watches, FOO, "times"));
+
+        watches = stopwatches(lines.get(4));
+        Assert.assertFalse(watches.containsKey(FOO));
+
+        Map<?, ?> line = new ObjectMapper().readValue(lines.get(0), Map.class);
+        Assert.assertTrue(line.get("time") instanceof Long);
+        Assert.assertTrue(line.get("interval") instanceof Integer);
+    }
+
+    @Test
+    public void testExportDeltaWithThreadCleared() throws Exception {
+        ExecutorService thread1 = Executors.newSingleThreadExecutor();
+        ExecutorService thread2 = Executors.newSingleThreadExecutor();
+        try (PerfExporter exporter = this.newExporter(1000000L, 2)) {
+            profile(thread1, 10);
+            profile(thread2, 5);
+            exporter.export();
+
+            // Thread2 clears and records more than before
+            thread2.submit(() -> PerfUtil.instance().clear()).get();
+            profile(thread2, 7);
+            profile(thread1, 10);
+            exporter.export();
+
+            // Thread2 clears and records less than before
+            thread2.submit(() -> PerfUtil.instance().clear()).get();
+            profile(thread2, 3);
+            exporter.export();
+        } finally {
+            thread1.submit(PerfUtil::removeInstance).get();
+            thread2.submit(PerfUtil::removeInstance).get();
+            thread1.shutdown();
+            thread2.shutdown();
+        }
+
+        List<String> lines = this.readLines(this.file);
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals(15, value(stopwatches(lines.get(0)),
+                                      FOO, "times"));
+        Assert.assertEquals(17, value(stopwatches(lines.get(1)),
+                                      FOO, "times"));
+        Assert.assertEquals(17, value(stopwatches(lines.get(1)),
+                                      FOO_BAR, "times"));
+        Assert.assertEquals(3, value(stopwatches(lines.get(2)),
+                                     FOO, "times"));
+        Assert.assertFalse(stopwatches(lines.get(3)).containsKey(FOO));
+    }
+
+    @Test
+    public void testExportHistogramDelta() throws Exception {
+        PerfUtil.useHistogramStopwatch(true);
+        TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+        try (PerfExporter exporter = this.newExporter(1000000L, 2)) {
+            obj.foo();
+            obj.foo();
+            exporter.export();
+
+            obj.foo();
+            exporter.export();
+        }
+
+        List<String> lines = this.readLines(this.file);
+        Assert.assertEquals(3, lines.size());
+
+        Map<?, ?> watches = stopwatches(lines.get(0));
+        Assert.assertEquals(2, value(watches, FOO, "times"));
+        for (String key : new String[]{"min_cost", "max_cost", "p50_cost",
+                                       "p90_cost", "p99_cost", "p999_cost"}) {
+            Assert.assertNotNull(key, value(watches, FOO, key));
+        }
+        long min = number(watches, FOO, "min_cost");
+        long p50 = number(watches, FOO, "p50_cost");
+        long max = number(watches, FOO, "max_cost");
+        Assert.assertTrue(min <= p50 && p50 <= max);
+
+        watches = stopwatches(lines.get(1));
+        Assert.assertEquals(1, value(watches, FOO, "times"));
+        // Only one cost in the interval
+        Assert.assertEquals(number(watches, FOO, "p50_cost"),
+                            number(watches, FOO, "p999_cost"));
+    }
+
+    @Test
+    public void testRollFiles() throws Exception {
+        TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+        // Roll after each line
+        try (PerfExporter exporter = this.newExporter(1L, 3)) {
+            for (int i = 1; i <= 5; i++) {
+                obj.foo();
+                exporter.export();
+            }
+        }
+
+        File file1 = new File(this.file.getPath() + ".1");
+        File file2 = new File(this.file.getPath() + ".2");
+        File file3 = new File(this.file.getPath() + ".3");
+        Assert.assertFalse(this.file.exists());
+        Assert.assertTrue(file1.exists());
+        Assert.assertTrue(file2.exists());
+        Assert.assertFalse(file3.exists());
+
+        // The last line exported by close() is in file1
+        List<String> lines = this.readLines(file1);
+        Assert.assertEquals(1, lines.size());
+        Assert.assertFalse(stopwatches(lines.get(0)).containsKey(FOO));
+        lines = this.readLines(file2);
+        Assert.assertEquals(1, lines.size());
+        Assert.assertEquals(1, value(stopwatches(lines.get(0)),
+                                     FOO, "times"));
+
+        try (PerfExporter exporter = this.newExporter(1L, 1)) {
+            obj.foo();
+            exporter.export();
+            Assert.assertFalse(this.file.exists());
+        }
+        Assert.assertFalse(this.file.exists());
+        Assert.assertFalse(file3.exists());
+    }
+
+    @Test
+    public void testExportEscapedNames() throws Exception {
+        String name = "a\"b\\c\n";
+        try (PerfExporter exporter = this.newExporter(1000000L, 2)) {
+            PerfUtil.instance().start(name);
+            PerfUtil.instance().end(name);
+            exporter.export();
+        }
+
+        List<String> lines = this.readLines(this.file);
+        Assert.assertEquals(2, lines.size());
+        Map<?, ?> watches = stopwatches(lines.get(0));
+        Assert.assertEquals(1, value(watches, name, "times"));
+        Assert.assertEquals(name, value(watches, name, "name"));
+    }
+
+    @Test
+    public void testCloseConcurrently() throws Exception {
+        PerfExporter exporter = this.newExporter(1000000L, 2);
+        exporter.start();
+        new TestClass.ManuallyProfile().foo();
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(threads.submit(() -> {
+                    exporter.close();
+                    return null;
+                }));
+            }
+            // None of them fails
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        // Only the last line is exported by close()
+        Assert.assertEquals(1, this.lineCount());
+    }
+
+    @Test
+    public void testStartAndClose() throws Exception {
+        PerfExporter exporter = new PerfExporter(this.file.getPath(), 10L,
+                                                 1000000L, 2);
+        exporter.start();
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            exporter.start();
+        }, e -> {
+            Assert.assertContains("has been started", e.getMessage());
+        });
+
+        new TestClass.ManuallyProfile().foo();
+        for (int i = 0; i < 100 && this.lineCount() < 2; i++) {
+            Thread.sleep(10L);
+        }
+        Assert.assertGte(2, this.lineCount());
+
+        exporter.close();
+        int lines = this.lineCount();
+        Thread.sleep(30L);
+        Assert.assertEquals(lines, this.lineCount());
+
+        // Close again
+        exporter.close();
+        Assert.assertEquals(lines, this.lineCount());
+
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            exporter.export();
+        }, e -> {
+            Assert.assertContains("has been closed", e.getMessage());
+        });
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            exporter.start();
+        }, e -> {
+            Assert.assertContains("has been closed", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testInvalidArgs() {
+        String path = this.file.getPath();
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new PerfExporter("", 10L, 10L, 1);
+        }, e -> {
+            Assert.assertContains("can't be null or empty", e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new PerfExporter(path, 0L, 10L, 1);
+        }, e -> {
+            Assert.assertContains("interval must be > 0", e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new PerfExporter(path, 10L, 0L, 1);
+        }, e -> {
+            Assert.assertContains("max file size must be > 0",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new PerfExporter(path, 10L, 10L, 0);
+        }, e -> {
+            Assert.assertContains("max files must be > 0", e.getMessage());
+        });
+    }
+
+    private static void profile(ExecutorService thread, int times)
+                                throws Exception {
+        thread.submit(() -> {
+            TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+            for (int i = 0; i < times; i++) {
+                obj.foo();
+            }
+        }).get();
+    }
+
+    private PerfExporter newExporter(long maxFileSize, int maxFiles) {
+        return new PerfExporter(this.file.getPath(), 1000L,
+                                maxFileSize, maxFiles);
+    }
+
+    private List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    private int lineCount() throws IOException {
+        return this.file.exists() ? this.readLines(this.file).size() : 0;
+    }
+
+    private static Map<?, ?> stopwatches(String line) throws IOException {
+        Map<?, ?> map = new ObjectMapper().readValue(line, Map.class);
+        return (Map<?, ?>) map.get("stopwatches");
+    }
+
+    private static Object value(Map<?, ?> stopwatches, String watch,
+                                String key) {
+        Map<?, ?> map = (Map<?, ?>) stopwatches.get(watch);
+        Assert.assertNotNull("Not exist stopwatch " + watch, map);
+        return map.get(key);
+    }
+
+    private static long number(Map<?, ?> stopwatches, String watch,
+                               String key) {
+        return ((Number) value(stopwatches, watch, key)).longValue();
+    }
+}
@@ -17,7 +17,11 @@
 
 package org.apache.hugegraph.unit.perf;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Test;
@@ -439,6 +443,230 @@ public class PerfUtilTest extends BaseUnitTest {
         assertContains(json, "testNew#times", 1);
     }
 
+    @Test
+    public void testPerfUtil4HistogramStopwatch() throws Throwable {
+        PerfUtil.useHistogramStopwatch(true);
+
+        TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+        obj.foo();
+        obj.foo();
+
+        perf.toString();
+        perf.toECharts();
+        String json = perf.toJson();
+
+        assertContains(json, "manu-foo#times", 2);
+        assertContains(json, "manu-foo#p50_cost");
+        assertContains(json, "manu-foo#p90_cost");
+        assertContains(json, "manu-foo#p99_cost");
+        assertContains(json, "manu-foo#p999_cost");
+        assertContains(json, "manu-foo/manu-bar#times", 2);
+        assertContains(json, "manu-foo/manu-bar#p99_cost");
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            PerfUtil.useHistogramStopwatch(false);
+        }, e -> {
+            Assert.assertContains("clear() before switching " +
+                                  "histogram-stopwatch", e.getMessage());
+        });
+
+        perf.clear();
+        PerfUtil.useHistogramStopwatch(false);
+
+        obj.foo();
+        json = perf.toJson();
+        assertContains(json, "manu-foo#times", 1);
+        Assert.assertNull(actualValue(json, "manu-foo#p50_cost"));
+    }
+
+    @Test
+    public void testPerfUtilWithSampling() throws Throwable {
+        TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+        PerfUtil.useSampling(4);
+        try {
+            for (int i = 0; i < 4000; i++) {
+                obj.foo();
+            }
+        } finally {
+            PerfUtil.useSampling(1);
+        }
+
+        perf.toString();
+        perf.toECharts();
+        String json = perf.toJson();
+
+        long times = ((Number) actualValue(json, "manu-foo#times"))
+                     .longValue();
+        Assert.assertGte(700L, times);
+        Assert.assertLte(1300L, times);
+        assertContains(json, "manu-foo#sampling", 4);
+        assertContains(json, "manu-foo#estimated_times", (int) times * 4);
+        // The nested calls are recorded with the outermost call
+        assertContains(json, "manu-foo/manu-bar#times", (int) times);
+        assertContains(json, "manu-foo/manu-bar#sampling", 4);
+        assertContains(json, "manu-foo/manu-bar2#times", (int) times);
+
+        perf.clear();
+        obj.foo();
+        json = perf.toJson();
+        assertContains(json, "manu-foo#times", 1);
+        assertContains(json, "manu-foo#sampling", 1);
+        assertContains(json, "manu-foo#estimated_times", 1);
+    }
+
+    @Test
+    public void testPerfUtilWithSamplingOfMethod() throws Throwable {
+        PerfUtil.useSampling(Integer.MAX_VALUE);
+        try {
+            // The sampling of method overrides the global one
+            Assert.assertNotNull(perf.start("sampled", 1));
+            // The nested calls are recorded with the outermost call
+            Assert.assertNotNull(perf.start("nested"));
+            perf.end("nested");
+            perf.end("sampled");
+
+            // Not recorded with the global sampling
+            Assert.assertNull(perf.start("skipped"));
+            Assert.assertNull(perf.start("nested", 1));
+            Assert.assertNull(perf.start2("nested2"));
+            perf.end("nested2");
+            perf.end("nested");
+
+            Assert.assertThrows(IllegalStateException.class, () -> {
+                perf.clear();
+            }, e -> {
+                Assert.assertContains("call has not ended yet",
+                                      e.getMessage());
+            });
+            perf.end("skipped");
+        } finally {
+            PerfUtil.useSampling(1);
+        }
+
+        String json = perf.toJson();
+        assertContains(json, "sampled#times", 1);
+        assertContains(json, "sampled#sampling", 1);
+        assertContains(json, "sampled/nested#times", 1);
+        Assert.assertNull(actualValue(json, "skipped#times"));
+        Assert.assertNull(actualValue(json, "skipped/nested#times"));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            PerfUtil.useSampling(0);
+        }, e -> {
+            Assert.assertContains("The sampling must be > 0",
+                                  e.getMessage());
+        });
+    }
+
+    @Test
+    public void testSnapshotWithMultiThreads() throws Throwable {
+        int threads = 4;
+        int times = 100;
+        CountDownLatch done = new CountDownLatch(threads);
+        CountDownLatch exit = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+                for (int j = 0; j < times; j++) {
+                    obj.foo();
+                }
+                done.countDown();
+                try {
+                    exit.await();
+                } catch (InterruptedException ignored) {
+                    // pass
+                } finally {
+                    PerfUtil.removeInstance();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        done.await();
+
+        new TestClass.ManuallyProfile().foo();
+
+        PerfUtil snapshot = PerfUtil.snapshot();
+        snapshot.toString();
+        snapshot.toECharts();
+        String json = snapshot.toJson();
+
+        int total = threads * times + 1;
+        assertContains(json, "manu-foo#times", total);
+        assertContains(json, "manu-foo#parent", "");
+        assertContains(json, "manu-foo/manu-bar#times", total);
+        assertContains(json, "manu-foo/manu-bar#parent", "manu-foo");
+        assertContains(json, "manu-foo/manu-bar2#times", total);
+
+        // The instance of current thread is not changed by snapshot
+        json = perf.toJson();
+        assertContains(json, "manu-foo#times", 1);
+
+        exit.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        json = PerfUtil.snapshot().toJson();
+        assertContains(json, "manu-foo#times", 1);
+    }
+
+    @Test
+    public void testSnapshotWithExitedThread() throws Throwable {
+        Thread worker = new Thread(() -> {
+            new TestClass.ManuallyProfile().foo();
+        });
+        worker.start();
+        worker.join();
+        worker = null;
+
+        // The instance of the exited thread is dropped after it's collected
+        Object times = null;
+        for (int i = 0; i < 100; i++) {
+            System.gc();
+            times = actualValue(PerfUtil.snapshot().toJson(), "manu-foo#times");
+            if (times == null) {
+                break;
+            }
+            Thread.sleep(10L);
+        }
+        Assert.assertNull(times);
+    }
+
+    @Test
+    public void testSnapshotWhileProfiling() throws Throwable {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread worker = new Thread(() -> {
+            TestClass.ManuallyProfile obj = new TestClass.ManuallyProfile();
+            try {
+                while (running.get()) {
+                    obj.foo();
+                    obj.foo2();
+                }
+            } finally {
+                PerfUtil.removeInstance();
+            }
+        });
+        worker.start();
+
+        try {
+            long last = 0L;
+            for (int i = 0; i < 100; i++) {
+                String json = PerfUtil.snapshot().toJson();
+                Object times = actualValue(json, "manu-foo#times");
+                if (times != null) {
+                    long current = ((Number) times).longValue();
+                    Assert.assertGte(last, current);
+                    last = current;
+                }
+            }
+        } finally {
+            running.set(false);
+            worker.join();
+        }
+    }
+
     private static void assertContains(String json, String key)
                                        throws Exception {
         Assert.assertNotNull("Not exist key " + key, actualValue(json, key));
@@ -20,6 +20,7 @@ package org.apache.hugegraph.unit.perf;
 import org.junit.Test;
 
 import org.apache.hugegraph.testutil.Assert;
+import org.apache.hugegraph.perf.HistogramStopwatch;
 import org.apache.hugegraph.perf.LightStopwatch;
 import org.apache.hugegraph.perf.NormalStopwatch;
 import org.apache.hugegraph.perf.Stopwatch;
@@ -99,4 +100,140 @@ public class StopwatchTest extends BaseUnitTest {
         Assert.assertNull(watch1.child("w4"));
         Assert.assertNull(watch1.child("w5"));
     }
+
+    @Test
+    public void testHistogramStopwatchChild() {
+        Stopwatch watch1 = new HistogramStopwatch("w1", Path.EMPTY);
+
+        Stopwatch watch2 = new HistogramStopwatch("w2", watch1);
+        Stopwatch watch3 = new NormalStopwatch("w3", watch1);
+
+        Assert.assertEquals(watch2, watch1.child("w2"));
+        Assert.assertEquals(watch3, watch1.child("w3"));
+        Assert.assertEquals(new Path("w1/w2"), watch2.id());
+        Assert.assertEquals(watch1.id(), watch2.parent());
+
+        Assert.assertEquals(watch2, watch1.child("w2", null));
+        Assert.assertNull(watch1.child("w2"));
+
+        watch1.clear();
+        Assert.assertNull(watch1.child("w3"));
+    }
+
+    @Test
+    public void testHistogramStopwatchCost() {
+        HistogramStopwatch watch = new HistogramStopwatch("w1", Path.EMPTY);
+        for (int i = 0; i < 10; i++) {
+            watch.startTime(System.nanoTime() - 1000000L);
+            watch.endTime(System.nanoTime());
+        }
+
+        Assert.assertEquals(10L, watch.times());
+        Assert.assertEquals(10L, watch.histogram().count());
+        Assert.assertGte(1000000L, watch.minCost());
+        Assert.assertGte(watch.minCost(), watch.percentileCost(50.0D));
+        Assert.assertLte(watch.maxCost(), watch.percentileCost(99.9D));
+        Assert.assertEquals(watch.maxCost(), watch.percentileCost(100.0D));
+
+        String json = watch.toJson();
+        Assert.assertContains("\"times\":10,", json);
+        Assert.assertContains("\"p50_cost\":", json);
+        Assert.assertContains("\"p90_cost\":", json);
+        Assert.assertContains("\"p99_cost\":", json);
+        Assert.assertContains("\"p999_cost\":", json);
+        Assert.assertTrue(json.endsWith("}"));
+
+        HistogramStopwatch copy = watch.copy();
+        watch.clear();
+        Assert.assertEquals(0L, watch.times());
+        Assert.assertEquals(0L, watch.histogram().count());
+        Assert.assertEquals(10L, copy.times());
+        Assert.assertEquals(10L, copy.histogram().count());
+    }
+
+    @Test
+    public void testStopwatchSampling() {
+        Stopwatch[] watches = new Stopwatch[]{
+                new NormalStopwatch("w", Path.EMPTY),
+                new LightStopwatch("w", Path.EMPTY),
+                new HistogramStopwatch("w", Path.EMPTY)
+        };
+        for (Stopwatch watch : watches) {
+            Assert.assertEquals(1L, watch.sampling());
+            watch.sampling(4L);
+            for (int i = 0; i < 3; i++) {
+                watch.startTime(System.nanoTime());
+                watch.endTime(System.nanoTime());
+            }
+            Assert.assertEquals(4L, watch.sampling());
+            Assert.assertEquals(12L, watch.estimatedTimes());
+            Assert.assertEquals(watch.totalCost() * 4L,
+                                watch.estimatedTotalCost());
+            Assert.assertContains("\"sampling\":4,\"estimated_times\":12,",
+                                  watch.toJson());
+
+            Stopwatch other = new NormalStopwatch("w", Path.EMPTY);
+            other.merge(watch);
+            Assert.assertEquals(4L, other.sampling());
+            Assert.assertEquals(12L, other.estimatedTimes());
+
+            watch.clear();
+            Assert.assertEquals(1L, watch.sampling());
+            Assert.assertEquals(0L, watch.estimatedTimes());
+        }
+    }
+
+    @Test
+    public void testStopwatchMerge() {
+        HistogramStopwatch watch1 = new HistogramStopwatch("w", Path.EMPTY);
+        HistogramStopwatch watch2 = new HistogramStopwatch("w", Path.EMPTY);
+        Stopwatch watch3 = new NormalStopwatch("w", Path.EMPTY);
+        Stopwatch watch4 = new LightStopwatch("w", Path.EMPTY);
+        for (int i = 0; i < 3; i++) {
+            watch1.startTime(System.nanoTime() - 1000L);
+            watch1.endTime(System.nanoTime());
+            watch2.startTime(System.nanoTime() - 2000000L);
+            watch2.endTime(System.nanoTime());
+            watch3.startTime(System.nanoTime());
+            watch3.endTime(System.nanoTime());
+            watch4.startTime(System.nanoTime());
+            watch4.endTime(System.nanoTime());
+        }
+
+        long totalCost = watch1.totalCost() + watch2.totalCost();
+        watch1.merge(watch2);
+        Assert.assertEquals(6L, watch1.times());
+        Assert.assertEquals(totalCost, watch1.totalCost());
+        Assert.assertEquals(watch2.maxCost(), watch1.maxCost());
+        Assert.assertEquals(6L, watch1.histogram().count());
+        Assert.assertGte(2000000L, watch1.percentileCost(100.0D));
+
+        // Merge a stopwatch without histogram
+        watch1.merge(watch3);
+        Assert.assertEquals(9L, watch1.times());
+        Assert.assertEquals(6L, watch1.histogram().count());
+
+        watch3.merge(watch1);
+        Assert.assertEquals(12L, watch3.times());
+        Assert.assertEquals(watch1.maxCost(), watch3.maxCost());
+
+        totalCost = watch4.totalCost() + watch1.totalCost();
+        watch4.merge(watch1);
+        Assert.assertEquals(12L, watch4.times());
+        Assert.assertEquals(totalCost, watch4.totalCost());
+
+        Stopwatch other = new NormalStopwatch("w2", Path.EMPTY);
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            watch3.merge(other);
+        }, e -> {
+            Assert.assertContains("Can't merge stopwatch 'w2' into 'w'",
+                                  e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            watch4.merge(other);
+        }, e -> {
+            Assert.assertContains("Can't merge stopwatch 'w2' into 'w'",
+                                  e.getMessage());
+        });
+    }
 }
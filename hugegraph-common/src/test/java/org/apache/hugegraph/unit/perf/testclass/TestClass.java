@@ -49,6 +49,17 @@ public class TestClass {
         public void bar() {}
     }
 
+    public static class AgentProfile {
+
+        @Watched("agent_foo")
+        public void foo() {
+            this.bar();
+        }
+
+        @Watched(value="bar", prefix="agent")
+        public void bar() {}
+    }
+
     public static class ManuallyProfile {
 
         public void foo() {
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hugegraph.unit.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.hugegraph.util.OrderLimitHeap;
+import org.apache.hugegraph.util.OrderLimitMap;
+import org.apache.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+
+public class OrderLimitHeapTest {
+
+    @Test
+    public void testInvalidCapacity() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new OrderLimitHeap<>(-1);
+        }, e -> {
+            Assert.assertEquals("The capacity must be > 0", e.getMessage());
+        });
+    }
+
+    @Test
+    public void testMap() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(4, 0.4);
+        map.put(2, 0.2);
+        map.put(5, 0.5);
+        map.put(1, 0.2);
+        map.put(3, 0.3);
+
+        Assert.assertEquals(5, map.size());
+
+        Assert.assertEquals(0.2, map.get(2), 1E-9);
+        Assert.assertEquals(0.4, map.get(4), 1E-9);
+
+        Assert.assertTrue(map.containsKey(1));
+        Assert.assertTrue(map.containsKey(3));
+        Assert.assertFalse(map.containsKey(6));
+
+        Assert.assertNull(map.get(6));
+
+        Assert.assertEquals(0.5, map.getOrDefault(5, 0.0), 1E-9);
+        Assert.assertEquals(0.0, map.getOrDefault(7, 0.0), 1E-9);
+    }
+
+    @Test
+    public void testOrder() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(1, 0.1);
+        map.put(2, 0.2);
+        map.put(3, 0.3);
+        map.put(4, 0.4);
+        map.put(5, 0.5);
+
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(5, 4, 3, 2, 1),
+                            keys(map));
+    }
+
+    @Test
+    public void testOrderWithIncrOrder() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5, true);
+        map.put(1, 0.5);
+        map.put(2, 0.4);
+        map.put(3, 0.3);
+        map.put(4, 0.2);
+        map.put(5, 0.1);
+
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(5, 4, 3, 2, 1),
+                            keys(map));
+    }
+
+    @Test
+    public void testOrderWithDupValue() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(1, 0.1);
+        map.put(2, 0.2);
+        map.put(3, 0.3);
+        map.put(4, 0.2);
+        map.put(5, 0.3);
+
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(3, 5, 2, 4, 1),
+                            keys(map));
+    }
+
+    @Test
+    public void testOrderWithDupValueAndKeyIncrOrder() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(4, 0.2);
+        map.put(2, 0.2);
+        map.put(1, 0.1);
+        map.put(5, 0.3);
+        map.put(3, 0.3);
+
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(3, 5, 2, 4, 1),
+                            keys(map));
+    }
+
+    @Test
+    public void testOrderWithDupKey() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(1, 0.1);
+        map.put(2, 0.2);
+        map.put(3, 0.3);
+        map.put(2, 0.4);
+        map.put(3, 0.2);
+
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(ImmutableList.of(2, 3, 1),
+                            keys(map));
+    }
+
+    @Test
+    public void testLimit() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(1, 0.1);
+        map.put(2, 0.2);
+        map.put(3, 0.3);
+        map.put(4, 0.4);
+        map.put(5, 0.5);
+
+        map.put(6, 0.6);
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(6, 5, 4, 3, 2),
+                            keys(map));
+
+        map.put(7, 0.7);
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(7, 6, 5, 4, 3),
+                            keys(map));
+    }
+
+    @Test
+    public void testLimitWithDupValue() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(1, 0.1);
+        map.put(2, 0.2);
+        map.put(3, 0.3);
+        map.put(4, 0.4);
+        map.put(5, 0.5);
+
+        map.put(6, 0.1);
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(5, 4, 3, 2, 6),
+                            keys(map));
+
+        map.put(7, 0.3);
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(5, 4, 3, 7, 2),
+                            keys(map));
+
+        map.put(8, 0.5);
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(5, 8, 4, 3, 7),
+                            keys(map));
+
+        map.put(0, 0.5);
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(ImmutableList.of(0, 5, 8, 4, 3),
+                            keys(map));
+    }
+
+    @Test
+    public void testTopN() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(5);
+        map.put(1, 0.1);
+        map.put(2, 0.2);
+        map.put(3, 0.3);
+        map.put(4, 0.4);
+        map.put(5, 0.5);
+
+        Map<Integer, Double> top = map.topN(1);
+        Assert.assertEquals(ImmutableList.of(5),
+                            ImmutableList.copyOf(top.keySet()));
+
+        top = map.topN(3);
+        Assert.assertEquals(ImmutableList.of(5, 4, 3),
+                            ImmutableList.copyOf(top.keySet()));
+
+        top = map.topN(5);
+        Assert.assertEquals(ImmutableList.of(5, 4, 3, 2, 1),
+                            ImmutableList.copyOf(top.keySet()));
+
+        top = map.topN(6);
+        Assert.assertEquals(ImmutableList.of(5, 4, 3, 2, 1),
+                            ImmutableList.copyOf(top.keySet()));
+    }
+
+    @Test
+    public void testPut() {
+        OrderLimitHeap<Integer, Double> map = new OrderLimitHeap<>(2);
+        Assert.assertNull(map.put(1, 0.1));
+        Assert.assertEquals(0.1, map.put(1, 0.3), 1E-9);
+        Assert.assertNull(map.put(2, 0.2));
+        Assert.assertNull(map.put(3, 0.4));
+        Assert.assertFalse(map.containsKey(2));
+        Assert.assertEquals(ImmutableList.of(3, 1), keys(map));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            map.put(null, 0.1);
+        }, e -> {
+            Assert.assertEquals("The key and value can't be null",
+                                e.getMessage());
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            map.put(4, null);
+        }, e -> {
+            Assert.assertEquals("The key and value can't be null",
+                                e.getMessage());
+        });
+    }
+
+    @Test
+    public void testSameAsOrderLimitMap() {
+        Random random = new Random(17);
+        for (boolean incr : new boolean[]{false, true}) {
+            for (int capacity : new int[]{1, 7, 100}) {
+                OrderLimitMap<Integer, Integer> expected;
+                expected = new OrderLimitMap<>(capacity, incr);
+                OrderLimitHeap<Integer, Integer> map;
+                map = new OrderLimitHeap<>(capacity, incr);
+                for (int i = 0; i < 2000; i++) {
+                    int key = random.nextInt(300);
+                    int value = random.nextInt(50);
+                    expected.put(key, value);
+                    map.put(key, value);
+                    Assert.assertEquals(expected.size(), map.size());
+                }
+                Assert.assertEquals(ImmutableList.copyOf(expected.keySet()),
+                                    keys(map));
+                Assert.assertEquals(ImmutableList.copyOf(
+                                    expected.topN(3).entrySet()),
+                                    ImmutableList.copyOf(
+                                    map.topN(3).entrySet()));
+                for (int key = 0; key < 300; key++) {
+                    Assert.assertEquals(expected.get(key), map.get(key));
+                }
+            }
+        }
+    }
+
+    private static <K extends Comparable<K>, V extends Comparable<V>>
+            List<K> keys(OrderLimitHeap<K, V> map) {
+        if (map.isEmpty()) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(map.topN(map.size()).keySet());
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.hugegraph.perf.PerfUtil;
 import org.apache.hugegraph.testutil.Assert;
 import org.apache.hugegraph.unit.BaseUnitTest;
 import org.apache.hugegraph.unit.perf.testclass.TestClass;
+import org.apache.hugegraph.unit.perf.testclass.TestClass.AgentProfile;
 import org.apache.hugegraph.unit.perf.testclass.TestClass.Bar;
 import org.apache.hugegraph.unit.perf.testclass.TestClass.Base;
 import org.apache.hugegraph.unit.perf.testclass.TestClass.Foo;
@@ -94,7 +95,7 @@ public class ReflectionUtilTest extends BaseUnitTest {
         @SuppressWarnings("unchecked")
         List<ClassInfo> classes = IteratorUtils.toList(ReflectionUtil.classes(
                                   "org.apache.hugegraph.util"));
-        Assert.assertEquals(19, classes.size());
+        Assert.assertEquals(20, classes.size());
         classes.sort(Comparator.comparing(ClassInfo::getName));
         Assert.assertEquals("org.apache.hugegraph.util.Bytes",
                             classes.get(0).getName());
@@ -119,13 +120,14 @@ public class ReflectionUtilTest extends BaseUnitTest {
     public void testNestedClasses() throws NotFoundException {
         List<String> classes = ReflectionUtil.nestedClasses(
                                TestClass.class.getName());
-        Assert.assertEquals(5, classes.size());
+        Assert.assertEquals(6, classes.size());
         classes.sort(String::compareTo);
-        Assert.assertEquals(Bar.class.getName(), classes.get(0));
-        Assert.assertEquals(Base.class.getName(), classes.get(1));
-        Assert.assertEquals(Foo.class.getName(), classes.get(2));
-        Assert.assertEquals(ManuallyProfile.class.getName(), classes.get(3));
-        Assert.assertEquals(Sub.class.getName(), classes.get(4));
+        Assert.assertEquals(AgentProfile.class.getName(), classes.get(0));
+        Assert.assertEquals(Bar.class.getName(), classes.get(1));
+        Assert.assertEquals(Base.class.getName(), classes.get(2));
+        Assert.assertEquals(Foo.class.getName(), classes.get(3));
+        Assert.assertEquals(ManuallyProfile.class.getName(), classes.get(4));
+        Assert.assertEquals(Sub.class.getName(), classes.get(5));
     }
 
     @Test